@@ -0,0 +1,77 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures inserting rows with a {@link ExecutorType#BATCH} session. Each invocation inserts {@code batchSize} rows,
+ * flushes them and rolls back so that the table stays empty.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchInsertBenchmark {
+
+  @Param({ "100", "1000" })
+  public int batchSize;
+
+  private SqlSessionFactory sqlSessionFactory;
+  private List<Post> posts;
+
+  @Setup
+  public void setUp() throws Exception {
+    sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory();
+    posts = new ArrayList<>(batchSize);
+    for (int i = 1; i <= batchSize; i++) {
+      posts.add(new Post(i, i % BenchmarkDatabase.AUTHORS + 1, "Subject " + i, "Body of post " + i));
+    }
+  }
+
+  @Benchmark
+  public List<BatchResult> batchInsert() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      for (Post post : posts) {
+        sqlSession.insert(BenchmarkDatabase.NAMESPACE + "insertPost", post);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      sqlSession.rollback(true);
+      return results;
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+
+/**
+ * 基准测试共用的HSQLDB内存数据库，每个基准在独立的JVM中运行，所以可以共用同一个库名
+ */
+final class BenchmarkDatabase {
+
+  static final String NAMESPACE = "org.apache.ibatis.benchmarks.BenchmarkMapper.";
+
+  static final int AUTHORS = 500;
+  static final int POSTS_PER_AUTHOR = 5;
+
+  private BenchmarkDatabase() {
+  }
+
+  static SqlSessionFactory createSqlSessionFactory() throws IOException, SQLException {
+    // CacheBuilder等直接使用LogFactory，这里也关闭日志，避免日志输出影响测量
+    LogFactory.useNoLogging();
+    SqlSessionFactory sqlSessionFactory;
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/benchmarks/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/benchmarks/CreateDB.sql");
+    populate(dataSource);
+    return sqlSessionFactory;
+  }
+
+  private static void populate(DataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement author = connection
+            .prepareStatement("insert into author (id, username, email, bio) values (?, ?, ?, ?)");
+        PreparedStatement post = connection
+            .prepareStatement("insert into post (id, author_id, subject, body) values (?, ?, ?, ?)")) {
+      connection.setAutoCommit(false);
+      int postId = 0;
+      for (int i = 1; i <= AUTHORS; i++) {
+        author.setInt(1, i);
+        author.setString(2, "author" + i);
+        author.setString(3, "author" + i + "@example.com");
+        author.setString(4, "Biography of author " + i);
+        author.addBatch();
+        for (int j = 0; j < POSTS_PER_AUTHOR; j++) {
+          post.setInt(1, ++postId);
+          post.setInt(2, i);
+          post.setString(3, "Subject " + postId);
+          post.setString(4, "Body of post " + postId);
+          post.addBatch();
+        }
+      }
+      author.executeBatch();
+      post.executeBatch();
+      connection.commit();
+    }
+  }
+
+}
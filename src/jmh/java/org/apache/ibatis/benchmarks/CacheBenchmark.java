@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a second level cache built like a {@code <cache/>} element (LRU, logging and synchronized decorators) under
+ * contention, and the creation of the {@link CacheKey} used to look it up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class CacheBenchmark {
+
+  private static final int CACHE_SIZE = 1024;
+  // 键的数量是缓存大小的两倍，LRU会持续淘汰
+  private static final int KEYS = CACHE_SIZE * 2;
+
+  private Cache cache;
+  private CacheKey[] keys;
+
+  @Setup
+  public void setUp() {
+    LogFactory.useNoLogging();
+    cache = new CacheBuilder("benchmark").size(CACHE_SIZE).build();
+    keys = new CacheKey[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      keys[i] = createCacheKey(i);
+      cache.putObject(keys[i], i);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class KeyCursor {
+    int index;
+
+    CacheKey next(CacheKey[] keys) {
+      return keys[index++ & KEYS - 1];
+    }
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public Object get(KeyCursor cursor) {
+    return cache.getObject(cursor.next(keys));
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public void put(KeyCursor cursor) {
+    CacheKey key = cursor.next(keys);
+    cache.putObject(key, key);
+  }
+
+  @Benchmark
+  @Group("readOnly")
+  @GroupThreads(4)
+  public Object getOnly(KeyCursor cursor) {
+    return cache.getObject(cursor.next(keys));
+  }
+
+  @Benchmark
+  @Group("cacheKey")
+  @GroupThreads(1)
+  public CacheKey cacheKey(KeyCursor cursor) {
+    CacheKey key = createCacheKey(cursor.index++);
+    key.hashCode();
+    return key;
+  }
+
+  /**
+   * 与BaseExecutor.createCacheKey相同的组成：语句id、分页参数、SQL、参数值和环境id
+   */
+  private static CacheKey createCacheKey(int parameter) {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.update(BenchmarkDatabase.NAMESPACE + "selectFlat");
+    cacheKey.update(0);
+    cacheKey.update(Integer.MAX_VALUE);
+    cacheKey.update("select id, username, email, bio from author where id = ?");
+    cacheKey.update(parameter);
+    cacheKey.update("benchmark");
+    return cacheKey;
+  }
+
+}
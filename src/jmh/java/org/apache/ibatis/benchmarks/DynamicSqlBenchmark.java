@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generation of a {@link BoundSql}: {@code DynamicSqlSource} evaluating {@code where}, {@code if},
+ * {@code foreach} and {@code choose} nodes, compared with a static statement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicSqlBenchmark {
+
+  private MappedStatement dynamicStatement;
+  private MappedStatement staticStatement;
+  private Map<String, Object> allConditions;
+  private Map<String, Object> noConditions;
+
+  @Setup
+  public void setUp() throws Exception {
+    Configuration configuration = BenchmarkDatabase.createSqlSessionFactory().getConfiguration();
+    dynamicStatement = configuration.getMappedStatement(BenchmarkDatabase.NAMESPACE + "selectDynamic");
+    staticStatement = configuration.getMappedStatement(BenchmarkDatabase.NAMESPACE + "selectFlat");
+
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      ids.add(i);
+    }
+    allConditions = new HashMap<>();
+    allConditions.put("username", "author%");
+    allConditions.put("email", "author1@example.com");
+    allConditions.put("ids", ids);
+    allConditions.put("orderBy", "username");
+
+    noConditions = new HashMap<>();
+    noConditions.put("username", null);
+    noConditions.put("email", null);
+    noConditions.put("ids", null);
+    noConditions.put("orderBy", null);
+  }
+
+  @Benchmark
+  public BoundSql dynamicAllConditions() {
+    return dynamicStatement.getBoundSql(allConditions);
+  }
+
+  @Benchmark
+  public BoundSql dynamicNoConditions() {
+    return dynamicStatement.getBoundSql(noConditions);
+  }
+
+  @Benchmark
+  public BoundSql staticSql() {
+    return staticStatement.getBoundSql(null);
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code DefaultParameterHandler} binding a bean and a map to a prepared statement, including the
+ * {@code MetaObject} lookups and the type handler resolution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParameterBindingBenchmark {
+
+  private Configuration configuration;
+  private MappedStatement mappedStatement;
+  private Connection connection;
+  private PreparedStatement preparedStatement;
+  private Post bean;
+  private Map<String, Object> map;
+
+  @Setup
+  public void setUp() throws Exception {
+    configuration = BenchmarkDatabase.createSqlSessionFactory().getConfiguration();
+    mappedStatement = configuration.getMappedStatement(BenchmarkDatabase.NAMESPACE + "insertPost");
+    bean = new Post(1, 1, "Subject", "Body");
+    map = new HashMap<>();
+    map.put("id", 1);
+    map.put("authorId", 1);
+    map.put("subject", "Subject");
+    map.put("body", "Body");
+
+    connection = configuration.getEnvironment().getDataSource().getConnection();
+    preparedStatement = connection.prepareStatement(mappedStatement.getBoundSql(bean).getSql());
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    preparedStatement.close();
+    connection.close();
+  }
+
+  @Benchmark
+  public PreparedStatement bean() throws SQLException {
+    return bind(bean);
+  }
+
+  @Benchmark
+  public PreparedStatement map() throws SQLException {
+    return bind(map);
+  }
+
+  private PreparedStatement bind(Object parameterObject) throws SQLException {
+    BoundSql boundSql = mappedStatement.getBoundSql(parameterObject);
+    ParameterHandler parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
+    parameterHandler.setParameters(preparedStatement);
+    return preparedStatement;
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.InterceptorChain;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures wrapping a handler with plugins and calling intercepted and not intercepted methods through the proxies,
+ * with one proxy per interceptor or a single composed proxy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PluginBenchmark {
+
+  @Param({ "1", "4" })
+  public int interceptors;
+
+  @Param({ "false", "true" })
+  public boolean composed;
+
+  private final ParameterHandler target = new NoOpParameterHandler();
+  private InterceptorChain interceptorChain;
+  private ParameterHandler proxy;
+
+  @Setup
+  public void setUp() {
+    interceptorChain = new InterceptorChain();
+    interceptorChain.setComposed(composed);
+    for (int i = 0; i < interceptors; i++) {
+      interceptorChain.addInterceptor(new PassThroughInterceptor());
+    }
+    proxy = (ParameterHandler) interceptorChain.pluginAll(target);
+  }
+
+  @Benchmark
+  public Object wrap() {
+    return interceptorChain.pluginAll(target);
+  }
+
+  @Benchmark
+  public Object intercepted() {
+    return proxy.getParameterObject();
+  }
+
+  @Benchmark
+  public ParameterHandler notIntercepted() throws Exception {
+    proxy.setParameters(null);
+    return proxy;
+  }
+
+  @Intercepts(@Signature(type = ParameterHandler.class, method = "getParameterObject", args = {}))
+  public static class PassThroughInterceptor implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return invocation.proceed();
+    }
+  }
+
+  static class NoOpParameterHandler implements ParameterHandler {
+    private final Object parameterObject = new Object();
+
+    @Override
+    public Object getParameterObject() {
+      return parameterObject;
+    }
+
+    @Override
+    public void setParameters(PreparedStatement ps) {
+      // 只测量代理的开销
+    }
+  }
+
+}
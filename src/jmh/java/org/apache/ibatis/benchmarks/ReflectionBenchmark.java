@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the reflection layer used while binding parameters and mapping results: creating a {@link MetaObject},
+ * reading and writing a property through it, and building a {@link Reflector} for a class that is not cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectionBenchmark {
+
+  private final Configuration configuration = new Configuration();
+  private Author author;
+
+  @Setup
+  public void setUp() {
+    author = new Author();
+    author.setId(1);
+    author.setUsername("author1");
+  }
+
+  @Benchmark
+  public Object getValue() {
+    return configuration.newMetaObject(author).getValue("username");
+  }
+
+  @Benchmark
+  public Author setValue() {
+    configuration.newMetaObject(author).setValue("email", "author1@example.com");
+    return author;
+  }
+
+  @Benchmark
+  public Reflector newReflector() {
+    return new Reflector(Author.class);
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Measures the element paths evaluated while parsing a mapper, such as {@code /mapper} and
+ * {@code select|insert|update|delete}, with {@code XPathParser}, which walks the DOM for simple paths, compared with
+ * {@code javax.xml.xpath}. Both produce the same {@link XNode}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XPathBenchmark {
+
+  private static final String ROOT = "/mapper";
+  private static final String STATEMENTS = "select|insert|update|delete";
+
+  @Param({ "10", "100" })
+  public int statements;
+
+  private XPathParser parser;
+  private XPath xpath;
+  private Document document;
+  private Node mapper;
+
+  @Setup
+  public void setUp() throws Exception {
+    StringBuilder xml = new StringBuilder("<mapper namespace=\"benchmark\">");
+    for (int i = 0; i < statements; i++) {
+      xml.append("<resultMap id=\"map").append(i).append("\" type=\"map\"><id column=\"id\"/></resultMap>");
+      xml.append("<select id=\"select").append(i).append("\">select * from t").append(i)
+          .append(" where id = #{id}</select>");
+      xml.append("<update id=\"update").append(i).append("\">update t").append(i)
+          .append(" set name = #{name} where id = #{id}</update>");
+    }
+    xml.append("</mapper>");
+    document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+        .parse(new InputSource(new StringReader(xml.toString())));
+    parser = new XPathParser(document);
+    xpath = XPathFactory.newInstance().newXPath();
+    mapper = document.getDocumentElement();
+  }
+
+  @Benchmark
+  public XNode rootSimple() {
+    return parser.evalNode(ROOT);
+  }
+
+  @Benchmark
+  public XNode rootXPath() throws Exception {
+    return new XNode(parser, (Node) xpath.evaluate(ROOT, document, XPathConstants.NODE), null);
+  }
+
+  @Benchmark
+  public List<XNode> statementsSimple() {
+    return parser.evalNodes(mapper, STATEMENTS);
+  }
+
+  @Benchmark
+  public List<XNode> statementsXPath() throws Exception {
+    NodeList nodes = (NodeList) xpath.evaluate(STATEMENTS, mapper, XPathConstants.NODESET);
+    List<XNode> xnodes = new ArrayList<>(nodes.getLength());
+    for (int i = 0; i < nodes.getLength(); i++) {
+      xnodes.add(new XNode(parser, nodes.item(i), null));
+    }
+    return xnodes;
+  }
+
+}
@@ -24,6 +24,7 @@ import java.lang.annotation.Target;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheInvalidation;
 
 // @formatter:off
 /**
@@ -93,6 +94,15 @@ public @interface CacheNamespace {
    */
   boolean blocking() default false;
 
+  /**
+   * Returns how the cache is invalidated by the statements that write to the database.
+   *
+   * @return the cache invalidation mode
+   *
+   * @since 3.5.14
+   */
+  CacheInvalidation invalidation() default CacheInvalidation.NAMESPACE;
+
   /**
    * Returns property values for a implementation object.
    *
@@ -136,6 +136,19 @@ public @interface Options {
    */
   String resultSets() default "";
 
+  /**
+   * Returns the tags this statement reads or writes when the cache of its namespace uses tag invalidation.
+   * <p>
+   * If you specify multiple tags, please separate using comma(','). A tag is a table, such as {@code blog}, or an
+   * entity key such as {@code blog:{id}}. When empty, the tables are inferred from the SQL.
+   * </p>
+   *
+   * @return cache tags that separate with comma(',')
+   *
+   * @since 3.5.14
+   */
+  String cacheTags() default "";
+
   /**
    * @return A database id that correspond this options
    *
@@ -0,0 +1,142 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * A {@link SqlSource} that builds the actual {@code SqlSource} of a statement when it is used for the first time.
+ * <p>
+ * Statements declared in the same mapper document belong to one {@link Group}. The DOM of a document is not safe for
+ * concurrent reads, so the statements of a group are built under the group's lock, and the first use of any of them
+ * builds all of them. This releases the document as soon as one of its statements is used. No lock is taken once a
+ * statement is built.
+ *
+ * @since 3.5.14
+ */
+public class LazySqlSource implements SqlSource {
+
+  private final String id;
+
+  private final Group group;
+
+  /**
+   * 创建真正SqlSource的工厂，创建完成后置为null以释放其引用的XML节点
+   */
+  private Supplier<SqlSource> factory;
+
+  /**
+   * 构建失败的原因，每次使用时重新抛出
+   */
+  private RuntimeException failure;
+
+  private volatile SqlSource delegate;
+
+  public LazySqlSource(String id, Supplier<SqlSource> factory) {
+    this(id, new Group(), factory);
+  }
+
+  public LazySqlSource(String id, Group group, Supplier<SqlSource> factory) {
+    this.id = id;
+    this.group = group;
+    this.factory = factory;
+    group.add(this);
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    return initialize().getBoundSql(parameterObject);
+  }
+
+  /**
+   * Builds the underlying {@code SqlSource} if it has not been built yet, together with the other pending statements
+   * of the same group.
+   *
+   * @return the underlying {@code SqlSource}
+   */
+  public SqlSource initialize() {
+    SqlSource sqlSource = delegate;
+    if (sqlSource != null) {
+      return sqlSource;
+    }
+    group.lock.lock();
+    try {
+      group.buildPending();
+      sqlSource = delegate;
+      if (sqlSource == null) {
+        throw new BuilderException("Error building SQL for statement '" + id + "'.  Cause: " + failure, failure);
+      }
+      return sqlSource;
+    } finally {
+      group.lock.unlock();
+    }
+  }
+
+  private void build() {
+    if (factory == null) {
+      return;
+    }
+    try {
+      delegate = factory.get();
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    factory = null;
+  }
+
+  public boolean isInitialized() {
+    return delegate != null;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Statements that are built together under one lock, typically all statements of one mapper document.
+   */
+  public static class Group {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 尚未构建的语句，构建后清空以释放文档
+     */
+    private final List<LazySqlSource> pending = new ArrayList<>();
+
+    private void add(LazySqlSource sqlSource) {
+      lock.lock();
+      try {
+        pending.add(sqlSource);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void buildPending() {
+      for (LazySqlSource sqlSource : pending) {
+        sqlSource.build();
+      }
+      pending.clear();
+    }
+  }
+}
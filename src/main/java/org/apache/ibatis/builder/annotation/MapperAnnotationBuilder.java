@@ -189,7 +189,7 @@ public class MapperAnnotationBuilder {
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
       Properties props = convertToProperties(cacheDomain.properties());
       assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size,
-          cacheDomain.readWrite(), cacheDomain.blocking(), props);
+          cacheDomain.readWrite(), cacheDomain.blocking(), cacheDomain.invalidation(), props);
     }
   }
 
@@ -368,7 +368,9 @@ public class MapperAnnotationBuilder {
           // TODO gcode issue #577
           false, keyGenerator, keyProperty, keyColumn, statementAnnotation.getDatabaseId(), languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null, statementAnnotation.isDirtySelect());
+          options != null ? nullOrEmpty(options.resultSets()) : null, statementAnnotation.isDirtySelect(),
+          // ResultSizeLimit, SlowQueryThreshold, CacheTags
+          null, null, options != null ? nullOrEmpty(options.cacheTags()) : null);
     });
   }
 
@@ -0,0 +1,130 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * 记录已经通过DTD校验的映射文件及其内容的校验和，保存在本地文件中。再次启动时，内容没有变化的映射文件可以跳过DTD校验直接解析
+ */
+class MapperSnapshot {
+
+  private static final Log log = LogFactory.getLog(MapperSnapshot.class);
+
+  private final Path file;
+
+  /**
+   * 映射文件的位置(resource或url)与其内容校验和的对应关系
+   */
+  private final Map<String, String> checksums = new ConcurrentHashMap<>();
+  private volatile boolean modified;
+
+  private MapperSnapshot(Path file) {
+    this.file = file;
+  }
+
+  static MapperSnapshot load(String file) {
+    MapperSnapshot snapshot = new MapperSnapshot(Paths.get(file));
+    if (Files.isRegularFile(snapshot.file)) {
+      Properties properties = new Properties();
+      try (InputStream inputStream = Files.newInputStream(snapshot.file)) {
+        properties.load(inputStream);
+        properties.stringPropertyNames().forEach(name -> snapshot.checksums.put(name, properties.getProperty(name)));
+      } catch (IOException | IllegalArgumentException e) {
+        // 快照只用于优化启动速度，无法读取时所有映射文件都重新校验
+        log.warn("Could not read the mapper snapshot " + file + ". Cause: " + e);
+      }
+    }
+    return snapshot;
+  }
+
+  static byte[] readAll(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = inputStream.read(buffer)) != -1) {
+      content.write(buffer, 0, n);
+    }
+    return content.toByteArray();
+  }
+
+  static String checksum(byte[] content) {
+    CRC32 crc = new CRC32();
+    crc.update(content);
+    return content.length + "-" + Long.toHexString(crc.getValue());
+  }
+
+  boolean isValidated(String location, String checksum) {
+    return checksum.equals(checksums.get(location));
+  }
+
+  void validated(String location, String checksum) {
+    if (!checksum.equals(checksums.put(location, checksum))) {
+      modified = true;
+    }
+  }
+
+  void save() {
+    if (!modified) {
+      return;
+    }
+    Properties properties = new Properties();
+    properties.putAll(checksums);
+    Path temp = null;
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      try (OutputStream outputStream = Files.newOutputStream(temp)) {
+        properties.store(outputStream, "MyBatis mapper snapshot");
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      temp = null;
+      modified = false;
+    } catch (IOException e) {
+      log.warn("Could not write the mapper snapshot " + file + ". Cause: " + e);
+    } finally {
+      deleteQuietly(temp);
+    }
+  }
+
+  private static void deleteQuietly(Path temp) {
+    if (temp == null) {
+      return;
+    }
+    try {
+      // 写入失败时不留下临时文件
+      Files.deleteIfExists(temp);
+    } catch (IOException e) {
+      log.warn("Could not delete " + temp + ". Cause: " + e);
+    }
+  }
+
+}
@@ -15,9 +15,17 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import javax.sql.DataSource;
 
@@ -39,11 +47,13 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.ResultGuardBehavior;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
 
@@ -312,6 +322,26 @@ public class XMLConfigBuilder extends BaseBuilder {
         booleanValueOf(props.getProperty("argNameBasedConstructorAutoMapping"), false));
     configuration.setDefaultSqlProviderType(resolveClass(props.getProperty("defaultSqlProviderType")));
     configuration.setNullableOnForEach(booleanValueOf(props.getProperty("nullableOnForEach"), false));
+    configuration.setReuseStatementCacheSize(integerValueOf(props.getProperty("reuseStatementCacheSize"), null));
+    configuration.setDynamicSqlShapeCacheSize(integerValueOf(props.getProperty("dynamicSqlShapeCacheSize"), null));
+    configuration.setFlattenDynamicSql(booleanValueOf(props.getProperty("flattenDynamicSql"), false));
+    configuration.setParallelMapperLoading(booleanValueOf(props.getProperty("parallelMapperLoading"), false));
+    configuration.setMapperSnapshotFile(props.getProperty("mapperSnapshotFile"));
+    configuration.setLazyStatementBuilding(booleanValueOf(props.getProperty("lazyStatementBuilding"), false));
+    configuration.setComposePlugins(booleanValueOf(props.getProperty("composePlugins"), false));
+    configuration.setDatabasePagination(booleanValueOf(props.getProperty("databasePagination"), false));
+    configuration.setStatementTracing(booleanValueOf(props.getProperty("statementTracing"), false));
+    configuration.setStatementTraceSampling(integerValueOf(props.getProperty("statementTraceSampling"), 1));
+    configuration.setAsyncStatementTrace(booleanValueOf(props.getProperty("asyncStatementTrace"), false));
+    configuration.setMetricsEnabled(booleanValueOf(props.getProperty("metricsEnabled"), false));
+    configuration.setAllocationProfiling(booleanValueOf(props.getProperty("allocationProfiling"), false));
+    configuration.setAllocationProfilingSampling(integerValueOf(props.getProperty("allocationProfilingSampling"), 1));
+    configuration.setSessionErrorContext(booleanValueOf(props.getProperty("sessionErrorContext"), false));
+    configuration.setDefaultResultSizeLimit(integerValueOf(props.getProperty("defaultResultSizeLimit"), null));
+    configuration.setDefaultSlowQueryThreshold(integerValueOf(props.getProperty("defaultSlowQueryThreshold"), null));
+    configuration
+        .setResultGuardBehavior(ResultGuardBehavior.valueOf(props.getProperty("resultGuardBehavior", "WARNING")));
+    configuration.setOgnlCacheSize(integerValueOf(props.getProperty("ognlCacheSize"), OgnlCache.DEFAULT_MAX_SIZE));
   }
 
   private void environmentsElement(XNode context) throws Exception {
@@ -412,8 +442,16 @@ public class XMLConfigBuilder extends BaseBuilder {
     if (context == null) {
       return;
     }
+    List<XNode> children = context.getChildren();
+    String snapshotFile = configuration.getMapperSnapshotFile();
+    MapperSnapshot snapshot = snapshotFile == null ? null : MapperSnapshot.load(snapshotFile);
+    // 并行加载时，先并发读取并解析所有映射文件的DOM、加载Mapper接口，然后仍然按照声明的顺序依次注册，
+    // 从而保证得到的Configuration与顺序加载完全相同
+    List<ForkJoinTask<?>> preloaded = configuration.isParallelMapperLoading() ? preloadMappers(children, snapshot)
+        : null;
     // 处理mybatis-config.xml中<mappers>的子节点
-    for (XNode child : context.getChildren()) {
+    for (int i = 0; i < children.size(); i++) {
+      XNode child = children.get(i);
       // 处理<package>节点
       if ("package".equals(child.getName())) {
         // 获取包名
@@ -429,22 +467,33 @@ public class XMLConfigBuilder extends BaseBuilder {
         // 处理resource属性
         if (resource != null && url == null && mapperClass == null) {
           ErrorContext.instance().resource(resource);
-          try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource,
-                configuration.getSqlFragments());
-            mapperParser.parse();
+          if (preloaded != null) {
+            XPathParser parser = (XPathParser) join(preloaded.get(i));
+            new XMLMapperBuilder(parser, configuration, resource, configuration.getSqlFragments()).parse();
+          } else {
+            try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+              XMLMapperBuilder mapperParser = new XMLMapperBuilder(newMapperParser(resource, inputStream, snapshot),
+                  configuration, resource, configuration.getSqlFragments());
+              mapperParser.parse();
+            }
           }
           // 处理url属性
         } else if (resource == null && url != null && mapperClass == null) {
           ErrorContext.instance().resource(url);
-          try (InputStream inputStream = Resources.getUrlAsStream(url)) {
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url,
-                configuration.getSqlFragments());
-            mapperParser.parse();
+          if (preloaded != null) {
+            XPathParser parser = (XPathParser) join(preloaded.get(i));
+            new XMLMapperBuilder(parser, configuration, url, configuration.getSqlFragments()).parse();
+          } else {
+            try (InputStream inputStream = Resources.getUrlAsStream(url)) {
+              XMLMapperBuilder mapperParser = new XMLMapperBuilder(newMapperParser(url, inputStream, snapshot),
+                  configuration, url, configuration.getSqlFragments());
+              mapperParser.parse();
+            }
           }
           // 处理mapperClass属性
         } else if (resource == null && url == null && mapperClass != null) {
-          Class<?> mapperInterface = Resources.classForName(mapperClass);
+          Class<?> mapperInterface = preloaded != null ? (Class<?>) join(preloaded.get(i))
+              : Resources.classForName(mapperClass);
           configuration.addMapper(mapperInterface);
         } else {
           // 不满足互斥条件（同时配置resource、url、class属性中的两者及以上），抛异常
@@ -453,6 +502,86 @@ public class XMLConfigBuilder extends BaseBuilder {
         }
       }
     }
+    if (snapshot != null) {
+      snapshot.save();
+    }
+  }
+
+  /**
+   * 在ForkJoinPool中并发读取并解析<mapper>节点指定的映射文件、加载指定的Mapper接口，不修改Configuration。
+   * 返回的集合与children一一对应，<package>节点以及属性配置错误的节点对应null
+   */
+  private List<ForkJoinTask<?>> preloadMappers(List<XNode> children, MapperSnapshot snapshot) {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), p -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      thread.setContextClassLoader(classLoader);
+      thread.setName("mybatis-mapper-loader-" + thread.getPoolIndex());
+      return thread;
+    }, null, false);
+    try {
+      List<ForkJoinTask<?>> tasks = new ArrayList<>(children.size());
+      for (XNode child : children) {
+        String resource = child.getStringAttribute("resource");
+        String url = child.getStringAttribute("url");
+        String mapperClass = child.getStringAttribute("class");
+        if ("package".equals(child.getName())) {
+          tasks.add(null);
+        } else if (resource != null && url == null && mapperClass == null) {
+          tasks.add(pool.submit(() -> {
+            try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+              return newMapperParser(resource, inputStream, snapshot);
+            }
+          }));
+        } else if (resource == null && url != null && mapperClass == null) {
+          tasks.add(pool.submit(() -> {
+            try (InputStream inputStream = Resources.getUrlAsStream(url)) {
+              return newMapperParser(url, inputStream, snapshot);
+            }
+          }));
+        } else if (resource == null && url == null && mapperClass != null) {
+          tasks.add(pool.submit(() -> Resources.classForName(mapperClass)));
+        } else {
+          tasks.add(null);
+        }
+      }
+      return tasks;
+    } finally {
+      // 已经提交的任务会继续执行
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * 创建映射文件的XPathParser。如果快照中记录的校验和与映射文件的内容一致，说明该映射文件已经通过了DTD校验，
+   * 此时跳过校验直接解析，否则进行校验并在成功后记录到快照中
+   */
+  private XPathParser newMapperParser(String location, InputStream inputStream, MapperSnapshot snapshot)
+      throws IOException {
+    if (snapshot == null) {
+      return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
+    }
+    byte[] content = MapperSnapshot.readAll(inputStream);
+    String checksum = MapperSnapshot.checksum(content);
+    boolean validation = !snapshot.isValidated(location, checksum);
+    XPathParser parser = new XPathParser(new ByteArrayInputStream(content), validation, configuration.getVariables(),
+        new XMLMapperEntityResolver());
+    if (validation) {
+      snapshot.validated(location, checksum);
+    }
+    return parser;
+  }
+
+  private static Object join(ForkJoinTask<?> task) throws Exception {
+    try {
+      return task.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw (Error) cause;
+    }
   }
 
   private boolean isSpecifiedEnvironment(String id) {
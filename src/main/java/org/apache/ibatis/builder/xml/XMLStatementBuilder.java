@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Locale;
 
 import org.apache.ibatis.builder.BaseBuilder;
+import org.apache.ibatis.builder.LazySqlSource;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.annotation.MapperAnnotationBuilder;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -33,6 +34,7 @@ import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
+import org.w3c.dom.Document;
 
 /**
  * 负责mapper映射文件中SQL节点的解析
@@ -40,6 +42,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public class XMLStatementBuilder extends BaseBuilder {
 
+  private static final String LAZY_GROUP_KEY = LazySqlSource.Group.class.getName();
+
   private final MapperBuilderAssistant builderAssistant;
   private final XNode context;
   private final String requiredDatabaseId;
@@ -96,7 +100,7 @@ public class XMLStatementBuilder extends BaseBuilder {
               ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE;
     }
 
-    SqlSource sqlSource = langDriver.createSqlSource(configuration, context, parameterTypeClass);
+    SqlSource sqlSource = createSqlSource(id, langDriver, context, parameterTypeClass);
     StatementType statementType = StatementType
         .valueOf(context.getStringAttribute("statementType", StatementType.PREPARED.toString()));
     Integer fetchSize = context.getIntAttribute("fetchSize");
@@ -117,10 +121,14 @@ public class XMLStatementBuilder extends BaseBuilder {
     String keyColumn = context.getStringAttribute("keyColumn");
     String resultSets = context.getStringAttribute("resultSets");
     boolean dirtySelect = context.getBooleanAttribute("affectData", Boolean.FALSE);
+    Integer resultSizeLimit = context.getIntAttribute("resultSizeLimit");
+    Integer slowQueryThreshold = context.getIntAttribute("slowQueryThreshold");
+    String cacheTags = context.getStringAttribute("cacheTags");
 
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType, fetchSize, timeout, parameterMap,
         parameterTypeClass, resultMap, resultTypeClass, resultSetTypeEnum, flushCache, useCache, resultOrdered,
-        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, dirtySelect);
+        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, dirtySelect, resultSizeLimit,
+        slowQueryThreshold, cacheTags);
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -164,7 +172,7 @@ public class XMLStatementBuilder extends BaseBuilder {
     String resultMap = null;
     ResultSetType resultSetTypeEnum = null;
 
-    SqlSource sqlSource = langDriver.createSqlSource(configuration, nodeToHandle, parameterTypeClass);
+    SqlSource sqlSource = createSqlSource(id, langDriver, nodeToHandle, parameterTypeClass);
     SqlCommandType sqlCommandType = SqlCommandType.SELECT;
 
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType, fetchSize, timeout, parameterMap,
@@ -177,6 +185,26 @@ public class XMLStatementBuilder extends BaseBuilder {
     configuration.addKeyGenerator(id, new SelectKeyGenerator(keyStatement, executeBefore));
   }
 
+  private SqlSource createSqlSource(String id, LanguageDriver langDriver, XNode script, Class<?> parameterTypeClass) {
+    if (configuration.isLazyStatementBuilding()) {
+      // 延迟到第一次使用时再解析SQL脚本
+      return new LazySqlSource(builderAssistant.applyCurrentNamespace(id, false), lazyGroup(script),
+          () -> langDriver.createSqlSource(configuration, script, parameterTypeClass));
+    }
+    return langDriver.createSqlSource(configuration, script, parameterTypeClass);
+  }
+
+  private LazySqlSource.Group lazyGroup(XNode script) {
+    // 同一个文档的DOM不能并发读取，其中的语句共用一个分组
+    Document document = script.getNode().getOwnerDocument();
+    LazySqlSource.Group group = (LazySqlSource.Group) document.getUserData(LAZY_GROUP_KEY);
+    if (group == null) {
+      group = new LazySqlSource.Group();
+      document.setUserData(LAZY_GROUP_KEY, group, null);
+    }
+    return group;
+  }
+
   private void removeSelectKeyNodes(List<XNode> selectKeyNodes) {
     for (XNode nodeToHandle : selectKeyNodes) {
       nodeToHandle.getParent().getNode().removeChild(nodeToHandle.getNode());
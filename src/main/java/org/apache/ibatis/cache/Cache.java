@@ -104,4 +104,30 @@ public interface Cache {
     return null;
   }
 
+  /**
+   * 获取缓存的统计信息，装饰器默认返回被装饰对象的统计信息
+   * Optional. Gets the statistics of this cache. Decorators that do not keep statistics return those of the cache they
+   * decorate.
+   *
+   * @return the statistics of this cache, or {@code null} if no statistics are kept
+   *
+   * @since 3.5.14
+   */
+  default CacheStatistics getStatistics() {
+    return null;
+  }
+
+  /**
+   * 绑定统计信息，装饰器可以向其中记录淘汰的缓存项等数据
+   * Optional. Binds the statistics this cache contributes to, for instance with the entries it evicts. Decorators must
+   * pass the statistics on to the cache they decorate.
+   *
+   * @param statistics
+   *          the statistics of the decorated cache
+   *
+   * @since 3.5.14
+   */
+  default void bindStatistics(CacheStatistics statistics) {
+  }
+
 }
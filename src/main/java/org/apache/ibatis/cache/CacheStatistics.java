@@ -0,0 +1,179 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a second level cache: hits, misses, puts, evictions and the time spent loading the missed values from the
+ * database. The counters are {@link LongAdder}s, so concurrent readers of the cache never contend on them.
+ * <p>
+ * The statistics of a cache are created by its {@link org.apache.ibatis.cache.decorators.LoggingCache} and bound to the
+ * decorators it wraps with {@link Cache#bindStatistics(CacheStatistics)}, so that each decorator can contribute, for
+ * instance with the entries it evicts. Read them with {@link Cache#getStatistics()}. An {@link EvictionListener} set
+ * with {@link #setEvictionListener(EvictionListener)} is told the keys of the evicted entries.
+ *
+ * @since 3.5.14
+ */
+public class CacheStatistics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadTimeNanos = new LongAdder();
+  private volatile EvictionListener evictionListener;
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordPut() {
+    puts.increment();
+  }
+
+  public void recordEviction() {
+    evictions.increment();
+  }
+
+  /**
+   * Records the eviction of an entry and tells the eviction listener its key.
+   *
+   * @param key
+   *          the key of the evicted entry
+   */
+  public void recordEviction(Object key) {
+    evictions.increment();
+    EvictionListener listener = evictionListener;
+    if (listener != null) {
+      listener.onEviction(key);
+    }
+  }
+
+  public void recordEvictions(long count) {
+    evictions.add(count);
+  }
+
+  /**
+   * Records the eviction of all the entries at once, for instance when a scheduled cache expires.
+   *
+   * @param count
+   *          the number of evicted entries
+   */
+  public void recordEvictAll(long count) {
+    evictions.add(count);
+    EvictionListener listener = evictionListener;
+    if (listener != null) {
+      listener.onEvictAll();
+    }
+  }
+
+  public void setEvictionListener(EvictionListener evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Records the time spent loading a value that was missing in the cache.
+   *
+   * @param nanos
+   *          the load time in nanoseconds
+   */
+  public void recordLoad(long nanos) {
+    loads.increment();
+    loadTimeNanos.add(nanos);
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getRequests() {
+    return getHits() + getMisses();
+  }
+
+  /**
+   * Gets the ratio of the requests that found a value in the cache.
+   *
+   * @return the hit ratio, or {@code 0} if the cache has not been read yet
+   */
+  public double getHitRatio() {
+    long hitCount = getHits();
+    long requestCount = hitCount + getMisses();
+    return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+  }
+
+  public long getPuts() {
+    return puts.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  public long getTotalLoadTimeNanos() {
+    return loadTimeNanos.sum();
+  }
+
+  public long getAverageLoadTimeNanos() {
+    long loadCount = getLoads();
+    return loadCount == 0 ? 0 : getTotalLoadTimeNanos() / loadCount;
+  }
+
+  /**
+   * Resets all the counters. Updates made while resetting may be lost.
+   */
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    puts.reset();
+    evictions.reset();
+    loads.reset();
+    loadTimeNanos.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics{hits=" + getHits() + ", misses=" + getMisses() + ", hitRatio=" + getHitRatio() + ", puts="
+        + getPuts() + ", evictions=" + getEvictions() + ", loads=" + getLoads() + ", averageLoadTimeNanos="
+        + getAverageLoadTimeNanos() + "}";
+  }
+
+  /**
+   * Receives the entries evicted by the decorators of a cache. It is called by the thread that caused the eviction,
+   * possibly while a decorator holds its lock, so it must not block on the cache.
+   */
+  public interface EvictionListener {
+
+    void onEviction(Object key);
+
+    void onEvictAll();
+
+  }
+
+}
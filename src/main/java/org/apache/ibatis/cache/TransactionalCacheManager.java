@@ -17,6 +17,7 @@ package org.apache.ibatis.cache;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 import org.apache.ibatis.util.MapUtil;
@@ -40,6 +41,14 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  public void putObject(Cache cache, CacheKey key, Object value, Set<String> tags) {
+    getTransactionalCache(cache).putObject(key, value, tags);
+  }
+
+  public void invalidate(Cache cache, Set<String> tags) {
+    getTransactionalCache(cache).invalidate(tags);
+  }
+
   public void commit() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
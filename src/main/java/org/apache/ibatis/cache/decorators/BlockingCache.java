@@ -21,6 +21,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * <p>
@@ -100,6 +101,16 @@ public class BlockingCache implements Cache {
     delegate.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    delegate.bindStatistics(statistics);
+  }
+
   /**
    * 获取key对应的锁
    */
@@ -19,6 +19,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * FIFO (first in, first out) cache decorator.
@@ -43,6 +44,11 @@ public class FifoCache implements Cache {
    */
   private int size;
 
+  /**
+   * 缓存的统计信息，用于记录被淘汰的缓存项，未绑定时为null
+   */
+  private CacheStatistics statistics;
+
   public FifoCache(Cache delegate) {
     this.delegate = delegate;
     this.keyList = new LinkedList<>();
@@ -87,11 +93,25 @@ public class FifoCache implements Cache {
     keyList.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    delegate.bindStatistics(statistics);
+  }
+
   private void cycleKeyList(Object key) {
     keyList.addLast(key);
     if (keyList.size() > size) {
       Object oldestKey = keyList.removeFirst();
       delegate.removeObject(oldestKey);
+      if (statistics != null) {
+        statistics.recordEviction(oldestKey);
+      }
     }
   }
 
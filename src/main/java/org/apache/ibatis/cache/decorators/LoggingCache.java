@@ -16,6 +16,7 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -26,12 +27,25 @@ public class LoggingCache implements Cache {
 
   private final Log log;
   private final Cache delegate;
+  // 基于LongAdder的统计信息，并发读取缓存时不需要加锁
+  private final CacheStatistics statistics = new CacheStatistics();
+  /**
+   * @deprecated Since 3.5.14, use {@link #getStatistics()}. Still counted for subclasses; changing it does not affect
+   *             the statistics.
+   */
+  @Deprecated
   protected int requests;
+  /**
+   * @deprecated Since 3.5.14, use {@link #getStatistics()}. Still counted for subclasses; changing it does not affect
+   *             the statistics.
+   */
+  @Deprecated
   protected int hits;
 
   public LoggingCache(Cache delegate) {
     this.delegate = delegate;
     this.log = LogFactory.getLog(getId());
+    delegate.bindStatistics(statistics);
   }
 
   @Override
@@ -47,6 +61,7 @@ public class LoggingCache implements Cache {
   @Override
   public void putObject(Object key, Object object) {
     delegate.putObject(key, object);
+    statistics.recordPut();
   }
 
   @Override
@@ -55,9 +70,12 @@ public class LoggingCache implements Cache {
     final Object value = delegate.getObject(key);
     if (value != null) {
       hits++;
+      statistics.recordHit();
+    } else {
+      statistics.recordMiss();
     }
     if (log.isDebugEnabled()) {
-      log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
+      log.debug("Cache Hit Ratio [" + getId() + "]: " + statistics.getHitRatio());
     }
     return value;
   }
@@ -72,6 +90,16 @@ public class LoggingCache implements Cache {
     delegate.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    // 统计信息由当前对象创建并绑定到被装饰对象，忽略外部绑定
+  }
+
   @Override
   public int hashCode() {
     return delegate.hashCode();
@@ -82,8 +110,4 @@ public class LoggingCache implements Cache {
     return delegate.equals(obj);
   }
 
-  private double getHitRatio() {
-    return (double) hits / (double) requests;
-  }
-
 }
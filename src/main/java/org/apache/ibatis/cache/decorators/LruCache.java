@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * Lru (least recently used) cache decorator.
@@ -43,6 +44,11 @@ public class LruCache implements Cache {
    */
   private Object eldestKey;
 
+  /**
+   * 缓存的统计信息，用于记录被淘汰的缓存项，未绑定时为null
+   */
+  private CacheStatistics statistics;
+
   public LruCache(Cache delegate) {
     this.delegate = delegate;
     // 设置默认缓存大小：1024，可以通过setSize更改
@@ -104,13 +110,28 @@ public class LruCache implements Cache {
     keyMap.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    delegate.bindStatistics(statistics);
+  }
+
   private void cycleKeyList(Object key) {
     keyMap.put(key, key);
     // eldestKey != null，表示已经达到缓存上限
     if (eldestKey != null) {
       // 删除最久未使用的缓存项
-      delegate.removeObject(eldestKey);
+      Object evictedKey = eldestKey;
+      delegate.removeObject(evictedKey);
       eldestKey = null;
+      if (statistics != null) {
+        statistics.recordEviction(evictedKey);
+      }
     }
   }
 
@@ -18,6 +18,7 @@ package org.apache.ibatis.cache.decorators;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * @author Clinton Begin
@@ -27,6 +28,7 @@ public class ScheduledCache implements Cache {
   private final Cache delegate;
   protected long clearInterval;
   protected long lastClear;
+  private CacheStatistics statistics;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -72,6 +74,17 @@ public class ScheduledCache implements Cache {
     delegate.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    delegate.bindStatistics(statistics);
+  }
+
   @Override
   public int hashCode() {
     return delegate.hashCode();
@@ -84,6 +97,10 @@ public class ScheduledCache implements Cache {
 
   private boolean clearWhenStale() {
     if (System.currentTimeMillis() - lastClear > clearInterval) {
+      if (statistics != null) {
+        // 过期清空的缓存项计为淘汰
+        statistics.recordEvictAll(delegate.getSize());
+      }
       clear();
       return true;
     }
@@ -26,6 +26,7 @@ import java.io.Serializable;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.SerialFilterChecker;
 
@@ -74,6 +75,16 @@ public class SerializedCache implements Cache {
     delegate.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    delegate.bindStatistics(statistics);
+  }
+
   @Override
   public int hashCode() {
     return delegate.hashCode();
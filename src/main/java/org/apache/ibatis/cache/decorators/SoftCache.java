@@ -21,6 +21,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * Soft Reference cache decorator.
@@ -53,6 +54,11 @@ public class SoftCache implements Cache {
    */
   private int numberOfHardLinks;
 
+  /**
+   * 缓存的统计信息，用于记录被淘汰的缓存项，未绑定时为null
+   */
+  private CacheStatistics statistics;
+
   public SoftCache(Cache delegate) {
     this.delegate = delegate;
     // 强连接的个数，默认值：256
@@ -122,10 +128,24 @@ public class SoftCache implements Cache {
     delegate.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    delegate.bindStatistics(statistics);
+  }
+
   private void removeGarbageCollectedItems() {
     SoftEntry sv;
     while ((sv = (SoftEntry) queueOfGarbageCollectedEntries.poll()) != null) {
       delegate.removeObject(sv.key);
+      if (statistics != null) {
+        statistics.recordEviction(sv.key);
+      }
     }
   }
 
@@ -15,13 +15,18 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * @author Clinton Begin
  */
 public class SynchronizedCache implements Cache {
 
+  // 使用ReentrantLock代替synchronized，虚拟线程在等待锁时不会固定载体线程
+  private final ReentrantLock lock = new ReentrantLock();
   private final Cache delegate;
 
   public SynchronizedCache(Cache delegate) {
@@ -34,28 +39,63 @@ public class SynchronizedCache implements Cache {
   }
 
   @Override
-  public synchronized int getSize() {
-    return delegate.getSize();
+  public int getSize() {
+    lock.lock();
+    try {
+      return delegate.getSize();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    lock.lock();
+    try {
+      delegate.putObject(key, object);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    lock.lock();
+    try {
+      return delegate.getObject(key);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized void putObject(Object key, Object object) {
-    delegate.putObject(key, object);
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      return delegate.removeObject(key);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Object getObject(Object key) {
-    return delegate.getObject(key);
+  public void clear() {
+    lock.lock();
+    try {
+      delegate.clear();
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Object removeObject(Object key) {
-    return delegate.removeObject(key);
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
   }
 
   @Override
-  public synchronized void clear() {
-    delegate.clear();
+  public void bindStatistics(CacheStatistics statistics) {
+    delegate.bindStatistics(statistics);
   }
 
   @Override
@@ -0,0 +1,405 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+
+/**
+ * Indexes the entries of a cache by the tags of the statements that loaded them, so that a write evicts only the
+ * entries it affects instead of the whole cache.
+ * <p>
+ * A tag is either a table, such as {@code blog}, or an entity key of a table, such as {@code blog:1}. A written table
+ * tag evicts every entry tagged with that table or one of its keys. A written key tag evicts the entries tagged with
+ * the same key and the entries tagged with the whole table. Entries put without tags are evicted by any write.
+ * <p>
+ * Entries removed by the decorated caches, for instance by an eviction policy, are removed from the index through the
+ * {@link CacheStatistics.EvictionListener} of the cache. The evicted keys are queued and unindexed on the next write, so
+ * the decorators never wait for this cache. When the index still holds more than {@code maxIndexedKeys} keys, the whole
+ * cache is cleared.
+ *
+ * @since 3.5.14
+ */
+public class TaggedCache implements Cache, CacheStatistics.EvictionListener {
+
+  public static final int DEFAULT_MAX_INDEXED_KEYS = 4096;
+
+  private static final String WHOLE_TABLE = "";
+
+  private final Cache delegate;
+  // 删除缓存项时使用的Cache对象，BlockingCache的removeObject()只释放锁，因此需要绕过它
+  private final Cache entries;
+  private final ReentrantLock lock = new ReentrantLock();
+  // 表名 -> 实体键(WHOLE_TABLE表示整张表) -> 缓存项的key
+  private final Map<String, Map<String, Set<Object>>> keysByTable = new HashMap<>();
+  // 缓存项的key -> 标签和放入时的版本号，没有标签的缓存项对应空集合
+  private final Map<Object, IndexEntry> tagsByKey = new HashMap<>();
+  // 没有标签的缓存项，任何写操作都会删除它们
+  private final Set<Object> untaggedKeys = new HashSet<>();
+  private int maxIndexedKeys = DEFAULT_MAX_INDEXED_KEYS;
+  // 每次放入缓存项后递增。淘汰事件记录发生时的版本号，只清理在此之前放入的索引，避免误删随后重新放入的缓存项
+  private final AtomicLong version = new AtomicLong();
+  // 下层装饰器淘汰的缓存项，持有锁时再从索引中清理
+  private final Queue<Eviction> evictions = new ConcurrentLinkedQueue<>();
+
+  public TaggedCache(Cache delegate) {
+    this(delegate, delegate);
+  }
+
+  /**
+   * Creates a tagged cache that evicts entries from another cache than the one it decorates.
+   *
+   * @param delegate
+   *          the decorated cache
+   * @param entries
+   *          the cache to remove evicted entries from, below any {@link BlockingCache} of the decorated cache
+   */
+  public TaggedCache(Cache delegate, Cache entries) {
+    this.delegate = delegate;
+    this.entries = entries;
+    CacheStatistics statistics = delegate.getStatistics();
+    if (statistics != null) {
+      statistics.setEvictionListener(this);
+    }
+  }
+
+  public void setMaxIndexedKeys(int maxIndexedKeys) {
+    this.maxIndexedKeys = maxIndexedKeys;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    putObject(key, value, null);
+  }
+
+  /**
+   * Puts an entry and indexes it by the given tags.
+   *
+   * @param key
+   *          the key
+   * @param value
+   *          the value
+   * @param tags
+   *          the tags read by the statement that loaded the value, or {@code null} or empty if they are not known
+   */
+  public void putObject(Object key, Object value, Set<String> tags) {
+    lock.lock();
+    try {
+      unindex(key);
+      delegate.putObject(key, value);
+      // 在放入之后递增，放入前发生的淘汰不会影响这个缓存项
+      long putVersion = version.incrementAndGet();
+      drainEvictions();
+      if (value != null) {
+        index(key, tags, putVersion);
+        if (tagsByKey.size() > maxIndexedKeys) {
+          // 索引过大时退化为清空整个缓存
+          clearLocked();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    long readVersion = version.get();
+    Object value = delegate.getObject(key);
+    if (value == null) {
+      // 缓存项可能已被淘汰策略删除，顺便清理索引
+      lock.lock();
+      try {
+        unindex(key, readVersion);
+      } finally {
+        lock.unlock();
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      clearLocked();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Evicts the entries affected by the given written tags.
+   *
+   * @param writtenTags
+   *          the tags written by a statement
+   */
+  public void invalidate(Collection<String> writtenTags) {
+    lock.lock();
+    try {
+      drainEvictions();
+      Set<Object> keys = new HashSet<>(untaggedKeys);
+      for (String tag : writtenTags) {
+        Map<String, Set<Object>> keysByEntity = keysByTable.get(table(tag));
+        if (keysByEntity == null) {
+          continue;
+        }
+        String entity = entity(tag);
+        if (entity == null) {
+          keysByEntity.values().forEach(keys::addAll);
+        } else {
+          addAll(keys, keysByEntity.get(entity));
+          addAll(keys, keysByEntity.get(WHOLE_TABLE));
+        }
+      }
+      for (Object key : keys) {
+        entries.removeObject(key);
+        unindex(key);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Checks whether an entry would be evicted by the given written tags.
+   *
+   * @param key
+   *          the key of the entry
+   * @param writtenTags
+   *          the tags written by a statement
+   *
+   * @return {@code true} if the entry is affected, or is not indexed
+   */
+  public boolean isAffected(Object key, Collection<String> writtenTags) {
+    IndexEntry entry;
+    lock.lock();
+    try {
+      entry = tagsByKey.get(key);
+    } finally {
+      lock.unlock();
+    }
+    return entry == null || isAffected(entry.tags, writtenTags);
+  }
+
+  /**
+   * Checks whether an entry read with the given tags is affected by the given written tags.
+   *
+   * @param readTags
+   *          the tags of the entry, or {@code null} or empty if they are not known
+   * @param writtenTags
+   *          the tags written by a statement
+   *
+   * @return {@code true} if the entry is affected
+   */
+  public static boolean isAffected(Set<String> readTags, Collection<String> writtenTags) {
+    if (readTags == null || readTags.isEmpty()) {
+      return true;
+    }
+    for (String written : writtenTags) {
+      String writtenEntity = entity(written);
+      for (String read : readTags) {
+        if (table(read).equals(table(written))) {
+          String readEntity = entity(read);
+          if (writtenEntity == null || readEntity == null || writtenEntity.equals(readEntity)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  public int getIndexedKeyCount() {
+    lock.lock();
+    try {
+      drainEvictions();
+      return tagsByKey.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    delegate.bindStatistics(statistics);
+  }
+
+  @Override
+  public void onEviction(Object key) {
+    evictions.add(new Eviction(key, version.get()));
+  }
+
+  @Override
+  public void onEvictAll() {
+    evictions.add(new Eviction(null, version.get()));
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private void clearLocked() {
+    delegate.clear();
+    keysByTable.clear();
+    tagsByKey.clear();
+    untaggedKeys.clear();
+    evictions.clear();
+  }
+
+  private void drainEvictions() {
+    Eviction eviction;
+    while ((eviction = evictions.poll()) != null) {
+      if (eviction.key != null) {
+        unindex(eviction.key, eviction.version);
+        continue;
+      }
+      List<Object> evictedKeys = new ArrayList<>();
+      for (Map.Entry<Object, IndexEntry> entry : tagsByKey.entrySet()) {
+        if (entry.getValue().version <= eviction.version) {
+          evictedKeys.add(entry.getKey());
+        }
+      }
+      evictedKeys.forEach(this::unindex);
+    }
+  }
+
+  private void index(Object key, Set<String> tags, long putVersion) {
+    Set<String> indexedTags = tags == null ? new HashSet<>() : new HashSet<>(tags);
+    tagsByKey.put(key, new IndexEntry(indexedTags, putVersion));
+    if (indexedTags.isEmpty()) {
+      untaggedKeys.add(key);
+    }
+    for (String tag : indexedTags) {
+      String entity = entity(tag);
+      keysByTable.computeIfAbsent(table(tag), k -> new HashMap<>())
+          .computeIfAbsent(entity == null ? WHOLE_TABLE : entity, k -> new HashSet<>()).add(key);
+    }
+  }
+
+  /**
+   * 只清理在指定版本号之前放入的索引
+   */
+  private void unindex(Object key, long evictedVersion) {
+    IndexEntry entry = tagsByKey.get(key);
+    if (entry != null && entry.version <= evictedVersion) {
+      unindex(key);
+    }
+  }
+
+  private void unindex(Object key) {
+    IndexEntry entry = tagsByKey.remove(key);
+    if (entry == null) {
+      return;
+    }
+    untaggedKeys.remove(key);
+    for (String tag : entry.tags) {
+      String table = table(tag);
+      Map<String, Set<Object>> keysByEntity = keysByTable.get(table);
+      if (keysByEntity == null) {
+        continue;
+      }
+      String entity = entity(tag);
+      String bucket = entity == null ? WHOLE_TABLE : entity;
+      Set<Object> keys = keysByEntity.get(bucket);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByEntity.remove(bucket);
+        }
+      }
+      if (keysByEntity.isEmpty()) {
+        keysByTable.remove(table);
+      }
+    }
+  }
+
+  private static void addAll(Set<Object> keys, Set<Object> bucket) {
+    if (bucket != null) {
+      keys.addAll(bucket);
+    }
+  }
+
+  private static String table(String tag) {
+    int separator = tag.indexOf(':');
+    return separator < 0 ? tag : tag.substring(0, separator);
+  }
+
+  private static String entity(String tag) {
+    int separator = tag.indexOf(':');
+    return separator < 0 ? null : tag.substring(separator + 1);
+  }
+
+  private static class IndexEntry {
+    private final Set<String> tags;
+    private final long version;
+
+    IndexEntry(Set<String> tags, long version) {
+      this.tags = tags;
+      this.version = version;
+    }
+  }
+
+  private static class Eviction {
+    // null表示淘汰了所有缓存项
+    private final Object key;
+    private final long version;
+
+    Eviction(Object key, long version) {
+      this.key = key;
+      this.version = version;
+    }
+  }
+
+}
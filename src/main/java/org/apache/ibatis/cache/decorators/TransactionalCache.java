@@ -17,10 +17,12 @@ package org.apache.ibatis.cache.decorators;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -40,15 +42,23 @@ public class TransactionalCache implements Cache {
   private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
   private final Cache delegate;
+  // 二级缓存使用TAG失效模式时不为null
+  private final TaggedCache taggedCache;
   private boolean clearOnCommit;
   private final Map<Object, Object> entriesToAddOnCommit;
   private final Set<Object> entriesMissedInCache;
+  // 待提交缓存项的标签以及提交时需要失效的标签，只在TAG失效模式下使用
+  private final Map<Object, Set<String>> tagsToAddOnCommit;
+  private final Set<String> tagsToInvalidateOnCommit;
 
   public TransactionalCache(Cache delegate) {
     this.delegate = delegate;
+    this.taggedCache = delegate instanceof TaggedCache ? (TaggedCache) delegate : null;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
     this.entriesMissedInCache = new HashSet<>();
+    this.tagsToAddOnCommit = new HashMap<>();
+    this.tagsToInvalidateOnCommit = new HashSet<>();
   }
 
   @Override
@@ -72,6 +82,11 @@ public class TransactionalCache implements Cache {
     if (clearOnCommit) {
       return null;
     }
+    if (object != null && !tagsToInvalidateOnCommit.isEmpty()
+        && taggedCache.isAffected(key, tagsToInvalidateOnCommit)) {
+      // 当前事务写过的数据，提交前不再读取缓存
+      return null;
+    }
     return object;
   }
 
@@ -80,6 +95,26 @@ public class TransactionalCache implements Cache {
     entriesToAddOnCommit.put(key, object);
   }
 
+  /**
+   * Puts an entry on commit together with the tags read by the statement that loaded it. The tags are ignored unless
+   * the cache uses tag invalidation.
+   *
+   * @param key
+   *          the key
+   * @param object
+   *          the value
+   * @param tags
+   *          the tags read by the statement
+   *
+   * @since 3.5.14
+   */
+  public void putObject(Object key, Object object, Set<String> tags) {
+    entriesToAddOnCommit.put(key, object);
+    if (taggedCache != null) {
+      tagsToAddOnCommit.put(key, tags);
+    }
+  }
+
   @Override
   public Object removeObject(Object key) {
     return null;
@@ -89,11 +124,50 @@ public class TransactionalCache implements Cache {
   public void clear() {
     clearOnCommit = true;
     entriesToAddOnCommit.clear();
+    tagsToAddOnCommit.clear();
+  }
+
+  /**
+   * Evicts on commit only the entries affected by the given written tags. Clears the whole cache on commit instead when
+   * the cache does not use tag invalidation or when no tag is known.
+   *
+   * @param tags
+   *          the tags written by a statement
+   *
+   * @since 3.5.14
+   */
+  public void invalidate(Set<String> tags) {
+    if (taggedCache == null || tags.isEmpty()) {
+      clear();
+      return;
+    }
+    tagsToInvalidateOnCommit.addAll(tags);
+    // 与clear()一致，丢弃当前事务中已经受影响的待提交缓存项
+    Iterator<Object> keys = entriesToAddOnCommit.keySet().iterator();
+    while (keys.hasNext()) {
+      Object key = keys.next();
+      if (TaggedCache.isAffected(tagsToAddOnCommit.get(key), tags)) {
+        keys.remove();
+        tagsToAddOnCommit.remove(key);
+      }
+    }
+  }
+
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    delegate.bindStatistics(statistics);
   }
 
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
+    } else if (!tagsToInvalidateOnCommit.isEmpty()) {
+      taggedCache.invalidate(tagsToInvalidateOnCommit);
     }
     flushPendingEntries();
     reset();
@@ -108,11 +182,17 @@ public class TransactionalCache implements Cache {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
     entriesMissedInCache.clear();
+    tagsToAddOnCommit.clear();
+    tagsToInvalidateOnCommit.clear();
   }
 
   private void flushPendingEntries() {
     for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
+      if (taggedCache != null) {
+        taggedCache.putObject(entry.getKey(), entry.getValue(), tagsToAddOnCommit.get(entry.getKey()));
+      } else {
+        delegate.putObject(entry.getKey(), entry.getValue());
+      }
     }
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
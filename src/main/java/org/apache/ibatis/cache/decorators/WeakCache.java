@@ -21,6 +21,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * Weak Reference cache decorator.
@@ -36,6 +37,7 @@ public class WeakCache implements Cache {
   private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
   private final Cache delegate;
   private int numberOfHardLinks;
+  private CacheStatistics statistics;
 
   public WeakCache(Cache delegate) {
     this.delegate = delegate;
@@ -103,10 +105,24 @@ public class WeakCache implements Cache {
     delegate.clear();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void bindStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    delegate.bindStatistics(statistics);
+  }
+
   private void removeGarbageCollectedItems() {
     WeakEntry sv;
     while ((sv = (WeakEntry) queueOfGarbageCollectedEntries.poll()) != null) {
       delegate.removeObject(sv.key);
+      if (statistics != null) {
+        statistics.recordEviction(sv.key);
+      }
     }
   }
 
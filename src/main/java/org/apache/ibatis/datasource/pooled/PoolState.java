@@ -17,6 +17,7 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 用于管理所有连接的状态，表示PooledDataSource的状态
@@ -82,6 +83,21 @@ public class PoolState {
    */
   protected long badConnectionCount;
 
+  /**
+   * 连接级别PreparedStatement缓存的命中次数
+   */
+  protected final LongAdder statementCacheHitCount = new LongAdder();
+
+  /**
+   * 连接级别PreparedStatement缓存的未命中次数
+   */
+  protected final LongAdder statementCacheMissCount = new LongAdder();
+
+  /**
+   * 连接级别PreparedStatement缓存因超过容量而关闭的Statement个数
+   */
+  protected final LongAdder statementCacheEvictionCount = new LongAdder();
+
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
@@ -120,6 +136,18 @@ public class PoolState {
     return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
   }
 
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.sum();
+  }
+
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.sum();
+  }
+
+  public long getStatementCacheEvictionCount() {
+    return statementCacheEvictionCount.sum();
+  }
+
   public synchronized int getIdleConnectionCount() {
     return idleConnections.size();
   }
@@ -144,6 +172,7 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolMaxCachedStatements        ").append(dataSource.poolMaximumCachedStatements);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -155,6 +184,9 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n statementCacheHits             ").append(getStatementCacheHitCount());
+    builder.append("\n statementCacheMisses           ").append(getStatementCacheMissCount());
+    builder.append("\n statementCacheEvictions        ").append(getStatementCacheEvictionCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
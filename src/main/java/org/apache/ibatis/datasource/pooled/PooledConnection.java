@@ -31,6 +31,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = { Connection.class };
 
   /**
@@ -79,6 +80,11 @@ class PooledConnection implements InvocationHandler {
    */
   private boolean valid;
 
+  /**
+   * 与真正的数据库连接绑定的PreparedStatement缓存，未开启时为null
+   */
+  private PooledStatementCache statementCache;
+
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
    *
@@ -94,6 +100,10 @@ class PooledConnection implements InvocationHandler {
     this.createdTimestamp = System.currentTimeMillis();
     this.lastUsedTimestamp = System.currentTimeMillis();
     this.valid = true;
+    if (dataSource.poolMaximumCachedStatements > 0) {
+      this.statementCache = new PooledStatementCache(dataSource.getPoolState(),
+          dataSource.poolMaximumCachedStatements);
+    }
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
   }
 
@@ -102,6 +112,11 @@ class PooledConnection implements InvocationHandler {
    */
   public void invalidate() {
     valid = false;
+    if (statementCache != null) {
+      // 关闭缓存的Statement，Statement缓存已转交给新PooledConnection对象时statementCache为null
+      statementCache.clear();
+      statementCache = null;
+    }
   }
 
   /**
@@ -244,6 +259,25 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /**
+   * Getter for the statement cache bound to the real connection.
+   *
+   * @return the statement cache, or {@code null} if statement caching is disabled
+   */
+  PooledStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the statement cache, used to hand the cache over when the real connection is wrapped again.
+   *
+   * @param statementCache
+   *          - the statement cache of the real connection
+   */
+  void setStatementCache(PooledStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -296,6 +330,10 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         // 通过valid字段检测连接是否有效
         checkConnection();
+        // 开启了Statement缓存时，从与真正的数据库连接绑定的缓存中获取PreparedStatement
+        if (statementCache != null && PREPARE_STATEMENT.equals(methodName)) {
+          return statementCache.prepareStatement(realConnection, method, args);
+        }
       }
       // 调用真正数据库连接对象的对应方法
       return method.invoke(realConnection, args);
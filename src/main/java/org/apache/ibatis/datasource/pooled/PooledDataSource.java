@@ -78,6 +78,11 @@ public class PooledDataSource implements DataSource {
    */
   protected int poolPingConnectionsNotUsedFor;
 
+  /**
+   * 每个数据库连接最多缓存的PreparedStatement个数，0表示不缓存
+   */
+  protected int poolMaximumCachedStatements;
+
   private int expectedConnectionTypeCode;
 
   private final Lock lock = new ReentrantLock();
@@ -285,6 +290,21 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The maximum number of prepared statements cached per physical connection. Cached statements survive the close of
+   * the pooled connection (and of the owning SqlSession) and are reused when the same SQL is prepared again on the same
+   * physical connection. A value of 0 (the default) disables statement caching.
+   *
+   * @param poolMaximumCachedStatements
+   *          the maximum number of cached statements per connection
+   *
+   * @since 3.5.14
+   */
+  public void setPoolMaximumCachedStatements(int poolMaximumCachedStatements) {
+    this.poolMaximumCachedStatements = poolMaximumCachedStatements;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -356,6 +376,10 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolMaximumCachedStatements() {
+    return poolMaximumCachedStatements;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    * 关闭所有活跃的和闲置的线程池连接
@@ -442,6 +466,8 @@ public class PooledDataSource implements DataSource {
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          newConn.setStatementCache(conn.getStatementCache());
+          conn.setStatementCache(null);
           // 将原PooledConnection对象设置为无效
           conn.invalidate();
           if (log.isDebugEnabled()) {
@@ -534,6 +560,8 @@ public class PooledDataSource implements DataSource {
             conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
             conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
             conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+            conn.setStatementCache(oldestActiveConnection.getStatementCache());
+            oldestActiveConnection.setStatementCache(null);
             // 将超时PooledConnection设置为无效
             oldestActiveConnection.invalidate();
             if (log.isDebugEnabled()) {
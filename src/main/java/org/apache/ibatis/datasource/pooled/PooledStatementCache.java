@@ -0,0 +1,253 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * 与真正的数据库连接绑定的PreparedStatement缓存，生命周期与真正的数据库连接相同，因此在SqlSession关闭、
+ * 连接归还给连接池之后依然有效。
+ * 缓存的key由SQL语句以及prepareStatement()的其余参数(ResultSet类型、并发模式、holdability、生成主键的方式)组成。
+ * 只有被关闭(即归还)的Statement才会放入缓存，正在使用中的Statement不会被再次分配，超过容量时按照LRU策略关闭最久未使用的Statement
+ *
+ * @since 3.5.14
+ */
+class PooledStatementCache {
+
+  private static final String CLOSE = "close";
+  private static final String IS_CLOSED = "isClosed";
+  private static final Class<?>[] IFACES = { PreparedStatement.class };
+
+  private final PoolState state;
+  private final Map<Key, PreparedStatement> idleStatements;
+  // 使用ReentrantLock代替synchronized，关闭Statement等I/O操作都在锁外执行
+  private final ReentrantLock lock = new ReentrantLock();
+  // 被LRU策略淘汰、等待在锁外关闭的Statement，只在持有lock时访问
+  private final List<PreparedStatement> evicted = new ArrayList<>();
+  // 调用clear()之后置为true，之后归还的Statement直接关闭而不再放入缓存，只在持有lock时访问
+  private boolean cleared;
+
+  PooledStatementCache(PoolState state, int maxSize) {
+    this.state = state;
+    this.idleStatements = new LinkedHashMap<Key, PreparedStatement>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+        boolean tooBig = size() > maxSize;
+        if (tooBig) {
+          state.statementCacheEvictionCount.increment();
+          evicted.add(eldest.getValue());
+        }
+        return tooBig;
+      }
+    };
+  }
+
+  /**
+   * 从缓存中获取与prepareStatement()参数对应的空闲Statement，不存在时通过真正的数据库连接创建。
+   * 返回的是Statement的代理对象，调用其close()方法时会将Statement放回缓存而非真正关闭
+   */
+  PreparedStatement prepareStatement(Connection realConnection, Method method, Object[] args) throws Throwable {
+    Key key = new Key(args);
+    PreparedStatement statement;
+    lock.lock();
+    try {
+      statement = idleStatements.remove(key);
+    } finally {
+      lock.unlock();
+    }
+    if (statement != null && !statement.isClosed()) {
+      state.statementCacheHitCount.increment();
+    } else {
+      state.statementCacheMissCount.increment();
+      try {
+        statement = (PreparedStatement) method.invoke(realConnection, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES,
+        new CachedStatement(key, statement));
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return idleStatements.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 关闭所有空闲的Statement，在真正的数据库连接失效或关闭时调用。之后归还的Statement也直接关闭，不再放入缓存
+   */
+  void clear() {
+    List<PreparedStatement> statements;
+    lock.lock();
+    try {
+      cleared = true;
+      statements = new ArrayList<>(idleStatements.values());
+      idleStatements.clear();
+    } finally {
+      lock.unlock();
+    }
+    statements.forEach(PooledStatementCache::closeQuietly);
+  }
+
+  private void release(Key key, PreparedStatement statement) {
+    PreparedStatement previous;
+    List<PreparedStatement> toClose = null;
+    lock.lock();
+    try {
+      if (cleared) {
+        previous = null;
+        evicted.add(statement);
+      } else {
+        previous = idleStatements.put(key, statement);
+      }
+      if (!evicted.isEmpty()) {
+        toClose = new ArrayList<>(evicted);
+        evicted.clear();
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (toClose != null) {
+      toClose.forEach(PooledStatementCache::closeQuietly);
+    }
+    if (previous != null && previous != statement) {
+      // 同一个key同时有多个Statement在使用，只保留最后归还的那个
+      closeQuietly(previous);
+    }
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private static final class Key {
+
+    private final Object[] args;
+    private final int hashCode;
+
+    Key(Object[] args) {
+      this.args = args.clone();
+      this.hashCode = Arrays.deepHashCode(this.args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && Arrays.deepEquals(args, ((Key) obj).args);
+    }
+  }
+
+  /**
+   * 缓存的Statement的代理，拦截close()方法并在归还前恢复被修改过的Statement属性
+   */
+  private final class CachedStatement implements InvocationHandler {
+
+    private final Key key;
+    private final PreparedStatement statement;
+    private final int queryTimeout;
+    private final int fetchSize;
+    private final int maxRows;
+    private boolean modified;
+    private boolean closed;
+
+    CachedStatement(Key key, PreparedStatement statement) throws SQLException {
+      this.key = key;
+      this.statement = statement;
+      this.queryTimeout = statement.getQueryTimeout();
+      this.fetchSize = statement.getFetchSize();
+      this.maxRows = statement.getMaxRows();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] params) throws Throwable {
+      String methodName = method.getName();
+      if (CLOSE.equals(methodName)) {
+        close();
+        return null;
+      }
+      if (IS_CLOSED.equals(methodName)) {
+        return closed || statement.isClosed();
+      }
+      if (!Object.class.equals(method.getDeclaringClass())) {
+        if (closed) {
+          throw new SQLException("Statement is closed.");
+        }
+        if ("setQueryTimeout".equals(methodName) || "setFetchSize".equals(methodName)
+            || "setMaxRows".equals(methodName) || "setLargeMaxRows".equals(methodName)) {
+          modified = true;
+        }
+      }
+      try {
+        return method.invoke(statement, params);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+
+    private void close() throws SQLException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (statement.isClosed()) {
+        return;
+      }
+      try {
+        statement.clearParameters();
+        statement.clearBatch();
+        statement.clearWarnings();
+        if (modified) {
+          statement.setQueryTimeout(queryTimeout);
+          statement.setFetchSize(fetchSize);
+          statement.setMaxRows(maxRows);
+        }
+      } catch (SQLException e) {
+        closeQuietly(statement);
+        return;
+      }
+      release(key, statement);
+    }
+  }
+
+}
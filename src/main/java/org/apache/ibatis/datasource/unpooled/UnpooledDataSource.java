@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -43,7 +44,10 @@ public class UnpooledDataSource implements DataSource {
   private Properties driverProperties;
   private static final Map<String, Driver> registeredDrivers = new ConcurrentHashMap<>();
 
-  private String driver;
+  // 使用ReentrantLock代替synchronized，已注册驱动时获取连接不再需要加锁
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private volatile String driver;
   private String url;
   private String username;
   private String password;
@@ -138,11 +142,11 @@ public class UnpooledDataSource implements DataSource {
     this.driverProperties = driverProperties;
   }
 
-  public synchronized String getDriver() {
+  public String getDriver() {
     return driver;
   }
 
-  public synchronized void setDriver(String driver) {
+  public void setDriver(String driver) {
     this.driver = driver;
   }
 
@@ -231,8 +235,15 @@ public class UnpooledDataSource implements DataSource {
     return connection;
   }
 
-  private synchronized void initializeDriver() throws SQLException {
-    if (!registeredDrivers.containsKey(driver)) {
+  private void initializeDriver() throws SQLException {
+    if (registeredDrivers.containsKey(driver)) {
+      return;
+    }
+    lock.lock();
+    try {
+      if (registeredDrivers.containsKey(driver)) {
+        return;
+      }
       Class<?> driverType;
       try {
         if (driverClassLoader != null) {
@@ -248,6 +259,8 @@ public class UnpooledDataSource implements DataSource {
       } catch (Exception e) {
         throw new SQLException("Error setting driver on UnpooledDataSource. Cause: " + e);
       }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -27,7 +27,25 @@ public class ExceptionFactory {
   }
 
   public static RuntimeException wrapException(String message, Exception e) {
-    return new PersistenceException(ErrorContext.instance().message(message).cause(e).toString(), e);
+    return wrapException(ErrorContext.instance(), message, e);
+  }
+
+  /**
+   * Wraps an exception with the description of the given error context.
+   *
+   * @param context
+   *          the error context of the failed operation
+   * @param message
+   *          the error message
+   * @param e
+   *          the exception to wrap
+   *
+   * @return the wrapping exception
+   *
+   * @since 3.5.14
+   */
+  public static RuntimeException wrapException(ErrorContext context, String message, Exception e) {
+    return new PersistenceException(context.message(message).cause(e).toString(), e);
   }
 
 }
@@ -24,8 +24,12 @@ import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.metrics.AllocationPhase;
+import org.apache.ibatis.executor.metrics.AllocationProfiler;
+import org.apache.ibatis.executor.pagination.KeysetRowBounds;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -86,6 +90,15 @@ public abstract class BaseExecutor implements Executor {
    */
   protected int queryStack;
   private boolean closed;
+  /**
+   * 最近一次update由StatementHandler生成的BoundSql
+   */
+  private BoundSql updateBoundSql;
+
+  /**
+   * 开启sessionErrorContext时由会话自己持有的错误上下文，否则为null并使用ThreadLocal中的上下文
+   */
+  private final ErrorContext errorContext;
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
@@ -95,6 +108,12 @@ public abstract class BaseExecutor implements Executor {
     this.closed = false;
     this.configuration = configuration;
     this.wrapper = this;
+    this.errorContext = configuration != null && configuration.isSessionErrorContext() ? ErrorContext.detached() : null;
+  }
+
+  @Override
+  public ErrorContext getErrorContext() {
+    return errorContext == null ? ErrorContext.instance() : errorContext;
   }
 
   @Override
@@ -134,14 +153,35 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameter) throws SQLException {
-    ErrorContext.instance().resource(ms.getResource()).activity("executing an update").object(ms.getId());
+    getErrorContext().resource(ms.getResource()).activity("executing an update").object(ms.getId());
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
+    updateBoundSql = null;
     return doUpdate(ms, parameter);
   }
 
+  /**
+   * 记录update生成的BoundSql，供CachingExecutor解析写操作的缓存标签，只有使用TAG失效模式的语句需要记录
+   */
+  void recordUpdateBoundSql(MappedStatement ms, BoundSql boundSql) {
+    if (ms.getCache() instanceof TaggedCache) {
+      this.updateBoundSql = boundSql;
+    }
+  }
+
+  /**
+   * 获取并清除最近一次update生成的BoundSql
+   *
+   * @return the bound SQL, or {@code null} if the update failed before generating it
+   */
+  BoundSql takeUpdateBoundSql() {
+    BoundSql boundSql = updateBoundSql;
+    updateBoundSql = null;
+    return boundSql;
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return flushStatements(false);
@@ -162,8 +202,15 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler)
       throws SQLException {
+    AllocationProfiler profiler = configuration.getAllocationProfiler();
+    boolean sampled = configuration.isAllocationProfiling() && profiler.isSampled();
+    long start = sampled ? profiler.getAllocatedBytes() : 0;
     BoundSql boundSql = ms.getBoundSql(parameter);
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+    if (sampled) {
+      profiler.getStatementAllocations(ms.getId()).record(AllocationPhase.SQL_BUILD,
+          profiler.getAllocatedBytes() - start);
+    }
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
   }
 
@@ -171,7 +218,7 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler,
       CacheKey key, BoundSql boundSql) throws SQLException {
-    ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
+    getErrorContext().resource(ms.getResource()).activity("executing a query").object(ms.getId());
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
@@ -182,6 +229,9 @@ public abstract class BaseExecutor implements Executor {
     try {
       queryStack++;
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      if (resultHandler == null && configuration.isMetricsEnabled()) {
+        configuration.getMetricsRegistry().getStatementMetrics(ms.getId()).recordLocalCache(list != null);
+      }
       if (list != null) {
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
       } else {
@@ -234,6 +284,13 @@ public abstract class BaseExecutor implements Executor {
     cacheKey.update(ms.getId());
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
+    if (rowBounds instanceof KeysetRowBounds) {
+      // 键集分页的结果取决于上一页最后一个键值
+      KeysetRowBounds keyset = (KeysetRowBounds) rowBounds;
+      cacheKey.update(keyset.getKeyColumn());
+      cacheKey.update(keyset.isDescending());
+      cacheKey.update(keyset.getLastKey());
+    }
     cacheKey.update(boundSql.getSql());
     // 获取用户传入的实参
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
@@ -371,7 +428,10 @@ public abstract class BaseExecutor implements Executor {
     } finally {
       localCache.removeObject(key);
     }
-    localCache.putObject(key, list);
+    // 超出resultSizeLimit而被截断的结果不放入一级缓存
+    if (boundSql == null || !boundSql.isResultTruncated()) {
+      localCache.putObject(key, list);
+    }
     if (ms.getStatementType() == StatementType.CALLABLE) {
       localOutputParameterCache.putObject(key, parameter);
     }
@@ -380,7 +440,8 @@ public abstract class BaseExecutor implements Executor {
 
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
-    if (statementLog.isDebugEnabled()) {
+    // 开启语句跟踪时由TracingStatementHandler记录日志，不再代理JDBC对象
+    if (statementLog.isDebugEnabled() && !configuration.isStatementTracing()) {
       return ConnectionLogger.newInstance(connection, statementLog, queryStack);
     }
     return connection;
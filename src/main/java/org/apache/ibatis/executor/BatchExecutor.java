@@ -58,28 +58,61 @@ public class BatchExecutor extends BaseExecutor {
     final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT,
         null, null);
     final BoundSql boundSql = handler.getBoundSql();
+    recordUpdateBoundSql(ms, boundSql);
     final String sql = boundSql.getSql();
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
+    int index = indexOfBatch(ms, sql);
+    if (index >= 0) {
+      stmt = statementList.get(index);
       applyTransactionTimeout(stmt);
       handler.parameterize(stmt);// fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
+      BatchResult batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
       Connection connection = getConnection(ms.getStatementLog());
       stmt = handler.prepare(connection, transaction.getTimeout());
       handler.parameterize(stmt); // fix Issues 322
-      currentSql = sql;
-      currentStatement = ms;
       statementList.add(stmt);
       batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      batchAdded(ms, sql, statementList.size() - 1);
     }
     handler.batch(stmt);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  /**
+   * 查找可以继续追加参数的批处理，返回其在statementList中的下标，不存在时返回-1，默认只有与上一条SQL语句及MappedStatement都相同时才能复用
+   *
+   * @param ms
+   *          the mapped statement
+   * @param sql
+   *          the sql
+   *
+   * @return the index of the reusable batch, or -1 if a new batch is needed
+   *
+   * @since 3.5.14
+   */
+  protected int indexOfBatch(MappedStatement ms, String sql) {
+    return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+  }
+
+  /**
+   * 新的批处理被添加到statementList之后回调
+   *
+   * @param ms
+   *          the mapped statement
+   * @param sql
+   *          the sql
+   * @param index
+   *          the index of the new batch
+   *
+   * @since 3.5.14
+   */
+  protected void batchAdded(MappedStatement ms, String sql, int index) {
+    currentSql = sql;
+    currentStatement = ms;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds,
       ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
@@ -0,0 +1,204 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.builder.LazySqlSource;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 解析语句在TAG失效模式下读写的缓存标签。优先使用语句声明的cacheTags，其中{property}会被替换为参数的属性值；
+ * 未声明时从SQL语句中推断出读写的表名。无法确定任何标签时返回空集合，由调用者退化为按命名空间失效
+ *
+ * @since 3.5.14
+ */
+final class CacheTagResolver {
+
+  private static final String NAME = "(?:[\\w$#{}]+|\"[^\"]*\"|`[^`]*`|\\[[^\\]]*\\])";
+
+  // 字符串常量、可能带有schema前缀和引号的名称、括号和逗号
+  private static final Pattern TOKEN = Pattern.compile("'(?:[^']|'')*'|" + NAME + "(?:\\s*\\.\\s*" + NAME + ")*|[(),]");
+
+  private static final Set<String> TABLE_KEYWORDS = new HashSet<>(Arrays.asList("from", "join", "into", "update"));
+
+  // 紧跟在表名之后、不能作为别名的关键字
+  private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(
+      Arrays.asList("where", "join", "inner", "left", "right", "full", "cross", "natural", "outer", "on", "using",
+          "group", "order", "having", "limit", "offset", "fetch", "union", "intersect", "except", "minus", "set",
+          "values", "value", "select", "for", "with", "window", "returning", "default", "partition"));
+
+  private CacheTagResolver() {
+    // Prevent Instantiation
+  }
+
+  static Set<String> resolve(MappedStatement ms, Object parameterObject, BoundSql boundSql) {
+    String[] declaredTags = ms.getCacheTags();
+    if (declaredTags != null && declaredTags.length > 0) {
+      return resolveDeclaredTags(ms.getConfiguration(), declaredTags, parameterObject, boundSql);
+    }
+    Set<String> tables = ms.getInferredCacheTags();
+    if (tables != null) {
+      return tables;
+    }
+    BoundSql sql = boundSql == null ? ms.getBoundSql(parameterObject) : boundSql;
+    tables = inferTables(sql.getSql());
+    if (isStaticSql(ms.getSqlSource())) {
+      // SQL不随参数变化时只推断一次
+      tables = Collections.unmodifiableSet(tables);
+      ms.setInferredCacheTags(tables);
+    }
+    return tables;
+  }
+
+  private static boolean isStaticSql(SqlSource sqlSource) {
+    if (sqlSource instanceof LazySqlSource) {
+      sqlSource = ((LazySqlSource) sqlSource).initialize();
+    }
+    return sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource;
+  }
+
+  static Set<String> resolveDeclaredTags(Configuration configuration, String[] declaredTags, Object parameterObject,
+      BoundSql boundSql) {
+    Set<String> tags = new LinkedHashSet<>();
+    for (String declaredTag : declaredTags) {
+      int separator = declaredTag.indexOf(':');
+      String table = normalizeTable(separator < 0 ? declaredTag : declaredTag.substring(0, separator));
+      String entity = separator < 0 ? "" : declaredTag.substring(separator + 1).trim();
+      if (table.isEmpty()) {
+        continue;
+      }
+      if (entity.isEmpty()) {
+        tags.add(table);
+      } else if (entity.startsWith("{") && entity.endsWith("}")) {
+        Object value = propertyValue(configuration, entity.substring(1, entity.length() - 1).trim(), parameterObject,
+            boundSql);
+        addEntityTags(tags, table, value);
+      } else {
+        tags.add(table + ":" + entity);
+      }
+    }
+    return tags;
+  }
+
+  /**
+   * 推断SQL语句读写的表，包括FROM中以逗号分隔的多张表、JOIN、INSERT INTO以及UPDATE的目标表，子查询中的表也会被识别
+   */
+  static Set<String> inferTables(String sql) {
+    List<String> tokens = new ArrayList<>();
+    Matcher matcher = TOKEN.matcher(sql);
+    while (matcher.find()) {
+      String token = matcher.group();
+      if (token.charAt(0) != '\'') {
+        tokens.add(token);
+      }
+    }
+    Set<String> tables = new LinkedHashSet<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      String keyword = tokens.get(i).toLowerCase(Locale.ENGLISH);
+      if (!TABLE_KEYWORDS.contains(keyword)) {
+        continue;
+      }
+      int next = i + 1;
+      while (next < tokens.size() && isIdentifier(tokens.get(next))) {
+        String table = tokens.get(next);
+        if (CLAUSE_KEYWORDS.contains(table.toLowerCase(Locale.ENGLISH))) {
+          break;
+        }
+        tables.add(normalizeTable(table));
+        next++;
+        if (!"from".equals(keyword)) {
+          break;
+        }
+        // 跳过别名，继续解析逗号分隔的下一张表
+        if (next < tokens.size() && "as".equalsIgnoreCase(tokens.get(next))) {
+          next++;
+        }
+        if (next < tokens.size() && isIdentifier(tokens.get(next))
+            && !CLAUSE_KEYWORDS.contains(tokens.get(next).toLowerCase(Locale.ENGLISH))) {
+          next++;
+        }
+        if (next >= tokens.size() || !",".equals(tokens.get(next))) {
+          break;
+        }
+        next++;
+      }
+    }
+    return tables;
+  }
+
+  private static void addEntityTags(Set<String> tags, String table, Object value) {
+    if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        addEntityTags(tags, table, element);
+      }
+    } else if (value == null) {
+      // 无法确定实体键时退化为整张表
+      tags.add(table);
+    } else {
+      tags.add(table + ":" + value);
+    }
+  }
+
+  private static Object propertyValue(Configuration configuration, String property, Object parameterObject,
+      BoundSql boundSql) {
+    if (boundSql != null && boundSql.hasAdditionalParameter(property)) {
+      return boundSql.getAdditionalParameter(property);
+    }
+    if (parameterObject == null) {
+      return null;
+    }
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+      return parameterObject;
+    }
+    MetaObject metaObject = configuration.newMetaObject(parameterObject);
+    return metaObject.hasGetter(property) ? metaObject.getValue(property) : null;
+  }
+
+  private static boolean isIdentifier(String token) {
+    char first = token.charAt(0);
+    return first != '(' && first != ')' && first != ',' && first != '#' && first != '?';
+  }
+
+  private static String normalizeTable(String table) {
+    String name = table.trim();
+    int dot = name.lastIndexOf('.');
+    if (dot >= 0) {
+      name = name.substring(dot + 1).trim();
+    }
+    if (name.length() > 1 && (name.charAt(0) == '"' || name.charAt(0) == '`' || name.charAt(0) == '[')) {
+      name = name.substring(1, name.length() - 1);
+    }
+    return name.toLowerCase(Locale.ENGLISH);
+  }
+
+}
@@ -20,8 +20,12 @@ import java.util.List;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.metrics.AllocationPhase;
+import org.apache.ibatis.executor.metrics.AllocationProfiler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
@@ -73,8 +77,21 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
-    return delegate.update(ms, parameterObject);
+    Cache cache = ms.getCache();
+    if (!(cache instanceof TaggedCache) || !ms.isFlushCacheRequired()) {
+      flushCacheIfRequired(ms);
+      return delegate.update(ms, parameterObject);
+    }
+    // 失效在提交时才生效，所以在语句执行之后使用执行器生成的BoundSql解析标签，动态SQL不需要再生成一次
+    int updateCount;
+    try {
+      updateCount = delegate.update(ms, parameterObject);
+    } catch (SQLException | RuntimeException e) {
+      invalidate(cache, ms, parameterObject, true);
+      throw e;
+    }
+    invalidate(cache, ms, parameterObject, false);
+    return updateCount;
   }
 
   @Override
@@ -86,8 +103,15 @@ public class CachingExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler)
       throws SQLException {
+    AllocationProfiler profiler = ms.getConfiguration().getAllocationProfiler();
+    boolean sampled = ms.getConfiguration().isAllocationProfiling() && profiler.isSampled();
+    long start = sampled ? profiler.getAllocatedBytes() : 0;
     BoundSql boundSql = ms.getBoundSql(parameterObject);
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
+    if (sampled) {
+      profiler.getStatementAllocations(ms.getId()).record(AllocationPhase.SQL_BUILD,
+          profiler.getAllocatedBytes() - start);
+    }
     return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
@@ -101,9 +125,25 @@ public class CachingExecutor implements Executor {
         ensureNoOutParams(ms, boundSql);
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
+        if (ms.getConfiguration().isMetricsEnabled()) {
+          ms.getConfiguration().getMetricsRegistry().getStatementMetrics(ms.getId())
+              .recordSecondLevelCache(list != null);
+        }
         if (list == null) {
+          CacheStatistics statistics = cache.getStatistics();
+          long start = statistics == null ? 0 : System.nanoTime();
           list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-          tcm.putObject(cache, key, list); // issue #578 and #116
+          if (statistics != null) {
+            statistics.recordLoad(System.nanoTime() - start);
+          }
+          // 超出resultSizeLimit而被截断的结果不放入二级缓存
+          if (boundSql == null || !boundSql.isResultTruncated()) {
+            if (cache instanceof TaggedCache) {
+              tcm.putObject(cache, key, list, CacheTagResolver.resolve(ms, parameterObject, boundSql));
+            } else {
+              tcm.putObject(cache, key, list); // issue #578 and #116
+            }
+          }
         }
         return list;
       }
@@ -173,6 +213,24 @@ public class CachingExecutor implements Executor {
     }
   }
 
+  /**
+   * 只失效写操作影响到的缓存项，无法确定标签时退化为清空
+   */
+  private void invalidate(Cache cache, MappedStatement ms, Object parameterObject, boolean failed) {
+    BoundSql boundSql = delegate instanceof BaseExecutor ? ((BaseExecutor) delegate).takeUpdateBoundSql() : null;
+    if (failed && boundSql == null) {
+      // 生成SQL之前就已经失败，不再尝试生成
+      tcm.clear(cache);
+    } else {
+      tcm.invalidate(cache, CacheTagResolver.resolve(ms, parameterObject, boundSql));
+    }
+  }
+
+  @Override
+  public ErrorContext getErrorContext() {
+    return delegate.getErrorContext();
+  }
+
   @Override
   public void setExecutorWrapper(Executor executor) {
     throw new UnsupportedOperationException("This method should not be called");
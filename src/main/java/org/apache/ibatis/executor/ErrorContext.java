@@ -23,6 +23,7 @@ public class ErrorContext {
   private static final String LINE_SEPARATOR = System.lineSeparator();
   private static final ThreadLocal<ErrorContext> LOCAL = ThreadLocal.withInitial(ErrorContext::new);
 
+  private final boolean detached;
   private ErrorContext stored;
   private String resource;
   private String activity;
@@ -32,13 +33,39 @@ public class ErrorContext {
   private Throwable cause;
 
   private ErrorContext() {
+    this(false);
+  }
+
+  private ErrorContext(boolean detached) {
+    this.detached = detached;
   }
 
   public static ErrorContext instance() {
     return LOCAL.get();
   }
 
+  /**
+   * Creates an error context that is not bound to the current thread, so that it can be carried by a session instead of
+   * a {@code ThreadLocal}. {@link #store()}, {@link #recall()} and {@link #reset()} act on the returned object only.
+   *
+   * @return a new error context
+   *
+   * @since 3.5.14
+   */
+  public static ErrorContext detached() {
+    return new ErrorContext(true);
+  }
+
   public ErrorContext store() {
+    if (detached) {
+      // 没有ThreadLocal可以替换，把当前内容保存到stored中后清空自身
+      ErrorContext saved = new ErrorContext(true);
+      saved.copyFrom(this);
+      saved.stored = stored;
+      clear();
+      stored = saved;
+      return this;
+    }
     ErrorContext newContext = new ErrorContext();
     newContext.stored = this;
     LOCAL.set(newContext);
@@ -46,6 +73,14 @@ public class ErrorContext {
   }
 
   public ErrorContext recall() {
+    if (detached) {
+      if (stored != null) {
+        ErrorContext saved = stored;
+        copyFrom(saved);
+        stored = saved.stored;
+      }
+      return this;
+    }
     if (stored != null) {
       LOCAL.set(stored);
       stored = null;
@@ -84,14 +119,31 @@ public class ErrorContext {
   }
 
   public ErrorContext reset() {
+    clear();
+    if (detached) {
+      stored = null;
+    } else {
+      LOCAL.remove();
+    }
+    return this;
+  }
+
+  private void clear() {
     resource = null;
     activity = null;
     object = null;
     message = null;
     sql = null;
     cause = null;
-    LOCAL.remove();
-    return this;
+  }
+
+  private void copyFrom(ErrorContext other) {
+    resource = other.resource;
+    activity = other.activity;
+    object = other.object;
+    message = other.message;
+    sql = other.sql;
+    cause = other.cause;
   }
 
   @Override
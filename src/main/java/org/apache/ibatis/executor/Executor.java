@@ -99,4 +99,16 @@ public interface Executor {
 
   void setExecutorWrapper(Executor executor);
 
+  /**
+   * Gets the error context describing the operation in progress. Unless the {@code sessionErrorContext} setting is
+   * enabled, this is the context bound to the current thread.
+   *
+   * @return the error context of this executor
+   *
+   * @since 3.5.14
+   */
+  default ErrorContext getErrorContext() {
+    return ErrorContext.instance();
+  }
+
 }
@@ -0,0 +1,69 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * 按SQL语句分组的BatchExecutor，每条不同的SQL语句都会保持一个打开的批处理，
+ * 因此交替执行的SQL语句(例如parent、child、parent、child)只会生成两个批处理。
+ * flushStatements时按照SQL语句第一次出现的顺序执行各个批处理，从而保证先插入父表再插入子表这类依赖关系
+ *
+ * @since 3.5.14
+ */
+public class GroupingBatchExecutor extends BatchExecutor {
+
+  /**
+   * 记录每个MappedStatement下不同SQL语句对应的批处理下标
+   */
+  private final Map<MappedStatement, Map<String, Integer>> batchIndexes = new HashMap<>();
+
+  public GroupingBatchExecutor(Configuration configuration, Transaction transaction) {
+    super(configuration, transaction);
+  }
+
+  @Override
+  protected int indexOfBatch(MappedStatement ms, String sql) {
+    Map<String, Integer> indexes = batchIndexes.get(ms);
+    if (indexes == null) {
+      return -1;
+    }
+    Integer index = indexes.get(sql);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  protected void batchAdded(MappedStatement ms, String sql, int index) {
+    batchIndexes.computeIfAbsent(ms, k -> new HashMap<>()).put(sql, index);
+  }
+
+  @Override
+  public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
+    try {
+      return super.doFlushStatements(isRollback);
+    } finally {
+      batchIndexes.clear();
+    }
+  }
+
+}
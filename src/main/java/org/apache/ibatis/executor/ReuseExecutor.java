@@ -19,9 +19,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementHandler;
@@ -40,20 +38,37 @@ import org.apache.ibatis.transaction.Transaction;
 public class ReuseExecutor extends BaseExecutor {
 
   /**
-   * 缓存使用过的Statement对象
+   * 缓存使用过的Statement对象，容量由Configuration.reuseStatementCacheSize决定
    */
-  private final Map<String, Statement> statementMap = new HashMap<>();
+  private final StatementCache statementCache;
 
   public ReuseExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    this.statementCache = new StatementCache(configuration.getReuseStatementCacheSize());
+  }
+
+  /**
+   * Returns the statement cache of this executor, which also provides the hit/miss statistics.
+   *
+   * @return the statement cache
+   *
+   * @since 3.5.14
+   */
+  public StatementCache getStatementCache() {
+    return statementCache;
   }
 
   @Override
   public int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null, null);
+    recordUpdateBoundSql(ms, handler.getBoundSql());
     Statement stmt = prepareStatement(handler, ms.getStatementLog());
-    return handler.update(stmt);
+    try {
+      return handler.update(stmt);
+    } finally {
+      statementCache.release(stmt);
+    }
   }
 
   @Override
@@ -63,7 +78,12 @@ public class ReuseExecutor extends BaseExecutor {
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler,
         boundSql);
     Statement stmt = prepareStatement(handler, ms.getStatementLog());
-    return handler.query(stmt, resultHandler);
+    try {
+      // 处理结果集时可能执行嵌套查询，外层的Statement在此期间不能被复用或关闭
+      return handler.query(stmt, resultHandler);
+    } finally {
+      statementCache.release(stmt);
+    }
   }
 
   @Override
@@ -71,50 +91,36 @@ public class ReuseExecutor extends BaseExecutor {
       throws SQLException {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
+    // Cursor读取数据期间Statement一直处于使用状态，直到提交、回滚或者关闭会话时才被关闭
     Statement stmt = prepareStatement(handler, ms.getStatementLog());
     return handler.queryCursor(stmt);
   }
 
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) {
-    for (Statement stmt : statementMap.values()) {
-      closeStatement(stmt);
-    }
-    statementMap.clear();
+    statementCache.clear();
     return Collections.emptyList();
   }
 
   private Statement prepareStatement(StatementHandler handler, Log statementLog) throws SQLException {
-    Statement stmt;
     BoundSql boundSql = handler.getBoundSql();
     String sql = boundSql.getSql();
-    if (hasStatementFor(sql)) {
-      stmt = getStatement(sql);
+    Statement stmt = statementCache.get(sql);
+    if (stmt != null) {
       applyTransactionTimeout(stmt);
     } else {
       Connection connection = getConnection(statementLog);
       stmt = handler.prepare(connection, transaction.getTimeout());
-      putStatement(sql, stmt);
+      statementCache.put(sql, stmt);
     }
-    handler.parameterize(stmt);
-    return stmt;
-  }
-
-  private boolean hasStatementFor(String sql) {
+    statementCache.acquire(stmt);
     try {
-      Statement statement = statementMap.get(sql);
-      return statement != null && !statement.getConnection().isClosed();
-    } catch (SQLException e) {
-      return false;
+      handler.parameterize(stmt);
+    } catch (SQLException | RuntimeException e) {
+      statementCache.release(stmt);
+      throw e;
     }
-  }
-
-  private Statement getStatement(String s) {
-    return statementMap.get(s);
-  }
-
-  private void putStatement(String sql, Statement stmt) {
-    statementMap.put(sql, stmt);
+    return stmt;
   }
 
 }
@@ -47,6 +47,7 @@ public class SimpleExecutor extends BaseExecutor {
     try {
       Configuration configuration = ms.getConfiguration();
       StatementHandler handler = configuration.newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null, null);
+      recordUpdateBoundSql(ms, handler.getBoundSql());
       stmt = prepareStatement(handler, ms.getStatementLog());
       return handler.update(stmt);
     } finally {
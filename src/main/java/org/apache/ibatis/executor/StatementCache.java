@@ -0,0 +1,182 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ReuseExecutor使用的Statement缓存，以SQL语句为key，按照LRU策略淘汰Statement，被淘汰的Statement会被关闭。
+ * 正在使用的Statement(例如外层查询在处理嵌套查询时，或者Cursor尚未关闭时)不会被返回给其他调用者，被淘汰时也要等到释放后才会关闭。
+ * 同时记录命中、未命中以及淘汰的次数。该类不是线程安全的，与Executor一样只能在单个线程中使用
+ *
+ * @since 3.5.14
+ */
+public class StatementCache {
+
+  private final int maxSize;
+  private final Map<String, Statement> statements;
+  // 正在使用的Statement
+  private final Set<Statement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+  // 已经从缓存中移除、等待释放后关闭的Statement
+  private final Set<Statement> retired = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * @param maxSize
+   *          the maximum number of cached statements, {@code null} or a value less than 1 means unbounded
+   */
+  public StatementCache(Integer maxSize) {
+    this.maxSize = maxSize == null || maxSize < 1 ? Integer.MAX_VALUE : maxSize;
+    this.statements = new LinkedHashMap<String, Statement>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Statement> eldest) {
+        boolean tooBig = size() > StatementCache.this.maxSize;
+        if (tooBig) {
+          evictionCount++;
+          discard(eldest.getValue());
+        }
+        return tooBig;
+      }
+    };
+  }
+
+  /**
+   * 获取SQL语句对应的Statement，如果不存在、正在使用或者其连接已经关闭则返回null
+   */
+  public Statement get(String sql) {
+    Statement statement = statements.get(sql);
+    if (statement != null && !inUse.contains(statement) && isUsable(statement)) {
+      hitCount++;
+      return statement;
+    }
+    if (statement != null && !inUse.contains(statement)) {
+      statements.remove(sql);
+      close(statement);
+    }
+    missCount++;
+    return null;
+  }
+
+  public void put(String sql, Statement statement) {
+    Statement previous = statements.put(sql, statement);
+    if (previous != null && previous != statement) {
+      discard(previous);
+    }
+  }
+
+  /**
+   * Marks a statement as in use. It is not returned by {@link #get(String)} and not closed on eviction until it is
+   * released.
+   *
+   * @param statement
+   *          the statement being executed
+   */
+  public void acquire(Statement statement) {
+    inUse.add(statement);
+  }
+
+  /**
+   * Marks a statement as no longer in use, and closes it if it was evicted in the meantime.
+   *
+   * @param statement
+   *          the statement acquired before
+   */
+  public void release(Statement statement) {
+    inUse.remove(statement);
+    if (retired.remove(statement)) {
+      close(statement);
+    }
+  }
+
+  /**
+   * 关闭并清空所有缓存的Statement，包括正在使用的Statement，统计信息会被保留
+   */
+  public void clear() {
+    for (Statement statement : statements.values()) {
+      close(statement);
+    }
+    for (Statement statement : retired) {
+      close(statement);
+    }
+    statements.clear();
+    retired.clear();
+    inUse.clear();
+  }
+
+  public int size() {
+    return statements.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public double getHitRatio() {
+    long requests = hitCount + missCount;
+    return requests == 0 ? 0 : (double) hitCount / requests;
+  }
+
+  /**
+   * 关闭不再缓存的Statement，正在使用的Statement在释放时关闭
+   */
+  private void discard(Statement statement) {
+    if (inUse.contains(statement)) {
+      retired.add(statement);
+    } else {
+      close(statement);
+    }
+  }
+
+  private static boolean isUsable(Statement statement) {
+    try {
+      return !statement.getConnection().isClosed();
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private static void close(Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javassist.util.proxy.MethodHandler;
 import javassist.util.proxy.Proxy;
@@ -102,6 +103,8 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
 
     private final Class<?> type;
     private final ResultLoaderMap lazyLoader;
+    // 使用ReentrantLock代替synchronized，虚拟线程在延迟加载执行查询时不会固定载体线程
+    private final ReentrantLock lock = new ReentrantLock();
     private final boolean aggressive;
     private final Set<String> lazyLoadTriggerMethods;
     private final ObjectFactory objectFactory;
@@ -133,7 +136,8 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
     public Object invoke(Object enhanced, Method method, Method methodProxy, Object[] args) throws Throwable {
       final String methodName = method.getName();
       try {
-        synchronized (lazyLoader) {
+        lock.lock();
+        try {
           if (WRITE_REPLACE_METHOD.equals(methodName)) {
             Object original;
             if (constructorArgTypes.isEmpty()) {
@@ -162,6 +166,8 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
               }
             }
           }
+        } finally {
+          lock.unlock();
         }
         return methodProxy.invoke(enhanced, args);
       } catch (Throwable t) {
@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+/**
+ * The parts of a statement execution whose heap allocations are recorded by the {@link AllocationProfiler}.
+ *
+ * @since 3.5.14
+ */
+public enum AllocationPhase {
+
+  /**
+   * Generating the SQL: the {@code BoundSql} and, for a query, its {@code CacheKey}.
+   */
+  SQL_BUILD,
+
+  /**
+   * Setting the parameters of the JDBC statement.
+   */
+  BIND,
+
+  /**
+   * Mapping the result sets to objects.
+   */
+  MAP,
+
+  /**
+   * The whole {@code Executor.query} or {@code Executor.update} call, including the other phases, the plugins, the
+   * caches and the JDBC driver.
+   */
+  TOTAL
+
+}
@@ -0,0 +1,168 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Accounts the heap bytes allocated by the executions of each mapped statement when the {@code allocationProfiling}
+ * setting is enabled.
+ * <p>
+ * The bytes are read with {@link ThreadMXBean#getThreadAllocatedBytes(long)} before and after each
+ * {@link AllocationPhase}, so they include every object allocated by the executing thread during that phase, whatever
+ * created it. Executions can be sampled, so that only one phase in {@code sampling} is measured; the averages of the
+ * sampled phases estimate those of all executions.
+ * <p>
+ * Allocations can only be measured on JVMs that support thread allocated memory, see {@link #isSupported()}.
+ *
+ * @since 3.5.14
+ */
+public class AllocationProfiler {
+
+  private final ConcurrentMap<String, StatementAllocations> statements = new ConcurrentHashMap<>();
+
+  private volatile int sampling = 1;
+
+  /**
+   * Returns whether the JVM can measure the bytes allocated by a thread.
+   *
+   * @return {@code true} if allocations can be measured
+   */
+  public boolean isSupported() {
+    return ThreadAllocation.BEAN != null;
+  }
+
+  public int getSampling() {
+    return sampling;
+  }
+
+  /**
+   * Sets how many phases are executed for each measured one.
+   *
+   * @param sampling
+   *          {@code 1} to measure every phase, {@code n} to measure one phase in {@code n} on average
+   */
+  public void setSampling(int sampling) {
+    if (sampling < 1) {
+      throw new IllegalArgumentException("Allocation profiling sampling must be at least 1 but was " + sampling);
+    }
+    this.sampling = sampling;
+  }
+
+  /**
+   * Decides whether the next phase is measured.
+   *
+   * @return {@code true} if the phase should be measured
+   */
+  public boolean isSampled() {
+    int n = sampling;
+    return isSupported() && (n == 1 || ThreadLocalRandom.current().nextInt(n) == 0);
+  }
+
+  /**
+   * Gets the bytes allocated by the current thread since it started.
+   *
+   * @return the allocated bytes
+   */
+  public long getAllocatedBytes() {
+    return ThreadAllocation.BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Gets the allocations of a statement, creating them on first use.
+   *
+   * @param statementId
+   *          the mapped statement id
+   *
+   * @return the statement allocations
+   */
+  public StatementAllocations getStatementAllocations(String statementId) {
+    StatementAllocations allocations = statements.get(statementId);
+    if (allocations == null) {
+      allocations = statements.computeIfAbsent(statementId, StatementAllocations::new);
+    }
+    return allocations;
+  }
+
+  /**
+   * Gets the allocations of a statement.
+   *
+   * @param statementId
+   *          the mapped statement id
+   *
+   * @return the snapshot, or {@code null} if no execution of the statement has been sampled
+   */
+  public StatementAllocationSnapshot getSnapshot(String statementId) {
+    StatementAllocations allocations = statements.get(statementId);
+    return allocations == null ? null : allocations.snapshot();
+  }
+
+  /**
+   * Gets the allocations of all statements, the statements that allocated the most bytes first.
+   *
+   * @return the snapshots sorted by the bytes allocated in the {@link AllocationPhase#TOTAL} phase
+   */
+  public List<StatementAllocationSnapshot> getSnapshots() {
+    List<StatementAllocationSnapshot> snapshots = new ArrayList<>(statements.size());
+    for (StatementAllocations allocations : statements.values()) {
+      snapshots.add(allocations.snapshot());
+    }
+    snapshots.sort(Comparator
+        .comparingLong((StatementAllocationSnapshot snapshot) -> snapshot.getAllocatedBytes(AllocationPhase.TOTAL))
+        .reversed());
+    return snapshots;
+  }
+
+  /**
+   * Discards the allocations of all statements.
+   */
+  public void reset() {
+    statements.clear();
+  }
+
+  /**
+   * 延迟到第一次使用时才初始化JMX
+   */
+  private static final class ThreadAllocation {
+
+    static final ThreadMXBean BEAN = initialize();
+
+    private static ThreadMXBean initialize() {
+      try {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof ThreadMXBean && ((ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+          ThreadMXBean allocationBean = (ThreadMXBean) bean;
+          if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+          }
+          return allocationBean;
+        }
+      } catch (RuntimeException e) {
+        // 没有开启的权限
+      }
+      return null;
+    }
+  }
+
+}
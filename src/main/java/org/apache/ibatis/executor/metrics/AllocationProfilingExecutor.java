@@ -0,0 +1,167 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Records the {@link AllocationPhase#TOTAL} phase of each statement executed by an executor, including its plugins.
+ *
+ * @since 3.5.14
+ */
+public class AllocationProfilingExecutor implements Executor {
+
+  private final Executor delegate;
+  private final AllocationProfiler profiler;
+
+  public AllocationProfilingExecutor(Executor delegate, AllocationProfiler profiler) {
+    this.delegate = delegate;
+    this.profiler = profiler;
+  }
+
+  @Override
+  public int update(MappedStatement ms, Object parameter) throws SQLException {
+    if (!profiler.isSampled()) {
+      return delegate.update(ms, parameter);
+    }
+    long start = profiler.getAllocatedBytes();
+    try {
+      return delegate.update(ms, parameter);
+    } finally {
+      record(ms, AllocationPhase.TOTAL, start);
+    }
+  }
+
+  @Override
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler,
+      CacheKey cacheKey, BoundSql boundSql) throws SQLException {
+    if (!profiler.isSampled()) {
+      return delegate.query(ms, parameter, rowBounds, resultHandler, cacheKey, boundSql);
+    }
+    long start = profiler.getAllocatedBytes();
+    try {
+      return delegate.query(ms, parameter, rowBounds, resultHandler, cacheKey, boundSql);
+    } finally {
+      record(ms, AllocationPhase.TOTAL, start);
+    }
+  }
+
+  @Override
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler)
+      throws SQLException {
+    if (!profiler.isSampled()) {
+      return delegate.query(ms, parameter, rowBounds, resultHandler);
+    }
+    long start = profiler.getAllocatedBytes();
+    try {
+      return delegate.query(ms, parameter, rowBounds, resultHandler);
+    } finally {
+      record(ms, AllocationPhase.TOTAL, start);
+    }
+  }
+
+  @Override
+  public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    if (!profiler.isSampled()) {
+      return delegate.queryCursor(ms, parameter, rowBounds);
+    }
+    long start = profiler.getAllocatedBytes();
+    try {
+      return delegate.queryCursor(ms, parameter, rowBounds);
+    } finally {
+      record(ms, AllocationPhase.TOTAL, start);
+    }
+  }
+
+  @Override
+  public List<BatchResult> flushStatements() throws SQLException {
+    return delegate.flushStatements();
+  }
+
+  @Override
+  public void commit(boolean required) throws SQLException {
+    delegate.commit(required);
+  }
+
+  @Override
+  public void rollback(boolean required) throws SQLException {
+    delegate.rollback(required);
+  }
+
+  @Override
+  public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+    return delegate.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+  }
+
+  @Override
+  public boolean isCached(MappedStatement ms, CacheKey key) {
+    return delegate.isCached(ms, key);
+  }
+
+  @Override
+  public void clearLocalCache() {
+    delegate.clearLocalCache();
+  }
+
+  @Override
+  public void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key,
+      Class<?> targetType) {
+    delegate.deferLoad(ms, resultObject, property, key, targetType);
+  }
+
+  @Override
+  public Transaction getTransaction() {
+    return delegate.getTransaction();
+  }
+
+  @Override
+  public void close(boolean forceRollback) {
+    delegate.close(forceRollback);
+  }
+
+  @Override
+  public boolean isClosed() {
+    return delegate.isClosed();
+  }
+
+  @Override
+  public ErrorContext getErrorContext() {
+    return delegate.getErrorContext();
+  }
+
+  @Override
+  public void setExecutorWrapper(Executor executor) {
+    throw new UnsupportedOperationException("This method should not be called");
+  }
+
+  private void record(MappedStatement ms, AllocationPhase phase, long start) {
+    profiler.getStatementAllocations(ms.getId()).record(phase, profiler.getAllocatedBytes() - start);
+  }
+
+}
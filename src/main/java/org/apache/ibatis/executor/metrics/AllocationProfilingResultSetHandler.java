@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+
+/**
+ * Records the {@link AllocationPhase#MAP} phase of a sampled statement.
+ *
+ * @since 3.5.14
+ */
+public class AllocationProfilingResultSetHandler implements ResultSetHandler {
+
+  private final ResultSetHandler delegate;
+  private final AllocationProfiler profiler;
+  private final StatementAllocations allocations;
+
+  public AllocationProfilingResultSetHandler(ResultSetHandler delegate, AllocationProfiler profiler,
+      StatementAllocations allocations) {
+    this.delegate = delegate;
+    this.profiler = profiler;
+    this.allocations = allocations;
+  }
+
+  @Override
+  public <E> List<E> handleResultSets(Statement stmt) throws SQLException {
+    long start = profiler.getAllocatedBytes();
+    try {
+      return delegate.handleResultSets(stmt);
+    } finally {
+      allocations.record(AllocationPhase.MAP, profiler.getAllocatedBytes() - start);
+    }
+  }
+
+  @Override
+  public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
+    // 游标的结果在遍历时才映射，不在执行语句的调用中
+    return delegate.handleCursorResultSets(stmt);
+  }
+
+  @Override
+  public void handleOutputParameters(CallableStatement cs) throws SQLException {
+    delegate.handleOutputParameters(cs);
+  }
+
+}
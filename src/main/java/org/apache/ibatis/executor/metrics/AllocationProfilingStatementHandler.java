@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Records the {@link AllocationPhase#BIND} phase of a sampled statement.
+ *
+ * @since 3.5.14
+ */
+public class AllocationProfilingStatementHandler implements StatementHandler {
+
+  private final StatementHandler delegate;
+  private final AllocationProfiler profiler;
+  private final StatementAllocations allocations;
+
+  public AllocationProfilingStatementHandler(StatementHandler delegate, AllocationProfiler profiler,
+      StatementAllocations allocations) {
+    this.delegate = delegate;
+    this.profiler = profiler;
+    this.allocations = allocations;
+  }
+
+  @Override
+  public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
+    return delegate.prepare(connection, transactionTimeout);
+  }
+
+  @Override
+  public void parameterize(Statement statement) throws SQLException {
+    long start = profiler.getAllocatedBytes();
+    try {
+      delegate.parameterize(statement);
+    } finally {
+      allocations.record(AllocationPhase.BIND, profiler.getAllocatedBytes() - start);
+    }
+  }
+
+  @Override
+  public void batch(Statement statement) throws SQLException {
+    delegate.batch(statement);
+  }
+
+  @Override
+  public int update(Statement statement) throws SQLException {
+    return delegate.update(statement);
+  }
+
+  @Override
+  public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
+    return delegate.query(statement, resultHandler);
+  }
+
+  @Override
+  public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+    return delegate.queryCursor(statement);
+  }
+
+  @Override
+  public BoundSql getBoundSql() {
+    return delegate.getBoundSql();
+  }
+
+  @Override
+  public ParameterHandler getParameterHandler() {
+    return delegate.getParameterHandler();
+  }
+
+}
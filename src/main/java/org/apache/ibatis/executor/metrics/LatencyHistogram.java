@@ -0,0 +1,161 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with exponential buckets. Bucket {@code i} counts the latencies below {@code 2^(i + 10)}
+ * nanoseconds (about {@code 2^i} microseconds), the last bucket counts all the longer ones.
+ * <p>
+ * Every bucket is a {@link LongAdder}, so concurrent recording does not contend on a single counter.
+ *
+ * @since 3.5.14
+ */
+public class LatencyHistogram {
+
+  public static final int BUCKET_COUNT = 36;
+
+  private static final int FIRST_BUCKET_SHIFT = 10;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos
+   *          the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets[bucketIndex(nanos)].increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  /**
+   * Returns the upper bound of a bucket.
+   *
+   * @param index
+   *          the bucket index
+   *
+   * @return the exclusive upper bound in nanoseconds, {@link Long#MAX_VALUE} for the last bucket
+   */
+  public static long bucketUpperBound(int index) {
+    return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << (index + FIRST_BUCKET_SHIFT);
+  }
+
+  static int bucketIndex(long nanos) {
+    int index = 64 - Long.numberOfLeadingZeros(nanos >> FIRST_BUCKET_SHIFT);
+    return Math.min(index, BUCKET_COUNT - 1);
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return new Snapshot(counts, totalNanos.sum(), maxNanos.get());
+  }
+
+  /**
+   * The recorded latencies at a point in time. While latencies are being recorded, the counts and the total are not
+   * guaranteed to be consistent with each other.
+   */
+  public static class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    Snapshot(long[] counts, long totalNanos, long maxNanos) {
+      this.counts = counts;
+      long sum = 0;
+      for (long c : counts) {
+        sum += c;
+      }
+      this.count = sum;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public double getMeanNanos() {
+      return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Gets the number of latencies recorded in a bucket.
+     *
+     * @param index
+     *          the bucket index
+     *
+     * @return the number of latencies in the bucket
+     *
+     * @see LatencyHistogram#bucketUpperBound(int)
+     */
+    public long getBucketCount(int index) {
+      return counts[index];
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket that holds it, capped by the maximum latency.
+     *
+     * @param percentile
+     *          the percentile, between {@code 0} and {@code 100}
+     *
+     * @return the estimated latency in nanoseconds, {@code 0} if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(bucketUpperBound(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+  }
+
+}
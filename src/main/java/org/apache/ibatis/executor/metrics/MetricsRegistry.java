@@ -0,0 +1,105 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the {@link StatementMetrics} of the statements of a configuration when the {@code metricsEnabled} setting is
+ * enabled.
+ * <p>
+ * Metrics are read with {@link #getSnapshot(String)} and {@link #getSnapshots()}, or pushed to the registered
+ * {@link MetricsListener}s by {@link #publish()}, which an exporter typically calls periodically.
+ *
+ * @since 3.5.14
+ */
+public class MetricsRegistry {
+
+  private final ConcurrentMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+  private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Gets the metrics of a statement, creating them on first use.
+   *
+   * @param statementId
+   *          the mapped statement id
+   *
+   * @return the statement metrics
+   */
+  public StatementMetrics getStatementMetrics(String statementId) {
+    StatementMetrics metrics = statements.get(statementId);
+    if (metrics == null) {
+      metrics = statements.computeIfAbsent(statementId, StatementMetrics::new);
+    }
+    return metrics;
+  }
+
+  /**
+   * Gets the metrics of a statement.
+   *
+   * @param statementId
+   *          the mapped statement id
+   *
+   * @return the snapshot, or {@code null} if the statement has not been executed
+   */
+  public StatementMetricsSnapshot getSnapshot(String statementId) {
+    StatementMetrics metrics = statements.get(statementId);
+    return metrics == null ? null : metrics.snapshot();
+  }
+
+  public Collection<StatementMetricsSnapshot> getSnapshots() {
+    List<StatementMetricsSnapshot> snapshots = new ArrayList<>(statements.size());
+    for (StatementMetrics metrics : statements.values()) {
+      snapshots.add(metrics.snapshot());
+    }
+    return snapshots;
+  }
+
+  public void addListener(MetricsListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(MetricsListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Passes the snapshots of all statements to the registered listeners.
+   */
+  public void publish() {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Collection<StatementMetricsSnapshot> snapshots = Collections.unmodifiableCollection(getSnapshots());
+    for (MetricsListener listener : listeners) {
+      listener.onPublish(snapshots);
+    }
+  }
+
+  /**
+   * Discards the metrics of all statements.
+   */
+  public void reset() {
+    statements.clear();
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+
+/**
+ * Records the {@link StatementPhase#MAP} phase of a statement. The mapping time is also added to a counter shared with
+ * the {@link MetricsStatementHandler} of the same execution, which excludes it from the {@link StatementPhase#EXECUTE}
+ * phase.
+ *
+ * @since 3.5.14
+ */
+public class MetricsResultSetHandler implements ResultSetHandler {
+
+  private final ResultSetHandler delegate;
+  private final StatementMetrics metrics;
+  private final AtomicLong mapNanos;
+
+  public MetricsResultSetHandler(ResultSetHandler delegate, StatementMetrics metrics) {
+    this(delegate, metrics, new AtomicLong());
+  }
+
+  /**
+   * @param mapNanos
+   *          the counter the mapping time is added to
+   */
+  public MetricsResultSetHandler(ResultSetHandler delegate, StatementMetrics metrics, AtomicLong mapNanos) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.mapNanos = mapNanos;
+  }
+
+  @Override
+  public <E> List<E> handleResultSets(Statement stmt) throws SQLException {
+    long start = System.nanoTime();
+    try {
+      return delegate.handleResultSets(stmt);
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      mapNanos.addAndGet(elapsed);
+      metrics.recordPhase(StatementPhase.MAP, elapsed);
+    }
+  }
+
+  @Override
+  public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
+    // 游标的结果在遍历时才映射，这里不计时
+    return delegate.handleCursorResultSets(stmt);
+  }
+
+  @Override
+  public void handleOutputParameters(CallableStatement cs) throws SQLException {
+    delegate.handleOutputParameters(cs);
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Records the {@link StatementPhase#PREPARE}, {@link StatementPhase#PARAMETERIZE} and {@link StatementPhase#EXECUTE}
+ * phases, the executions and the errors of a statement. The time recorded by the {@link MetricsResultSetHandler} of
+ * the same execution is subtracted from the execute phase.
+ *
+ * @since 3.5.14
+ */
+public class MetricsStatementHandler implements StatementHandler {
+
+  private final StatementHandler delegate;
+  private final StatementMetrics metrics;
+  private final AtomicLong mapNanos;
+
+  public MetricsStatementHandler(StatementHandler delegate, StatementMetrics metrics) {
+    this(delegate, metrics, new AtomicLong());
+  }
+
+  /**
+   * @param mapNanos
+   *          the counter the {@link MetricsResultSetHandler} of the same execution adds the mapping time to
+   */
+  public MetricsStatementHandler(StatementHandler delegate, StatementMetrics metrics, AtomicLong mapNanos) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.mapNanos = mapNanos;
+  }
+
+  @Override
+  public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
+    long start = System.nanoTime();
+    try {
+      return delegate.prepare(connection, transactionTimeout);
+    } catch (SQLException | RuntimeException e) {
+      metrics.recordExecution(0, true);
+      throw e;
+    } finally {
+      metrics.recordPhase(StatementPhase.PREPARE, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void parameterize(Statement statement) throws SQLException {
+    long start = System.nanoTime();
+    try {
+      delegate.parameterize(statement);
+    } catch (SQLException | RuntimeException e) {
+      metrics.recordExecution(0, true);
+      throw e;
+    } finally {
+      metrics.recordPhase(StatementPhase.PARAMETERIZE, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void batch(Statement statement) throws SQLException {
+    // 批量语句在刷新时才执行，只统计执行次数
+    boolean failed = true;
+    try {
+      delegate.batch(statement);
+      failed = false;
+    } finally {
+      metrics.recordExecution(0, failed);
+    }
+  }
+
+  @Override
+  public int update(Statement statement) throws SQLException {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      int rows = delegate.update(statement);
+      failed = false;
+      return rows;
+    } finally {
+      metrics.recordPhase(StatementPhase.EXECUTE, System.nanoTime() - start);
+      metrics.recordExecution(0, failed);
+    }
+  }
+
+  @Override
+  public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
+    long mapStart = mapNanos.get();
+    long start = System.nanoTime();
+    List<E> results = null;
+    try {
+      results = delegate.query(statement, resultHandler);
+      return results;
+    } finally {
+      // 映射结果集的时间单独记录在MAP阶段
+      long elapsed = System.nanoTime() - start - (mapNanos.get() - mapStart);
+      metrics.recordPhase(StatementPhase.EXECUTE, Math.max(elapsed, 0));
+      metrics.recordExecution(results == null ? 0 : results.size(), results == null);
+    }
+  }
+
+  @Override
+  public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      Cursor<E> cursor = delegate.queryCursor(statement);
+      failed = false;
+      return cursor;
+    } finally {
+      metrics.recordPhase(StatementPhase.EXECUTE, System.nanoTime() - start);
+      metrics.recordExecution(0, failed);
+    }
+  }
+
+  @Override
+  public BoundSql getBoundSql() {
+    return delegate.getBoundSql();
+  }
+
+  @Override
+  public ParameterHandler getParameterHandler() {
+    return delegate.getParameterHandler();
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.util.Map;
+
+/**
+ * The bytes allocated by the sampled executions of one mapped statement at a point in time.
+ *
+ * @since 3.5.14
+ */
+public class StatementAllocationSnapshot {
+
+  private final String statementId;
+  private final Map<AllocationPhase, Long> samples;
+  private final Map<AllocationPhase, Long> allocatedBytes;
+
+  StatementAllocationSnapshot(String statementId, Map<AllocationPhase, Long> samples,
+      Map<AllocationPhase, Long> allocatedBytes) {
+    this.statementId = statementId;
+    this.samples = samples;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  /**
+   * Gets the number of times a phase was sampled.
+   *
+   * @param phase
+   *          the phase
+   *
+   * @return the number of samples
+   */
+  public long getSamples(AllocationPhase phase) {
+    return samples.get(phase);
+  }
+
+  /**
+   * Gets the bytes allocated by all the samples of a phase.
+   *
+   * @param phase
+   *          the phase
+   *
+   * @return the allocated bytes
+   */
+  public long getAllocatedBytes(AllocationPhase phase) {
+    return allocatedBytes.get(phase);
+  }
+
+  /**
+   * Gets the bytes allocated by one execution of a phase on average.
+   *
+   * @param phase
+   *          the phase
+   *
+   * @return the average allocated bytes, or {@code 0} if the phase has not been sampled
+   */
+  public long getAverageBytes(AllocationPhase phase) {
+    long count = samples.get(phase);
+    return count == 0 ? 0 : allocatedBytes.get(phase) / count;
+  }
+
+  @Override
+  public String toString() {
+    return statementId + " [samples=" + getSamples(AllocationPhase.TOTAL) + ", allocated="
+        + getAllocatedBytes(AllocationPhase.TOTAL) + "B, average=" + getAverageBytes(AllocationPhase.TOTAL)
+        + "B, sqlBuild=" + getAverageBytes(AllocationPhase.SQL_BUILD) + "B, bind="
+        + getAverageBytes(AllocationPhase.BIND) + "B, map=" + getAverageBytes(AllocationPhase.MAP) + "B]";
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The bytes allocated by the sampled executions of one mapped statement.
+ *
+ * @since 3.5.14
+ */
+public class StatementAllocations {
+
+  private final String statementId;
+  private final Map<AllocationPhase, LongAdder> samples = new EnumMap<>(AllocationPhase.class);
+  private final Map<AllocationPhase, LongAdder> bytes = new EnumMap<>(AllocationPhase.class);
+
+  public StatementAllocations(String statementId) {
+    this.statementId = statementId;
+    for (AllocationPhase phase : AllocationPhase.values()) {
+      samples.put(phase, new LongAdder());
+      bytes.put(phase, new LongAdder());
+    }
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  /**
+   * Records the bytes allocated by the current thread during one sampled phase.
+   *
+   * @param phase
+   *          the phase
+   * @param allocatedBytes
+   *          the allocated bytes
+   */
+  public void record(AllocationPhase phase, long allocatedBytes) {
+    samples.get(phase).increment();
+    bytes.get(phase).add(allocatedBytes);
+  }
+
+  public StatementAllocationSnapshot snapshot() {
+    Map<AllocationPhase, Long> sampleCounts = new EnumMap<>(AllocationPhase.class);
+    Map<AllocationPhase, Long> allocatedBytes = new EnumMap<>(AllocationPhase.class);
+    for (AllocationPhase phase : AllocationPhase.values()) {
+      sampleCounts.put(phase, samples.get(phase).sum());
+      allocatedBytes.put(phase, bytes.get(phase).sum());
+    }
+    return new StatementAllocationSnapshot(statementId, sampleCounts, allocatedBytes);
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded for one mapped statement.
+ *
+ * @since 3.5.14
+ */
+public class StatementMetrics {
+
+  private final String statementId;
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder localCacheHits = new LongAdder();
+  private final LongAdder localCacheMisses = new LongAdder();
+  private final LongAdder secondLevelCacheHits = new LongAdder();
+  private final LongAdder secondLevelCacheMisses = new LongAdder();
+  private final Map<StatementPhase, LatencyHistogram> phases = new EnumMap<>(StatementPhase.class);
+
+  public StatementMetrics(String statementId) {
+    this.statementId = statementId;
+    for (StatementPhase phase : StatementPhase.values()) {
+      phases.put(phase, new LatencyHistogram());
+    }
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public void recordPhase(StatementPhase phase, long nanos) {
+    phases.get(phase).record(nanos);
+  }
+
+  /**
+   * Records an execution of the statement.
+   *
+   * @param rowCount
+   *          the number of rows returned by a query, {@code 0} for other statements
+   * @param failed
+   *          {@code true} if the execution threw an exception
+   */
+  public void recordExecution(int rowCount, boolean failed) {
+    executions.increment();
+    if (failed) {
+      errors.increment();
+    }
+    if (rowCount > 0) {
+      rows.add(rowCount);
+    }
+  }
+
+  public void recordLocalCache(boolean hit) {
+    (hit ? localCacheHits : localCacheMisses).increment();
+  }
+
+  public void recordSecondLevelCache(boolean hit) {
+    (hit ? secondLevelCacheHits : secondLevelCacheMisses).increment();
+  }
+
+  public StatementMetricsSnapshot snapshot() {
+    Map<StatementPhase, LatencyHistogram.Snapshot> latencies = new EnumMap<>(StatementPhase.class);
+    phases.forEach((phase, histogram) -> latencies.put(phase, histogram.snapshot()));
+    return new StatementMetricsSnapshot(statementId, executions.sum(), errors.sum(), rows.sum(), localCacheHits.sum(),
+        localCacheMisses.sum(), secondLevelCacheHits.sum(), secondLevelCacheMisses.sum(), latencies);
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics of one mapped statement at a point in time.
+ *
+ * @since 3.5.14
+ */
+public class StatementMetricsSnapshot {
+
+  private final String statementId;
+  private final long executions;
+  private final long errors;
+  private final long rows;
+  private final long localCacheHits;
+  private final long localCacheMisses;
+  private final long secondLevelCacheHits;
+  private final long secondLevelCacheMisses;
+  private final Map<StatementPhase, LatencyHistogram.Snapshot> latencies;
+
+  StatementMetricsSnapshot(String statementId, long executions, long errors, long rows, long localCacheHits,
+      long localCacheMisses, long secondLevelCacheHits, long secondLevelCacheMisses,
+      Map<StatementPhase, LatencyHistogram.Snapshot> latencies) {
+    this.statementId = statementId;
+    this.executions = executions;
+    this.errors = errors;
+    this.rows = rows;
+    this.localCacheHits = localCacheHits;
+    this.localCacheMisses = localCacheMisses;
+    this.secondLevelCacheHits = secondLevelCacheHits;
+    this.secondLevelCacheMisses = secondLevelCacheMisses;
+    this.latencies = latencies;
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  /**
+   * Gets the number of times the statement was executed against the database.
+   *
+   * @return the number of executions
+   */
+  public long getExecutions() {
+    return executions;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  /**
+   * Gets the number of rows returned by the executions of a query.
+   *
+   * @return the number of rows
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  public long getLocalCacheHits() {
+    return localCacheHits;
+  }
+
+  public long getLocalCacheMisses() {
+    return localCacheMisses;
+  }
+
+  public double getLocalCacheHitRatio() {
+    return ratio(localCacheHits, localCacheMisses);
+  }
+
+  public long getSecondLevelCacheHits() {
+    return secondLevelCacheHits;
+  }
+
+  public long getSecondLevelCacheMisses() {
+    return secondLevelCacheMisses;
+  }
+
+  public double getSecondLevelCacheHitRatio() {
+    return ratio(secondLevelCacheHits, secondLevelCacheMisses);
+  }
+
+  public LatencyHistogram.Snapshot getLatency(StatementPhase phase) {
+    return latencies.get(phase);
+  }
+
+  private static double ratio(long hits, long misses) {
+    long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  @Override
+  public String toString() {
+    LatencyHistogram.Snapshot execute = latencies.get(StatementPhase.EXECUTE);
+    return statementId + " [executions=" + executions + ", errors=" + errors + ", rows=" + rows + ", p50="
+        + execute.getPercentileNanos(50) / 1000 + "us, p99=" + execute.getPercentileNanos(99) / 1000
+        + "us, localCacheHitRatio=" + getLocalCacheHitRatio() + ", secondLevelCacheHitRatio="
+        + getSecondLevelCacheHitRatio() + "]";
+  }
+
+}
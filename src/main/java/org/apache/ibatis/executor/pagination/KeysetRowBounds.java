@@ -0,0 +1,97 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Row bounds for keyset pagination. Instead of skipping rows, the database returns the rows whose key is after (or
+ * before, in descending order) the last key of the previous page, so reading a deep page costs the same as reading the
+ * first one.
+ * <p>
+ * The statement must be a prepared select that returns the key column and does not order its rows; the query is
+ * wrapped, filtered and ordered by the key column. Requires the {@code databasePagination} setting and a
+ * {@link PaginationDialect} for the current database id.
+ *
+ * <pre>
+ * List&lt;Post&gt; page = session.selectList("selectPosts", null, new KeysetRowBounds("id", null, 20));
+ * List&lt;Post&gt; next = session.selectList("selectPosts", null,
+ *     new KeysetRowBounds("id", page.get(page.size() - 1).getId(), 20));
+ * </pre>
+ *
+ * @since 3.5.14
+ */
+public class KeysetRowBounds extends RowBounds {
+
+  /**
+   * 键列名会直接拼接到SQL中，只允许简单的标识符
+   */
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+
+  private final String keyColumn;
+  private final Object lastKey;
+  private final boolean descending;
+
+  /**
+   * Creates row bounds that read rows in ascending key order.
+   *
+   * @param keyColumn
+   *          the key column in the result of the statement
+   * @param lastKey
+   *          the key of the last row of the previous page, {@code null} for the first page
+   * @param limit
+   *          the page size
+   */
+  public KeysetRowBounds(String keyColumn, Object lastKey, int limit) {
+    this(keyColumn, lastKey, limit, false);
+  }
+
+  /**
+   * Creates row bounds that read rows in the given key order.
+   *
+   * @param keyColumn
+   *          the key column in the result of the statement
+   * @param lastKey
+   *          the key of the last row of the previous page, {@code null} for the first page
+   * @param limit
+   *          the page size
+   * @param descending
+   *          {@code true} to read rows in descending key order
+   */
+  public KeysetRowBounds(String keyColumn, Object lastKey, int limit, boolean descending) {
+    super(NO_ROW_OFFSET, limit);
+    if (keyColumn == null || !IDENTIFIER.matcher(keyColumn).matches()) {
+      throw new IllegalArgumentException("Invalid key column for keyset pagination: " + keyColumn);
+    }
+    this.keyColumn = keyColumn;
+    this.lastKey = lastKey;
+    this.descending = descending;
+  }
+
+  public String getKeyColumn() {
+    return keyColumn;
+  }
+
+  public Object getLastKey() {
+    return lastKey;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Appends {@code LIMIT n OFFSET m}, supported by H2, HSQLDB, MySQL, MariaDB, PostgreSQL and SQLite.
+ *
+ * @since 3.5.14
+ */
+public class LimitOffsetDialect implements PaginationDialect {
+
+  @Override
+  public String getPagedSql(String sql, int offset, int limit, List<Object> parameters) {
+    String query = PaginationDialects.trim(sql);
+    if (query == null || PaginationDialects.hasPagingClause(query)) {
+      return null;
+    }
+    StringBuilder paged = new StringBuilder(query.length() + 32).append(query);
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      paged.append(" LIMIT ?");
+      parameters.add(limit);
+    } else if (offset > 0) {
+      // MySQL、SQLite不支持只有OFFSET的写法，RowBounds的limit本身不超过int的范围
+      paged.append(" LIMIT ?");
+      parameters.add(RowBounds.NO_ROW_LIMIT);
+    }
+    if (offset > 0) {
+      paged.append(" OFFSET ?");
+      parameters.add(offset);
+    }
+    return paged.toString();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Appends the SQL:2008 {@code OFFSET m ROWS FETCH NEXT n ROWS ONLY} clause, supported by Derby, Oracle 12c and later,
+ * SQL Server 2012 and later, and DB2. Older Oracle versions reject the clause, so the {@code oracle} dialect must be
+ * replaced in the {@link PaginationDialectRegistry} for them.
+ * <p>
+ * SQL Server only accepts the clause on queries with an {@code ORDER BY} clause. A dialect created with
+ * {@code requireOrderBy} does not rewrite queries without a top level {@code ORDER BY}, and their row bounds are applied
+ * by limiting the max rows of the statement and skipping rows on the client.
+ *
+ * @since 3.5.14
+ */
+public class OffsetFetchDialect implements PaginationDialect {
+
+  private final boolean requireOrderBy;
+
+  public OffsetFetchDialect() {
+    this(false);
+  }
+
+  /**
+   * Creates a dialect that may only page ordered queries.
+   *
+   * @param requireOrderBy
+   *          {@code true} if the database rejects the clause on queries without an {@code ORDER BY} clause
+   */
+  public OffsetFetchDialect(boolean requireOrderBy) {
+    this.requireOrderBy = requireOrderBy;
+  }
+
+  @Override
+  public String getPagedSql(String sql, int offset, int limit, List<Object> parameters) {
+    String query = PaginationDialects.trim(sql);
+    if (query == null || PaginationDialects.hasPagingClause(query)
+        || requireOrderBy && !PaginationDialects.hasOrderBy(query)) {
+      return null;
+    }
+    StringBuilder paged = new StringBuilder(query.length() + 48).append(query);
+    paged.append(" OFFSET ? ROWS");
+    parameters.add(offset);
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      paged.append(" FETCH NEXT ? ROWS ONLY");
+      parameters.add(limit);
+    }
+    return paged.toString();
+  }
+}
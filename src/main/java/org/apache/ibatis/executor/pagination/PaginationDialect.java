@@ -0,0 +1,85 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.List;
+
+/**
+ * Rewrites a query so that the database returns only the rows selected by a
+ * {@link org.apache.ibatis.session.RowBounds}.
+ * <p>
+ * Dialects are looked up by database id in the {@link PaginationDialectRegistry} when the {@code databasePagination}
+ * setting is enabled.
+ *
+ * @since 3.5.14
+ */
+public interface PaginationDialect {
+
+  /**
+   * Returns the query restricted to the given rows. The offset and the limit are bound as parameters so that every page
+   * of a query is the same SQL string and its prepared statement can be reused: the paged query appends one placeholder
+   * for each value it adds to {@code parameters}, in the same order.
+   *
+   * @param sql
+   *          the original query
+   * @param offset
+   *          the number of rows to skip
+   * @param limit
+   *          the maximum number of rows to return, {@link org.apache.ibatis.session.RowBounds#NO_ROW_LIMIT} for no
+   *          limit
+   * @param parameters
+   *          the list to add the values of the appended placeholders to, discarded if the query cannot be paged
+   *
+   * @return the paged query, or {@code null} if this query cannot be paged by the database
+   */
+  String getPagedSql(String sql, int offset, int limit, List<Object> parameters);
+
+  /**
+   * Returns a query that reads the rows following a key value. The original query is used as a derived table, filtered
+   * on the key column, ordered by it and limited. Like {@link #getPagedSql(String, int, int, List)}, the values of the
+   * appended placeholders, starting with the last key unless it is {@code null}, are added to {@code parameters}.
+   *
+   * @param sql
+   *          the original query, which must select the key column and should not order its rows
+   * @param keyColumn
+   *          the key column as it is named in the result of the original query
+   * @param descending
+   *          {@code true} to read rows in descending key order
+   * @param lastKey
+   *          the key of the last row of the previous page, {@code null} to read from the first row
+   * @param limit
+   *          the maximum number of rows to return
+   * @param parameters
+   *          the list to add the values of the appended placeholders to
+   *
+   * @return the keyset query, or {@code null} if this query cannot be paged by the database
+   */
+  default String getKeysetSql(String sql, String keyColumn, boolean descending, Object lastKey, int limit,
+      List<Object> parameters) {
+    String query = PaginationDialects.trim(sql);
+    if (query == null) {
+      return null;
+    }
+    String column = "mybatis_keyset." + keyColumn;
+    StringBuilder keyset = new StringBuilder("select * from (").append(query).append(") mybatis_keyset");
+    if (lastKey != null) {
+      keyset.append(" where ").append(column).append(descending ? " < ?" : " > ?");
+      parameters.add(lastKey);
+    }
+    keyset.append(" order by ").append(column).append(descending ? " desc" : " asc");
+    return getPagedSql(keyset.toString(), 0, limit, parameters);
+  }
+}
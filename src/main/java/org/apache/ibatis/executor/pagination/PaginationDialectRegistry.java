@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link PaginationDialect}s by database id.
+ * <p>
+ * A database id is matched case-insensitively, first exactly and then by the first registered name it contains, so both
+ * short ids such as {@code h2} or {@code oracle} and the product names returned by
+ * {@link org.apache.ibatis.mapping.VendorDatabaseIdProvider} (for example {@code Microsoft SQL Server}) are resolved.
+ *
+ * @since 3.5.14
+ */
+public class PaginationDialectRegistry {
+
+  /**
+   * 按注册顺序保存，包含匹配时先注册的优先
+   */
+  private final Map<String, PaginationDialect> dialects = new LinkedHashMap<>();
+
+  /**
+   * 数据库id到方言的解析结果，没有匹配的方言时不缓存
+   */
+  private final Map<String, PaginationDialect> resolved = new ConcurrentHashMap<>();
+
+  public PaginationDialectRegistry() {
+    PaginationDialect limitOffset = new LimitOffsetDialect();
+    PaginationDialect offsetFetch = new OffsetFetchDialect();
+    PaginationDialect orderedOffsetFetch = new OffsetFetchDialect(true);
+    register("h2", limitOffset);
+    register("hsqldb", limitOffset);
+    register("hsql", limitOffset);
+    register("mysql", limitOffset);
+    register("mariadb", limitOffset);
+    register("postgresql", limitOffset);
+    register("postgres", limitOffset);
+    register("sqlite", limitOffset);
+    register("derby", offsetFetch);
+    // Oracle 12c起支持OFFSET/FETCH
+    register("oracle", offsetFetch);
+    register("sqlserver", orderedOffsetFetch);
+    register("sql server", orderedOffsetFetch);
+    register("db2", offsetFetch);
+  }
+
+  /**
+   * Registers a dialect for a database id, replacing the dialect registered for it before.
+   *
+   * @param databaseId
+   *          the database id
+   * @param dialect
+   *          the dialect
+   */
+  public synchronized void register(String databaseId, PaginationDialect dialect) {
+    dialects.put(databaseId.toLowerCase(Locale.ENGLISH), dialect);
+    resolved.clear();
+  }
+
+  /**
+   * Returns the dialect for a database id.
+   *
+   * @param databaseId
+   *          the database id
+   *
+   * @return the dialect, or {@code null} if none matches
+   */
+  public PaginationDialect getDialect(String databaseId) {
+    if (databaseId == null) {
+      return null;
+    }
+    PaginationDialect dialect = resolved.get(databaseId);
+    if (dialect == null) {
+      dialect = resolve(databaseId.toLowerCase(Locale.ENGLISH));
+      if (dialect != null) {
+        resolved.put(databaseId, dialect);
+      }
+    }
+    return dialect;
+  }
+
+  private synchronized PaginationDialect resolve(String databaseId) {
+    PaginationDialect dialect = dialects.get(databaseId);
+    if (dialect != null) {
+      return dialect;
+    }
+    for (Map.Entry<String, PaginationDialect> entry : dialects.entrySet()) {
+      if (databaseId.contains(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+}
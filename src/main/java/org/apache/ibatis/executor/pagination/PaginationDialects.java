@@ -0,0 +1,89 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import java.util.regex.Pattern;
+
+/**
+ * 分页方言的公共方法
+ */
+final class PaginationDialects {
+
+  /**
+   * 以行锁子句结尾的查询，分页子句的位置因数据库而异，不做改写
+   */
+  private static final Pattern LOCKING_CLAUSE = Pattern
+      .compile("\\bfor\\s+(update|share)\\b|\\block\\s+in\\s+share\\s+mode\\b", Pattern.CASE_INSENSITIVE);
+
+  private static final Pattern ORDER_BY = Pattern.compile("\\border\\s+by\\b", Pattern.CASE_INSENSITIVE);
+
+  private static final Pattern PAGING_CLAUSE = Pattern.compile("\\blimit\\b|\\boffset\\b|\\bfetch\\s+(first|next)\\b",
+      Pattern.CASE_INSENSITIVE);
+
+  private PaginationDialects() {
+  }
+
+  /**
+   * 查询的最外层是否带有ORDER BY子句，子查询和字符串常量中的ORDER BY不计算在内
+   */
+  static boolean hasOrderBy(String sql) {
+    return ORDER_BY.matcher(topLevel(sql)).find();
+  }
+
+  /**
+   * 查询的最外层是否已经带有LIMIT、OFFSET或FETCH FIRST/NEXT分页子句，这样的查询再追加分页子句会产生错误的SQL
+   */
+  static boolean hasPagingClause(String sql) {
+    return PAGING_CLAUSE.matcher(topLevel(sql)).find();
+  }
+
+  /**
+   * 将子查询和字符串常量替换为空白，只保留查询的最外层
+   */
+  private static CharSequence topLevel(String sql) {
+    int depth = 0;
+    boolean quoted = false;
+    StringBuilder topLevel = new StringBuilder(sql.length());
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        quoted = !quoted;
+      } else if (!quoted && c == '(') {
+        depth++;
+      } else if (!quoted && c == ')') {
+        depth--;
+      } else if (!quoted && depth == 0) {
+        topLevel.append(c);
+        continue;
+      }
+      // 保持单词之间的分隔
+      topLevel.append(' ');
+    }
+    return topLevel;
+  }
+
+  /**
+   * 去掉末尾的空白和分号，查询带有行锁子句时返回 {@code null}
+   */
+  static String trim(String sql) {
+    int end = sql.length();
+    while (end > 0 && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+      end--;
+    }
+    String query = sql.substring(0, end);
+    return LOCKING_CLAUSE.matcher(query).find() ? null : query;
+  }
+}
@@ -89,6 +89,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  private final ResultGuard resultGuard;
 
   // nested resultmaps
   private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
@@ -137,6 +138,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
     this.resultHandler = resultHandler;
+    this.resultGuard = ResultGuard.create(mappedStatement, boundSql);
   }
 
   //
@@ -188,7 +190,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
   @Override
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
-    ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+    errorContext().activity("handling results").object(mappedStatement.getId());
 
     final List<Object> multipleResults = new ArrayList<>();
 
@@ -221,12 +223,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    if (resultGuard != null) {
+      resultGuard.checkElapsedTime();
+    }
     return collapseSingleResultList(multipleResults);
   }
 
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
-    ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
+    errorContext().activity("handling cursor results").object(mappedStatement.getId());
 
     ResultSetWrapper rsw = getFirstResultSet(stmt);
 
@@ -381,6 +386,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   @SuppressWarnings("unchecked" /* because ResultHandler<?> is always ResultHandler<Object> */)
   private void callResultHandler(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext,
       Object rowValue) {
+    // 只限制映射到结果列表中的对象数量，游标和自定义ResultHandler不受影响。
+    // selectMap()先映射成列表再转换为Map，同样受到限制
+    if (resultGuard != null && resultHandler instanceof DefaultResultHandler && !resultGuard.acceptResult()) {
+      resultContext.stop();
+      return;
+    }
     resultContext.nextResultObject(rowValue);
     ((ResultHandler<Object>) resultHandler).handleResult(resultContext);
   }
@@ -1264,4 +1275,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return typeHandlerRegistry.hasTypeHandler(resultType);
   }
 
+  private ErrorContext errorContext() {
+    return executor == null ? ErrorContext.instance() : executor.getErrorContext();
+  }
+
 }
@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultGuardBehavior;
+
+/**
+ * 检查查询映射的结果数量和耗时是否超出限制
+ */
+final class ResultGuard {
+
+  static final String RESULT_SIZE_LIMIT = "resultSizeLimit";
+  static final String SLOW_QUERY_THRESHOLD = "slowQueryThreshold";
+
+  /**
+   * 每映射这么多个结果对象检查一次耗时
+   */
+  private static final int TIME_CHECK_INTERVAL = 256;
+
+  private final MappedStatement mappedStatement;
+  private final BoundSql boundSql;
+  private final ResultGuardBehavior behavior;
+  private final int resultSizeLimit;
+  private final long slowQueryThresholdMillis;
+  private final long startNanos;
+
+  private int resultCount;
+  private boolean resultSizeExceeded;
+  private boolean slowQueryReported;
+
+  private ResultGuard(MappedStatement mappedStatement, BoundSql boundSql, int resultSizeLimit,
+      long slowQueryThresholdMillis) {
+    this.mappedStatement = mappedStatement;
+    this.boundSql = boundSql;
+    this.behavior = mappedStatement.getConfiguration().getResultGuardBehavior();
+    this.resultSizeLimit = resultSizeLimit;
+    this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * 语句和全局配置都没有设置限制时返回 {@code null}
+   */
+  static ResultGuard create(MappedStatement mappedStatement, BoundSql boundSql) {
+    Configuration configuration = mappedStatement.getConfiguration();
+    int resultSizeLimit = positiveOrZero(mappedStatement.getResultSizeLimit(),
+        configuration.getDefaultResultSizeLimit());
+    int slowQueryThreshold = positiveOrZero(mappedStatement.getSlowQueryThreshold(),
+        configuration.getDefaultSlowQueryThreshold());
+    if (resultSizeLimit == 0 && slowQueryThreshold == 0) {
+      return null;
+    }
+    return new ResultGuard(mappedStatement, boundSql, resultSizeLimit, slowQueryThreshold);
+  }
+
+  private static int positiveOrZero(Integer statementValue, Integer defaultValue) {
+    Integer value = statementValue != null ? statementValue : defaultValue;
+    return value == null || value < 0 ? 0 : value;
+  }
+
+  /**
+   * 在把一个结果对象放入结果列表之前调用，超出数量限制时返回 {@code false}，调用方应停止读取结果集
+   */
+  boolean acceptResult() {
+    if (resultSizeLimit > 0 && resultCount == resultSizeLimit) {
+      // 多结果集时后续的结果集不再重复报告
+      if (!resultSizeExceeded) {
+        resultSizeExceeded = true;
+        behavior.doAction(mappedStatement, RESULT_SIZE_LIMIT, resultSizeLimit, resultCount + 1L, getParameterObject());
+        // WARNING时返回截断的结果，标记之后执行器不会将其放入一级缓存和二级缓存
+        if (boundSql != null) {
+          boundSql.markResultTruncated();
+        }
+      }
+      return false;
+    }
+    resultCount++;
+    if (resultCount % TIME_CHECK_INTERVAL == 0) {
+      checkElapsedTime();
+    }
+    return true;
+  }
+
+  /**
+   * 检查查询耗时，同一次查询只报告一次
+   */
+  void checkElapsedTime() {
+    if (slowQueryThresholdMillis == 0 || slowQueryReported) {
+      return;
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    if (elapsedMillis > slowQueryThresholdMillis) {
+      slowQueryReported = true;
+      behavior.doAction(mappedStatement, SLOW_QUERY_THRESHOLD, slowQueryThresholdMillis, elapsedMillis,
+          getParameterObject());
+    }
+  }
+
+  private Object getParameterObject() {
+    return boundSql == null ? null : boundSql.getParameterObject();
+  }
+
+}
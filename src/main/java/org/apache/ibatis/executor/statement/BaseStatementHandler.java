@@ -18,15 +18,23 @@ package org.apache.ibatis.executor.statement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
 
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.pagination.KeysetRowBounds;
+import org.apache.ibatis.executor.pagination.PaginationDialect;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -35,15 +43,27 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  * 抽象类，只提供了一些参数绑定相关的方法，并没有实现操作数据库的方法
+ *
  * @author Clinton Begin
  */
 public abstract class BaseStatementHandler implements StatementHandler {
 
+  /**
+   * 分页方言追加的占位符对应的附加参数名前缀，后接参数的序号
+   */
+  private static final String PAGE_PARAMETER_PREFIX = "_pageParameter";
+
   protected final Configuration configuration;
   protected final ObjectFactory objectFactory;
   protected final TypeHandlerRegistry typeHandlerRegistry;
   protected final ResultSetHandler resultSetHandler;
 
+  /**
+   * 实际调用的ResultSetHandler。默认就是resultSetHandler，开启指标、内存分配统计时是包装了它的装饰器；
+   * resultSetHandler本身保持不变，插件拦截的目标对象仍然是DefaultResultSetHandler
+   */
+  private ResultSetHandler mappingHandler;
+
   /**
    * ParameterHandler的主要功能：为SQL语句绑定实参，使用传入的实参替换SQL语句中的"?"占位符
    */
@@ -66,6 +86,11 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   protected BoundSql boundSql;
 
+  /**
+   * 由数据库完成分页但没有可用的分页方言时，限制Statement返回的最大行数，0表示不限制
+   */
+  protected int maxRows;
+
   protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject,
       RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
     this.configuration = mappedStatement.getConfiguration();
@@ -81,11 +106,88 @@ public abstract class BaseStatementHandler implements StatementHandler {
       boundSql = mappedStatement.getBoundSql(parameterObject);
     }
 
+    RowBounds resultRowBounds = rowBounds;
+    if (configuration.isDatabasePagination() && isPageable(mappedStatement, rowBounds)) {
+      BoundSql pagedSql = paginate(boundSql, rowBounds);
+      if (pagedSql != null) {
+        // 数据库已经完成了分页，结果集处理时不再跳过记录
+        boundSql = pagedSql;
+        resultRowBounds = RowBounds.DEFAULT;
+      } else if (rowBounds instanceof KeysetRowBounds) {
+        throw new ExecutorException("Keyset pagination is not supported for statement '" + mappedStatement.getId()
+            + "' on database '" + configuration.getDatabaseId() + "'.");
+      } else {
+        maxRows = (int) Math.min((long) rowBounds.getOffset() + rowBounds.getLimit(), RowBounds.NO_ROW_LIMIT);
+      }
+    } else if (rowBounds instanceof KeysetRowBounds) {
+      throw new ExecutorException("Keyset pagination requires the databasePagination setting and a select statement "
+          + "without nested result maps. Statement: " + mappedStatement.getId());
+    }
+
     this.boundSql = boundSql;
 
     this.parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
-    this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler,
-        resultHandler, boundSql);
+    this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, resultRowBounds,
+        parameterHandler, resultHandler, boundSql);
+    this.mappingHandler = resultSetHandler;
+  }
+
+  /**
+   * 使用装饰器包装实际调用的ResultSetHandler
+   */
+  void decorateResultSetHandler(UnaryOperator<ResultSetHandler> decorator) {
+    mappingHandler = decorator.apply(mappingHandler);
+  }
+
+  /**
+   * 返回映射结果集时实际调用的ResultSetHandler，可能是包装了 {@link #resultSetHandler} 的装饰器
+   */
+  protected ResultSetHandler getMappingHandler() {
+    return mappingHandler;
+  }
+
+  /**
+   * 是否可以由数据库完成分页：只处理带有RowBounds的普通查询。嵌套结果映射按对象计数，多结果集和存储过程无法改写
+   */
+  private static boolean isPageable(MappedStatement ms, RowBounds rowBounds) {
+    return rowBounds != null
+        && (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT)
+        && ms.getSqlCommandType() == SqlCommandType.SELECT && ms.getStatementType() != StatementType.CALLABLE
+        && ms.getResultSets() == null && !ms.hasNestedResultMaps();
+  }
+
+  /**
+   * 使用当前数据库的分页方言改写SQL语句，无法改写时返回 {@code null}。
+   * 分页参数以占位符的形式绑定，同一个查询的每一页都是相同的SQL语句，可以复用预编译的Statement
+   */
+  private BoundSql paginate(BoundSql boundSql, RowBounds rowBounds) {
+    PaginationDialect dialect = configuration.getPaginationDialect();
+    if (dialect == null || mappedStatement.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    List<Object> pageParameters = new ArrayList<>();
+    String sql;
+    if (rowBounds instanceof KeysetRowBounds) {
+      KeysetRowBounds keyset = (KeysetRowBounds) rowBounds;
+      sql = dialect.getKeysetSql(boundSql.getSql(), keyset.getKeyColumn(), keyset.isDescending(), keyset.getLastKey(),
+          keyset.getLimit(), pageParameters);
+    } else {
+      sql = dialect.getPagedSql(boundSql.getSql(), rowBounds.getOffset(), rowBounds.getLimit(), pageParameters);
+    }
+    if (sql == null) {
+      return null;
+    }
+    List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+    for (int i = 0; i < pageParameters.size(); i++) {
+      parameterMappings.add(new ParameterMapping.Builder(configuration, PAGE_PARAMETER_PREFIX + i,
+          pageParameters.get(i).getClass()).build());
+    }
+    BoundSql pagedSql = new PagedBoundSql(configuration, sql, parameterMappings, boundSql);
+    pagedSql.getAdditionalParameters().putAll(boundSql.getAdditionalParameters());
+    for (int i = 0; i < pageParameters.size(); i++) {
+      pagedSql.setAdditionalParameter(PAGE_PARAMETER_PREFIX + i, pageParameters.get(i));
+    }
+    return pagedSql;
   }
 
   @Override
@@ -100,12 +202,13 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   @Override
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
-    ErrorContext.instance().sql(boundSql.getSql());
+    errorContext().sql(boundSql.getSql());
     Statement statement = null;
     try {
       statement = instantiateStatement(connection);
       setStatementTimeout(statement, transactionTimeout);
       setFetchSize(statement);
+      setMaxRows(statement);
       return statement;
     } catch (SQLException e) {
       closeStatement(statement);
@@ -143,6 +246,15 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  protected void setMaxRows(Statement stmt) throws SQLException {
+    if (maxRows > 0) {
+      stmt.setMaxRows(maxRows);
+    } else if (configuration.isDatabasePagination() && stmt.getMaxRows() != 0) {
+      // ReuseExecutor会复用Statement，清除上一次设置的最大行数
+      stmt.setMaxRows(0);
+    }
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
@@ -155,9 +267,42 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   protected void generateKeys(Object parameter) {
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
-    ErrorContext.instance().store();
+    errorContext().store();
     keyGenerator.processBefore(executor, mappedStatement, null, parameter);
-    ErrorContext.instance().recall();
+    errorContext().recall();
+  }
+
+  /**
+   * 参数设置前记录错误上下文，开启sessionErrorContext时DefaultParameterHandler不再访问ThreadLocal
+   */
+  protected void beforeParameterize() {
+    if (configuration.isSessionErrorContext()) {
+      errorContext().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
+    }
+  }
+
+  private ErrorContext errorContext() {
+    return executor == null ? ErrorContext.instance() : executor.getErrorContext();
   }
 
+
+  /**
+   * 分页改写后的BoundSql，结果被resultSizeLimit截断时同时标记执行器持有的原BoundSql，使其不被放入缓存
+   */
+  private static final class PagedBoundSql extends BoundSql {
+
+    private final BoundSql original;
+
+    PagedBoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings,
+        BoundSql original) {
+      super(configuration, sql, parameterMappings, original.getParameterObject());
+      this.original = original;
+    }
+
+    @Override
+    public void markResultTruncated() {
+      super.markResultTruncated();
+      original.markResultTruncated();
+    }
+  }
 }
@@ -53,7 +53,7 @@ public class CallableStatementHandler extends BaseStatementHandler {
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, cs, parameterObject);
-    resultSetHandler.handleOutputParameters(cs);
+    getMappingHandler().handleOutputParameters(cs);
     return rows;
   }
 
@@ -67,8 +67,8 @@ public class CallableStatementHandler extends BaseStatementHandler {
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
     cs.execute();
-    List<E> resultList = resultSetHandler.handleResultSets(cs);
-    resultSetHandler.handleOutputParameters(cs);
+    List<E> resultList = getMappingHandler().handleResultSets(cs);
+    getMappingHandler().handleOutputParameters(cs);
     return resultList;
   }
 
@@ -76,8 +76,8 @@ public class CallableStatementHandler extends BaseStatementHandler {
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
     cs.execute();
-    Cursor<E> resultList = resultSetHandler.handleCursorResultSets(cs);
-    resultSetHandler.handleOutputParameters(cs);
+    Cursor<E> resultList = getMappingHandler().handleCursorResultSets(cs);
+    getMappingHandler().handleOutputParameters(cs);
     return resultList;
   }
 
@@ -93,6 +93,7 @@ public class CallableStatementHandler extends BaseStatementHandler {
   @Override
   public void parameterize(Statement statement) throws SQLException {
     registerOutputParameters((CallableStatement) statement);
+    beforeParameterize();
     parameterHandler.setParameters((CallableStatement) statement);
   }
 
@@ -19,11 +19,13 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.ResultHandler;
@@ -40,6 +42,12 @@ public class RoutingStatementHandler implements StatementHandler {
    */
   private final StatementHandler delegate;
 
+  /**
+   * 实际调用的StatementHandler。默认就是delegate，开启语句跟踪、指标等功能时是包装了delegate的装饰器；
+   * delegate本身保持不变，插件通过MetaObject读取的delegate.boundSql、delegate.mappedStatement等属性不受影响
+   */
+  private StatementHandler handler;
+
   public RoutingStatementHandler(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
       ResultHandler resultHandler, BoundSql boundSql) {
 
@@ -56,46 +64,77 @@ public class RoutingStatementHandler implements StatementHandler {
       default:
         throw new ExecutorException("Unknown statement type: " + ms.getStatementType());
     }
+    handler = delegate;
+
+  }
+
+  /**
+   * Decorates the handler this handler routes to. The {@code delegate} property keeps referring to the routed handler,
+   * so plugins that read {@code delegate.boundSql} or {@code delegate.mappedStatement} through a {@code MetaObject} work
+   * the same with or without decorators.
+   *
+   * @param decorator
+   *          creates the decorator of the current handler
+   *
+   * @since 3.5.14
+   */
+  public void decorate(UnaryOperator<StatementHandler> decorator) {
+    handler = decorator.apply(handler);
+  }
 
+  /**
+   * Decorates the result set handler of the routed handler. The {@code delegate.resultSetHandler} property keeps
+   * referring to the result set handler created by the configuration, so result set handler plugins intercept the
+   * {@code DefaultResultSetHandler} with or without decorators.
+   *
+   * @param decorator
+   *          creates the decorator of the current result set handler
+   *
+   * @since 3.5.14
+   */
+  public void decorateResultSetHandler(UnaryOperator<ResultSetHandler> decorator) {
+    if (delegate instanceof BaseStatementHandler) {
+      ((BaseStatementHandler) delegate).decorateResultSetHandler(decorator);
+    }
   }
 
   @Override
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
-    return delegate.prepare(connection, transactionTimeout);
+    return handler.prepare(connection, transactionTimeout);
   }
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
-    delegate.parameterize(statement);
+    handler.parameterize(statement);
   }
 
   @Override
   public void batch(Statement statement) throws SQLException {
-    delegate.batch(statement);
+    handler.batch(statement);
   }
 
   @Override
   public int update(Statement statement) throws SQLException {
-    return delegate.update(statement);
+    return handler.update(statement);
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
-    return delegate.query(statement, resultHandler);
+    return handler.query(statement, resultHandler);
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
-    return delegate.queryCursor(statement);
+    return handler.queryCursor(statement);
   }
 
   @Override
   public BoundSql getBoundSql() {
-    return delegate.getBoundSql();
+    return handler.getBoundSql();
   }
 
   @Override
   public ParameterHandler getParameterHandler() {
-    return delegate.getParameterHandler();
+    return handler.getParameterHandler();
   }
 }
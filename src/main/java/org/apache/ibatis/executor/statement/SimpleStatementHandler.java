@@ -73,14 +73,14 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
     statement.execute(sql);
-    return resultSetHandler.handleResultSets(statement);
+    return getMappingHandler().handleResultSets(statement);
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
     statement.execute(sql);
-    return resultSetHandler.handleCursorResultSets(statement);
+    return getMappingHandler().handleCursorResultSets(statement);
   }
 
   @Override
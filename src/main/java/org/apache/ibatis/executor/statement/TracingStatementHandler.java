@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.logging.jdbc.StatementTracer;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Traces the execution of a statement with a {@link StatementTracer} instead of proxying the JDBC objects.
+ *
+ * @since 3.5.14
+ */
+public class TracingStatementHandler implements StatementHandler {
+
+  private final StatementHandler delegate;
+  private final MappedStatement mappedStatement;
+  private final StatementTracer tracer;
+
+  public TracingStatementHandler(StatementHandler delegate, MappedStatement mappedStatement, StatementTracer tracer) {
+    this.delegate = delegate;
+    this.mappedStatement = mappedStatement;
+    this.tracer = tracer;
+  }
+
+  @Override
+  public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
+    return delegate.prepare(connection, transactionTimeout);
+  }
+
+  @Override
+  public void parameterize(Statement statement) throws SQLException {
+    delegate.parameterize(statement);
+  }
+
+  @Override
+  public void batch(Statement statement) throws SQLException {
+    long start = System.nanoTime();
+    try {
+      delegate.batch(statement);
+    } catch (SQLException | RuntimeException e) {
+      trace(StatementTracer.UNKNOWN_ROWS, start, e);
+      throw e;
+    }
+    // 批量语句在刷新时才执行，这里只记录加入批次
+    trace(StatementTracer.UNKNOWN_ROWS, start, null);
+  }
+
+  @Override
+  public int update(Statement statement) throws SQLException {
+    long start = System.nanoTime();
+    int rows;
+    try {
+      rows = delegate.update(statement);
+    } catch (SQLException | RuntimeException e) {
+      trace(StatementTracer.UNKNOWN_ROWS, start, e);
+      throw e;
+    }
+    trace(rows, start, null);
+    return rows;
+  }
+
+  @Override
+  public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
+    long start = System.nanoTime();
+    List<E> results;
+    try {
+      results = delegate.query(statement, resultHandler);
+    } catch (SQLException | RuntimeException e) {
+      trace(StatementTracer.UNKNOWN_ROWS, start, e);
+      throw e;
+    }
+    // 使用ResultHandler时结果不会放入返回的集合中
+    trace(resultHandler == null ? results.size() : StatementTracer.UNKNOWN_ROWS, start, null);
+    return results;
+  }
+
+  @Override
+  public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+    long start = System.nanoTime();
+    Cursor<E> cursor;
+    try {
+      cursor = delegate.queryCursor(statement);
+    } catch (SQLException | RuntimeException e) {
+      trace(StatementTracer.UNKNOWN_ROWS, start, e);
+      throw e;
+    }
+    trace(StatementTracer.UNKNOWN_ROWS, start, null);
+    return cursor;
+  }
+
+  @Override
+  public BoundSql getBoundSql() {
+    return delegate.getBoundSql();
+  }
+
+  @Override
+  public ParameterHandler getParameterHandler() {
+    return delegate.getParameterHandler();
+  }
+
+  private void trace(int rows, long start, Throwable failure) {
+    long elapsedNanos = System.nanoTime() - start;
+    BoundSql boundSql = delegate.getBoundSql();
+    tracer.trace(mappedStatement.getStatementLog(), boundSql.getSql(), getParameterValues(boundSql), rows, elapsedNanos,
+        failure);
+  }
+
+  /**
+   * 按DefaultParameterHandler的规则取出绑定的参数值
+   */
+  private List<Object> getParameterValues(BoundSql boundSql) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    List<Object> values = new ArrayList<>(parameterMappings.size());
+    Configuration configuration = mappedStatement.getConfiguration();
+    Object parameterObject = boundSql.getParameterObject();
+    MetaObject metaObject = null;
+    for (ParameterMapping parameterMapping : parameterMappings) {
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      String propertyName = parameterMapping.getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        values.add(boundSql.getAdditionalParameter(propertyName));
+      } else if (parameterObject == null) {
+        values.add(null);
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+        values.add(parameterObject);
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        values.add(metaObject.getValue(propertyName));
+      }
+    }
+    return values;
+  }
+
+}
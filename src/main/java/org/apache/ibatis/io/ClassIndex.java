@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * 编译期生成的类索引（{@value #INDEX_LOCATION}），由 {@link ClassIndexProcessor} 生成。每行一个类的二进制名称，以 {@code #}
+ * 开头的行为注释。类路径上所有同名索引文件会被合并，同时记录每个索引所在的类路径根目录，结果按类加载器缓存。
+ */
+final class ClassIndex {
+
+  static final String INDEX_LOCATION = "META-INF/mybatis/index";
+
+  private static final Log log = LogFactory.getLog(ClassIndex.class);
+
+  private static final ClassIndex EMPTY = new ClassIndex(Collections.emptyList(), Collections.emptyMap());
+
+  private static final Map<ClassLoader, ClassIndex> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * 排好序的类名，同一个包及其子包下的类是连续的
+   */
+  private final List<String> classNames;
+
+  /**
+   * 每个类路径根目录（如 {@code file:/app/classes/}、{@code jar:file:/app/lib/a.jar!/}）的索引中排好序的类名
+   */
+  private final Map<String, List<String>> classNamesByRoot;
+
+  private ClassIndex(List<String> classNames, Map<String, List<String>> classNamesByRoot) {
+    this.classNames = classNames;
+    this.classNamesByRoot = classNamesByRoot;
+  }
+
+  static ClassIndex getInstance(ClassLoader classLoader) {
+    if (classLoader == null) {
+      return EMPTY;
+    }
+    return CACHE.computeIfAbsent(classLoader, ClassIndex::load);
+  }
+
+  static ClassIndex load(ClassLoader classLoader) {
+    TreeSet<String> names = new TreeSet<>();
+    Map<String, List<String>> namesByRoot = new HashMap<>();
+    try {
+      Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+      while (urls.hasMoreElements()) {
+        URL url = urls.nextElement();
+        if (log.isDebugEnabled()) {
+          log.debug("Reading class index " + url);
+        }
+        TreeSet<String> rootNames = new TreeSet<>();
+        try (InputStream in = url.openStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && line.charAt(0) != '#') {
+              rootNames.add(line);
+            }
+          }
+        }
+        names.addAll(rootNames);
+        String location = url.toString();
+        String root = location.substring(0, location.length() - INDEX_LOCATION.length());
+        namesByRoot.merge(root, new ArrayList<>(rootNames), ClassIndex::mergeSorted);
+      }
+    } catch (IOException e) {
+      log.warn("Could not read class index '" + INDEX_LOCATION + "'. Cause: " + e);
+      return EMPTY;
+    }
+    return names.isEmpty() ? EMPTY
+        : new ClassIndex(Collections.unmodifiableList(new ArrayList<>(names)), namesByRoot);
+  }
+
+  private static List<String> mergeSorted(List<String> a, List<String> b) {
+    TreeSet<String> merged = new TreeSet<>(a);
+    merged.addAll(b);
+    return new ArrayList<>(merged);
+  }
+
+  boolean isEmpty() {
+    return classNames.isEmpty();
+  }
+
+  /**
+   * 返回指定包及其子包下的所有类名。索引中没有该包下的类时返回空列表，调用方应回退到扫描类路径。
+   */
+  List<String> getClassNames(String packageName) {
+    return subList(classNames, packageName);
+  }
+
+  /**
+   * 判断指定的包目录是否由其所在类路径根目录的索引覆盖。只有jar的索引列出了这个包下的类时才返回 {@code true}，
+   * 其他位置（没有索引的jar或目录、只索引了部分包的jar）需要扫描。
+   * 编译输出目录会被IDE、Gradle等增量编译原地更新，其中的索引可能只列出了部分类，因此目录总是需要扫描并与索引合并。
+   *
+   * @param packageUrl
+   *          包目录的URL，如 {@code file:/app/classes/org/example}
+   * @param packagePath
+   *          包路径，如 {@code org/example}
+   */
+  boolean covers(URL packageUrl, String packagePath, String packageName) {
+    if (classNamesByRoot.isEmpty()) {
+      return false;
+    }
+    String location = packageUrl.toString();
+    if (location.endsWith("/")) {
+      location = location.substring(0, location.length() - 1);
+    }
+    if (location.startsWith("file:") || !location.endsWith(packagePath)) {
+      return false;
+    }
+    List<String> rootNames = classNamesByRoot.get(location.substring(0, location.length() - packagePath.length()));
+    return rootNames != null && !subList(rootNames, packageName).isEmpty();
+  }
+
+  private static List<String> subList(List<String> sortedNames, String packageName) {
+    if (sortedNames.isEmpty() || packageName == null || packageName.isEmpty()) {
+      return Collections.emptyList();
+    }
+    String prefix = packageName + '.';
+    int from = Collections.binarySearch(sortedNames, prefix);
+    if (from < 0) {
+      from = -from - 1;
+    }
+    int to = from;
+    while (to < sortedNames.size() && sortedNames.get(to).startsWith(prefix)) {
+      to++;
+    }
+    return sortedNames.subList(from, to);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor that writes the names of all compiled classes to {@code META-INF/mybatis/index}.
+ * <p>
+ * When the index is present on the class path, {@link ResolverUtil} reads candidate classes for
+ * {@code <typeAliases><package>} and {@code <mappers><package>} from it instead of scanning directories and jar files.
+ * The processor is not registered as a service, so it has to be enabled explicitly, for example with
+ * {@code -processor org.apache.ibatis.io.ClassIndexProcessor} or the {@code annotationProcessorPaths} of the
+ * maven-compiler-plugin.
+ * <p>
+ * The {@code mybatis.index.packages} option restricts the index to a comma separated list of packages (including
+ * sub-packages).
+ * <p>
+ * An incremental compilation only processes the changed sources, so the classes listed by an index found in the class
+ * output directory are kept as long as their class files still exist there.
+ *
+ * @since 3.5.14
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(ClassIndexProcessor.PACKAGES_OPTION)
+public class ClassIndexProcessor extends AbstractProcessor {
+
+  public static final String PACKAGES_OPTION = "mybatis.index.packages";
+
+  private final Set<String> classNames = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeIndex();
+    } else {
+      String[] packages = getPackages();
+      for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+        collect(type, packages);
+      }
+    }
+    return false;
+  }
+
+  private void collect(TypeElement type, String[] packages) {
+    String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+    if (isIncluded(name, packages)) {
+      classNames.add(name);
+    }
+    for (Element member : ElementFilter.typesIn(type.getEnclosedElements())) {
+      collect((TypeElement) member, packages);
+    }
+  }
+
+  private String[] getPackages() {
+    String option = processingEnv.getOptions().get(PACKAGES_OPTION);
+    return option == null || option.trim().isEmpty() ? null : option.trim().split("\\s*,\\s*");
+  }
+
+  private static boolean isIncluded(String name, String[] packages) {
+    if (packages == null) {
+      return true;
+    }
+    for (String pkg : packages) {
+      if (name.startsWith(pkg + '.')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeIndex() {
+    mergePreviousIndex();
+    if (classNames.isEmpty()) {
+      return;
+    }
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+          ClassIndex.INDEX_LOCATION);
+      try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+        writer.write("# Generated by " + ClassIndexProcessor.class.getName() + "\n");
+        for (String name : classNames) {
+          writer.write(name);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "Could not write " + ClassIndex.INDEX_LOCATION + ": " + e);
+    }
+  }
+
+  /**
+   * 增量编译只处理修改过的源文件，合并输出目录中已有的索引，保留类文件仍然存在的类
+   */
+  private void mergePreviousIndex() {
+    String[] packages = getPackages();
+    try {
+      FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+          ClassIndex.INDEX_LOCATION);
+      try (BufferedReader reader = new BufferedReader(
+          new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          line = line.trim();
+          if (!line.isEmpty() && line.charAt(0) != '#' && !classNames.contains(line) && isIncluded(line, packages)
+              && classFileExists(line)) {
+            classNames.add(line);
+          }
+        }
+      }
+    } catch (IOException e) {
+      // 没有之前生成的索引
+    }
+  }
+
+  private boolean classFileExists(String className) {
+    try (InputStream in = processingEnv.getFiler()
+        .getResource(StandardLocation.CLASS_OUTPUT, "", className.replace('.', '/') + ".class").openInputStream()) {
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+}
@@ -17,7 +17,10 @@ package org.apache.ibatis.io;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -40,6 +43,11 @@ import org.apache.ibatis.logging.LogFactory;
  * There are also utility methods for the common use cases of scanning multiple packages for extensions of particular
  * classes, or classes annotated with a specific annotation.
  * <p>
+ * If a class index ({@code META-INF/mybatis/index}, generated by {@link ClassIndexProcessor}) lists classes in the
+ * requested package, those classes are checked, and only the class path locations whose own index does not list the
+ * package are scanned through {@link VFS}. Without an index the whole package is scanned as before. Scanned candidate
+ * classes are loaded in parallel when there are many of them.
+ * <p>
  * The standard usage pattern for the ResolverUtil class is as follows:
  *
  * <pre>
@@ -63,6 +71,11 @@ public class ResolverUtil<T> {
    */
   private static final Log log = LogFactory.getLog(ResolverUtil.class);
 
+  /**
+   * 扫描到的类达到这个数量时并行加载
+   */
+  private static final int PARALLEL_LOAD_THRESHOLD = 64;
+
   /**
    * A simple interface that specifies how to test classes to determine if they are to be included in the results
    * produced by the ResolverUtil.
@@ -248,11 +261,38 @@ public class ResolverUtil<T> {
     String path = getPackagePath(packageName);
 
     try {
-      List<String> children = VFS.getInstance().list(path);
-      for (String child : children) {
-        if (child.endsWith(".class")) {
-          addIfMatching(test, child);
+      // 优先使用编译期生成的类索引，索引只对其所在的jar可信，目录和其余位置仍需扫描
+      ClassIndex index = ClassIndex.getInstance(getClassLoader());
+      List<String> indexed = index.getClassNames(packageName);
+      List<String> children = new ArrayList<>();
+      if (indexed.isEmpty()) {
+        for (String child : VFS.getInstance().list(path)) {
+          if (child.endsWith(".class")) {
+            children.add(child);
+          }
         }
+      } else {
+        Set<String> merged = new LinkedHashSet<>();
+        for (String className : indexed) {
+          merged.add(className.replace('.', '/') + ".class");
+        }
+        VFS vfs = VFS.getInstance();
+        for (URL url : VFS.getResources(path)) {
+          if (!index.covers(url, path, packageName)) {
+            for (String child : vfs.list(url, path)) {
+              if (child.endsWith(".class")) {
+                merged.add(child);
+              }
+            }
+          }
+        }
+        children.addAll(merged);
+      }
+      if (children.size() >= PARALLEL_LOAD_THRESHOLD) {
+        preload(children);
+      }
+      for (String child : children) {
+        addIfMatching(test, child);
       }
     } catch (IOException ioe) {
       log.error("Could not read package: " + packageName, ioe);
@@ -261,6 +301,25 @@ public class ResolverUtil<T> {
     return this;
   }
 
+  /**
+   * 并行加载扫描到的类。类的加载（读取字节码、定义类）是扫描中最耗时的部分，而类加载器通常支持并发加载；
+   * 之后按顺序调用 {@link #addIfMatching(Test, String)} 时类已经加载，不会重复读取。
+   */
+  private void preload(List<String> children) {
+    ClassLoader loader = getClassLoader();
+    children.parallelStream().forEach(child -> {
+      try {
+        Class.forName(toClassName(child), false, loader);
+      } catch (Throwable t) {
+        // 错误会在 addIfMatching 中再次出现并记录日志
+      }
+    });
+  }
+
+  private static String toClassName(String fqn) {
+    return fqn.substring(0, fqn.indexOf('.')).replace('/', '.');
+  }
+
   /**
    * Converts a Java package name to a path that can be looked up with a call to
    * {@link ClassLoader#getResources(String)}.
@@ -286,7 +345,7 @@ public class ResolverUtil<T> {
   @SuppressWarnings("unchecked")
   protected void addIfMatching(Test test, String fqn) {
     try {
-      String externalName = fqn.substring(0, fqn.indexOf('.')).replace('/', '.');
+      String externalName = toClassName(fqn);
       ClassLoader loader = getClassLoader();
       if (log.isDebugEnabled()) {
         log.debug("Checking to see if class " + externalName + " matches criteria [" + test + "]");
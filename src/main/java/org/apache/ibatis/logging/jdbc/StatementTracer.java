@@ -0,0 +1,260 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Writes one debug line per executed statement with its SQL, bind values, row count and elapsed time. Unlike
+ * {@link ConnectionLogger}, no JDBC object is proxied: the values are collected once the statement has been executed.
+ * <p>
+ * Statements can be sampled, so that only one statement in {@code sampling} is traced, and the lines can be written by
+ * a background thread. When the queue of that thread is full, new lines are dropped and counted. The bind values are
+ * converted to strings by the thread executing the statement, so the background thread never reads them.
+ *
+ * @since 3.5.14
+ */
+public class StatementTracer {
+
+  /**
+   * Row count of a statement whose rows are not known, such as a batch or a query with a result handler.
+   */
+  public static final int UNKNOWN_ROWS = -1;
+
+  public static final int DEFAULT_QUEUE_SIZE = 4096;
+
+  private final BlockingQueue<Trace> queue;
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  private volatile int sampling = 1;
+  private volatile boolean async;
+  private volatile Thread emitter;
+
+  public StatementTracer() {
+    this(DEFAULT_QUEUE_SIZE);
+  }
+
+  public StatementTracer(int queueSize) {
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+  }
+
+  public int getSampling() {
+    return sampling;
+  }
+
+  /**
+   * Sets how many statements are executed for each traced one.
+   *
+   * @param sampling
+   *          {@code 1} to trace every statement, {@code n} to trace one statement in {@code n} on average
+   */
+  public void setSampling(int sampling) {
+    if (sampling < 1) {
+      throw new IllegalArgumentException("Statement trace sampling must be at least 1 but was " + sampling);
+    }
+    this.sampling = sampling;
+  }
+
+  public boolean isAsync() {
+    return async;
+  }
+
+  /**
+   * Sets whether the trace lines are written by a background thread instead of the thread executing the statement.
+   * The thread is started by the first asynchronous trace, and stops once it has written the queued lines when this is
+   * set back to {@code false}.
+   *
+   * @param async
+   *          {@code true} to write trace lines asynchronously
+   */
+  public void setAsync(boolean async) {
+    this.async = async;
+    if (!async) {
+      stopEmitter();
+    }
+  }
+
+  /**
+   * Gets the number of trace lines dropped because the queue of the background thread was full.
+   *
+   * @return the number of dropped trace lines
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * Decides whether the next statement is traced.
+   *
+   * @return {@code true} if the statement should be traced
+   */
+  public boolean isSampled() {
+    int n = sampling;
+    return n == 1 || ThreadLocalRandom.current().nextInt(n) == 0;
+  }
+
+  /**
+   * Writes the trace of an executed statement.
+   *
+   * @param statementLog
+   *          the log of the statement
+   * @param sql
+   *          the executed SQL
+   * @param parameters
+   *          the bind values
+   * @param rows
+   *          the number of rows read or updated, or {@link #UNKNOWN_ROWS}
+   * @param elapsedNanos
+   *          the execution time in nanoseconds
+   * @param failure
+   *          the exception thrown by the statement, or {@code null}
+   */
+  public void trace(Log statementLog, String sql, List<Object> parameters, int rows, long elapsedNanos,
+      Throwable failure) {
+    Trace trace = new Trace(statementLog, sql, parameters, rows, elapsedNanos, failure);
+    if (!async || !startEmitter()) {
+      trace.write();
+      return;
+    }
+    if (!queue.offer(trace)) {
+      droppedCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return 后台线程已经停止时返回false
+   */
+  private boolean startEmitter() {
+    if (emitter == null) {
+      synchronized (this) {
+        if (!async) {
+          return false;
+        }
+        if (emitter == null) {
+          Thread thread = new Thread(this::emit, "mybatis-statement-tracer");
+          thread.setDaemon(true);
+          emitter = thread;
+          thread.start();
+        }
+      }
+    }
+    return true;
+  }
+
+  private synchronized void stopEmitter() {
+    Thread thread = emitter;
+    if (thread != null) {
+      emitter = null;
+      thread.interrupt();
+    }
+  }
+
+  private void emit() {
+    Thread current = Thread.currentThread();
+    // 日志实现可能会清除中断标记，所以同时检查emitter字段
+    while (emitter == current) {
+      try {
+        queue.take().write();
+      } catch (InterruptedException e) {
+        break;
+      } catch (RuntimeException e) {
+        // 日志实现抛出的异常不能终止后台线程
+      }
+    }
+    // 停止前写完队列中剩余的日志
+    Trace trace;
+    while ((trace = queue.poll()) != null) {
+      try {
+        trace.write();
+      } catch (RuntimeException e) {
+        // 忽略
+      }
+    }
+  }
+
+  private static final class Trace {
+
+    private final Log statementLog;
+    private final String sql;
+    private final String parameters;
+    private final int rows;
+    private final long elapsedNanos;
+    private final Throwable failure;
+
+    Trace(Log statementLog, String sql, List<Object> parameters, int rows, long elapsedNanos, Throwable failure) {
+      this.statementLog = statementLog;
+      this.sql = sql;
+      this.parameters = parametersString(parameters);
+      this.rows = rows;
+      this.elapsedNanos = elapsedNanos;
+      this.failure = failure;
+    }
+
+    void write() {
+      StringBuilder line = new StringBuilder("==>  Executed: ").append(SqlSourceBuilder.removeExtraWhitespaces(sql));
+      line.append(" | Parameters: ").append(parameters);
+      if (failure != null) {
+        line.append(" | Failed: ").append(failure.getClass().getSimpleName());
+      } else if (rows != UNKNOWN_ROWS) {
+        line.append(" | Total: ").append(rows);
+      }
+      line.append(" | Time: ").append(elapsedNanos / 1_000_000).append('.').append(elapsedNanos / 100_000 % 10)
+          .append(" ms");
+      statementLog.debug(line.toString());
+    }
+
+    /**
+     * 在执行语句的线程中将参数值转换为字符串，后台线程写日志时参数对象可能已经被修改
+     */
+    private static String parametersString(List<Object> parameters) {
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < parameters.size(); i++) {
+        if (i > 0) {
+          builder.append(", ");
+        }
+        Object value = parameters.get(i);
+        if (value == null) {
+          builder.append("null");
+        } else {
+          builder.append(valueString(value)).append('(').append(value.getClass().getSimpleName()).append(')');
+        }
+      }
+      return builder.toString();
+    }
+
+    private static String valueString(Object value) {
+      if (value instanceof Array) {
+        try {
+          return ArrayUtil.toString(((Array) value).getArray());
+        } catch (SQLException e) {
+          // 与BaseJdbcLogger一致，退回到toString
+        }
+      }
+      return value.toString();
+    }
+  }
+
+}
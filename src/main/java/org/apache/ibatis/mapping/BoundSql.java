@@ -39,6 +39,7 @@ public class BoundSql {
   private final Object parameterObject;
   private final Map<String, Object> additionalParameters;
   private final MetaObject metaParameters;
+  private boolean resultTruncated;
 
   public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings,
       Object parameterObject) {
@@ -77,4 +78,25 @@ public class BoundSql {
   public Map<String, Object> getAdditionalParameters() {
     return additionalParameters;
   }
+
+  /**
+   * Returns whether the results of this execution were truncated because the statement exceeded its result size
+   * limit. Truncated results must not be stored in the local or second level cache.
+   *
+   * @return {@code true} if the results were truncated
+   *
+   * @since 3.5.14
+   */
+  public boolean isResultTruncated() {
+    return resultTruncated;
+  }
+
+  /**
+   * Marks the results of this execution as truncated by the result size limit.
+   *
+   * @since 3.5.14
+   */
+  public void markResultTruncated() {
+    this.resultTruncated = true;
+  }
 }
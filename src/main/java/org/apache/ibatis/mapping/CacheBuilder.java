@@ -30,6 +30,7 @@ import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -46,6 +47,7 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private CacheInvalidation invalidation = CacheInvalidation.NAMESPACE;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -84,6 +86,21 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * Sets how the cache is invalidated by the statements that write to the database.
+   *
+   * @param invalidation
+   *          the invalidation mode, {@code null} for {@link CacheInvalidation#NAMESPACE}
+   *
+   * @return this builder
+   *
+   * @since 3.5.14
+   */
+  public CacheBuilder invalidation(CacheInvalidation invalidation) {
+    this.invalidation = invalidation == null ? CacheInvalidation.NAMESPACE : invalidation;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -100,12 +117,24 @@ public class CacheBuilder {
         setCacheProperties(cache);
       }
       cache = setStandardDecorators(cache);
-    } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-      cache = new LoggingCache(cache);
+    } else {
+      if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
+        cache = new LoggingCache(cache);
+      }
+      if (invalidation == CacheInvalidation.TAG) {
+        cache = newTaggedCache(cache, cache);
+      }
     }
     return cache;
   }
 
+  private Cache newTaggedCache(Cache cache, Cache entries) {
+    TaggedCache taggedCache = new TaggedCache(cache, entries);
+    // 内置的淘汰策略会通知TaggedCache清理索引，上限只用于兜底不报告淘汰key的自定义装饰器
+    taggedCache.setMaxIndexedKeys(size == null ? TaggedCache.DEFAULT_MAX_INDEXED_KEYS : size * 4);
+    return taggedCache;
+  }
+
   private void setDefaultImplementations() {
     if (implementation == null) {
       implementation = PerpetualCache.class;
@@ -130,9 +159,13 @@ public class CacheBuilder {
       }
       cache = new LoggingCache(cache);
       cache = new SynchronizedCache(cache);
+      Cache entries = cache;
       if (blocking) {
         cache = new BlockingCache(cache);
       }
+      if (invalidation == CacheInvalidation.TAG) {
+        cache = newTaggedCache(cache, entries);
+      }
       return cache;
     } catch (Exception e) {
       throw new CacheException("Error building standard cache decorators.  Cause: " + e, e);
@@ -0,0 +1,35 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+/**
+ * How a second level cache is invalidated by the statements that write to the database.
+ *
+ * @since 3.5.14
+ */
+public enum CacheInvalidation {
+
+  /**
+   * 任意一条flushCache的语句在提交时清空整个缓存
+   */
+  NAMESPACE,
+
+  /**
+   * 缓存项按照语句读取的表或实体键建立索引，提交时只删除被写语句影响的缓存项
+   */
+  TAG
+
+}
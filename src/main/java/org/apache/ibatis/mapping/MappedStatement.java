@@ -18,6 +18,7 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -66,6 +67,13 @@ public final class MappedStatement {
   private LanguageDriver lang;
   private String[] resultSets;
   private boolean dirtySelect;
+  private Integer resultSizeLimit;
+  private Integer slowQueryThreshold;
+  private String[] cacheTags;
+  /**
+   * 从静态SQL中推断出的表，第一次使用时计算
+   */
+  private volatile Set<String> inferredCacheTags;
 
   MappedStatement() {
     // constructor disabled
@@ -191,6 +199,21 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder resultSizeLimit(Integer resultSizeLimit) {
+      mappedStatement.resultSizeLimit = resultSizeLimit;
+      return this;
+    }
+
+    public Builder slowQueryThreshold(Integer slowQueryThreshold) {
+      mappedStatement.slowQueryThreshold = slowQueryThreshold;
+      return this;
+    }
+
+    public Builder cacheTags(String cacheTags) {
+      mappedStatement.cacheTags = delimitedStringToArray(cacheTags);
+      return this;
+    }
+
     /**
      * Resul sets.
      *
@@ -313,6 +336,56 @@ public final class MappedStatement {
     return dirtySelect;
   }
 
+  /**
+   * Gets the maximum number of result objects this statement may map into a list.
+   *
+   * @return the result size limit, or {@code null} to use {@code Configuration#getDefaultResultSizeLimit()}
+   *
+   * @since 3.5.14
+   */
+  public Integer getResultSizeLimit() {
+    return resultSizeLimit;
+  }
+
+  /**
+   * Gets the time in milliseconds after which an execution of this statement is considered slow.
+   *
+   * @return the slow query threshold, or {@code null} to use {@code Configuration#getDefaultSlowQueryThreshold()}
+   *
+   * @since 3.5.14
+   */
+  public Integer getSlowQueryThreshold() {
+    return slowQueryThreshold;
+  }
+
+  /**
+   * Gets the tags this statement reads or writes when its cache uses {@link CacheInvalidation#TAG}. A tag is a table,
+   * such as {@code blog}, or an entity key of a table, such as {@code blog:{id}} where {@code id} is a parameter
+   * property.
+   *
+   * @return the declared cache tags, or {@code null} to infer the tables from the SQL
+   *
+   * @since 3.5.14
+   */
+  public String[] getCacheTags() {
+    return cacheTags;
+  }
+
+  /**
+   * Gets the tables inferred from the SQL of this statement, remembered when the SQL does not depend on the parameter.
+   *
+   * @return the inferred tables, or {@code null} if they have not been inferred or the SQL is dynamic
+   *
+   * @since 3.5.14
+   */
+  public Set<String> getInferredCacheTags() {
+    return inferredCacheTags;
+  }
+
+  public void setInferredCacheTags(Set<String> inferredCacheTags) {
+    this.inferredCacheTags = inferredCacheTags;
+  }
+
   /**
    * Gets the resul sets.
    *
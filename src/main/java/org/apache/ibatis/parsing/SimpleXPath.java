@@ -0,0 +1,146 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * 简单路径表达式的快速求值器。
+ * <p>
+ * 映射文件解析时使用的绝大多数XPath表达式都只是元素名组成的路径（如 {@code /configuration/mappers}、
+ * {@code select|insert|update|delete}），直接遍历DOM子节点即可得到结果，无需经过javax.xml.xpath的编译和求值。
+ * 无法识别的表达式返回 {@code null}，由调用方回退到标准XPath。
+ */
+final class SimpleXPath {
+
+  private static final Pattern NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.\\-]*|\\*");
+
+  /**
+   * 表达式缓存的最大条目数，超出后不再缓存新表达式
+   */
+  private static final int MAX_CACHED_EXPRESSIONS = 512;
+
+  /**
+   * 不能快速求值的表达式的占位对象
+   */
+  private static final SimpleXPath NOT_SIMPLE = new SimpleXPath(false, new Set[0]);
+
+  private static final Map<String, SimpleXPath> CACHE = new ConcurrentHashMap<>();
+
+  /**
+   * 是否从文档根开始匹配
+   */
+  private final boolean absolute;
+
+  /**
+   * 每一步允许的元素名集合，{@code null} 表示匹配任意元素
+   */
+  private final Set<String>[] steps;
+
+  private SimpleXPath(boolean absolute, Set<String>[] steps) {
+    this.absolute = absolute;
+    this.steps = steps;
+  }
+
+  /**
+   * 对 root 求值表达式，表达式不是简单路径时返回 {@code null}。
+   */
+  static List<Node> evaluate(Object root, String expression) {
+    if (!(root instanceof Node)) {
+      return null;
+    }
+    SimpleXPath path = CACHE.get(expression);
+    if (path == null) {
+      path = compile(expression);
+      if (CACHE.size() < MAX_CACHED_EXPRESSIONS) {
+        CACHE.putIfAbsent(expression, path);
+      }
+    }
+    return path == NOT_SIMPLE ? null : path.select((Node) root);
+  }
+
+  @SuppressWarnings("unchecked")
+  static SimpleXPath compile(String expression) {
+    String path = expression.trim();
+    boolean absolute = path.startsWith("/");
+    if (absolute) {
+      path = path.substring(1);
+    }
+    if (path.isEmpty()) {
+      return NOT_SIMPLE;
+    }
+    String[] parts = path.split("/", -1);
+    Set<String>[] steps = new Set[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      String[] names = parts[i].split("\\|", -1);
+      // 只有单步表达式允许使用 "|"，多步的并集需要按文档顺序合并，交给XPath处理
+      if (names.length > 1 && parts.length > 1) {
+        return NOT_SIMPLE;
+      }
+      Set<String> step = new HashSet<>();
+      for (String name : names) {
+        name = name.trim();
+        if (!NAME.matcher(name).matches()) {
+          return NOT_SIMPLE;
+        }
+        if ("*".equals(name)) {
+          step = null;
+          break;
+        }
+        step.add(name);
+      }
+      steps[i] = step;
+    }
+    return new SimpleXPath(absolute, steps);
+  }
+
+  private List<Node> select(Node root) {
+    List<Node> current = new ArrayList<>(1);
+    if (absolute && root.getNodeType() != Node.DOCUMENT_NODE) {
+      Document document = root.getOwnerDocument();
+      if (document == null) {
+        return null;
+      }
+      current.add(document);
+    } else {
+      current.add(root);
+    }
+    for (Set<String> step : steps) {
+      List<Node> next = new ArrayList<>();
+      for (Node parent : current) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+          if (child.getNodeType() == Node.ELEMENT_NODE && (step == null || step.contains(child.getNodeName()))) {
+            next.add(child);
+          }
+        }
+      }
+      if (next.isEmpty()) {
+        return next;
+      }
+      current = next;
+    }
+    return current;
+  }
+}
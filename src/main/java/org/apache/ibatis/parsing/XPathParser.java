@@ -223,6 +223,13 @@ public class XPathParser {
 
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    List<Node> simple = SimpleXPath.evaluate(root, expression);
+    if (simple != null) {
+      for (Node node : simple) {
+        xnodes.add(new XNode(this, node, variables));
+      }
+      return xnodes;
+    }
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
     for (int i = 0; i < nodes.getLength(); i++) {
       xnodes.add(new XNode(this, nodes.item(i), variables));
@@ -235,7 +242,13 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    List<Node> simple = SimpleXPath.evaluate(root, expression);
+    Node node;
+    if (simple != null) {
+      node = simple.isEmpty() ? null : simple.get(0);
+    } else {
+      node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    }
     if (node == null) {
       return null;
     }
@@ -0,0 +1,143 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * 将多个拦截器合并到同一个代理对象中。
+ * <p>
+ * 每个目标类型对应的 {@link Dispatch} 只计算一次：需要代理的接口，以及每个方法依次经过的拦截器。调用时只需一次查表，未被拦截的方法直接调用目标对象，不再逐层经过每个拦截器的代理。
+ */
+final class ComposedPlugin implements InvocationHandler {
+
+  private final Object target;
+  private final Dispatch dispatch;
+
+  private ComposedPlugin(Object target, Dispatch dispatch) {
+    this.target = target;
+    this.dispatch = dispatch;
+  }
+
+  static Object wrap(Object target, Dispatch dispatch) {
+    if (dispatch.interfaces.length == 0) {
+      return target;
+    }
+    return Proxy.newProxyInstance(target.getClass().getClassLoader(), dispatch.interfaces,
+        new ComposedPlugin(target, dispatch));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    Interceptor[] chain = dispatch.chains.get(method);
+    try {
+      if (chain == null) {
+        return method.invoke(target, args);
+      }
+      return chain[0].intercept(new ChainedInvocation(target, method, args, chain, 1));
+    } catch (Exception e) {
+      throw ExceptionUtil.unwrapThrowable(e);
+    }
+  }
+
+  /**
+   * 一组拦截器作用在某个目标类型上时的分派表
+   */
+  static final class Dispatch {
+
+    private final Class<?>[] interfaces;
+
+    /**
+     * 方法到拦截器链的映射，按调用顺序排列（最后注册的拦截器最先执行，与逐层代理的顺序一致）
+     */
+    private final Map<Method, Interceptor[]> chains;
+
+    Dispatch(List<Interceptor> interceptors, Class<?> type) {
+      Set<Class<?>> interfaceSet = new LinkedHashSet<>();
+      for (Interceptor interceptor : interceptors) {
+        Collections.addAll(interfaceSet, Plugin.getAllInterfaces(interceptor, type));
+      }
+      Map<Method, Interceptor[]> chainMap = new HashMap<>();
+      for (Class<?> iface : interfaceSet) {
+        for (Method method : iface.getMethods()) {
+          List<Interceptor> chain = new ArrayList<>();
+          for (int i = interceptors.size() - 1; i >= 0; i--) {
+            Interceptor interceptor = interceptors.get(i);
+            Set<Method> methods = Plugin.getSignatureMap(interceptor).get(method.getDeclaringClass());
+            if (methods != null && methods.contains(method)
+                && isProxied(Plugin.getAllInterfaces(interceptor, type), method)) {
+              chain.add(interceptor);
+            }
+          }
+          if (!chain.isEmpty()) {
+            chainMap.put(method, chain.toArray(new Interceptor[0]));
+          }
+        }
+      }
+      this.interfaces = interfaceSet.toArray(new Class<?>[0]);
+      this.chains = chainMap;
+    }
+
+    private static boolean isProxied(Class<?>[] interfaces, Method method) {
+      for (Class<?> iface : interfaces) {
+        if (method.getDeclaringClass().isAssignableFrom(iface)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * proceed()时调用链中的下一个拦截器，最后一个拦截器之后调用目标对象
+   */
+  private static final class ChainedInvocation extends Invocation {
+
+    private final Interceptor[] chain;
+    private final int next;
+
+    ChainedInvocation(Object target, Method method, Object[] args, Interceptor[] chain, int next) {
+      super(target, method, args);
+      this.chain = chain;
+      this.next = next;
+    }
+
+    @Override
+    public Object proceed() throws InvocationTargetException, IllegalAccessException {
+      if (next == chain.length) {
+        return super.proceed();
+      }
+      try {
+        return chain[next].intercept(new ChainedInvocation(getTarget(), getMethod(), getArgs(), chain, next + 1));
+      } catch (Throwable t) {
+        // 与逐层代理时一样，内层拦截器抛出的异常以InvocationTargetException的形式出现在外层
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+}
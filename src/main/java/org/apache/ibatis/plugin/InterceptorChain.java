@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2022 the original author or authors.
+ *    Copyright 2009-2023 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 责任链模式 - 拦截器执行链
@@ -30,10 +32,29 @@ public class InterceptorChain {
    */
   private final List<Interceptor> interceptors = new ArrayList<>();
 
+  /**
+   * 是否将所有拦截器合并到一个代理对象中
+   */
+  private boolean composed;
+
+  /**
+   * 所有拦截器都可以合并时为true
+   */
+  private boolean composable = true;
+
+  /**
+   * 目标类型对应的分派表
+   */
+  private final Map<Class<?>, ComposedPlugin.Dispatch> dispatches = new ConcurrentHashMap<>();
+
   /**
    * 遍历interceptors
    */
   public Object pluginAll(Object target) {
+    if (composed && composable && !interceptors.isEmpty()) {
+      return ComposedPlugin.wrap(target, dispatches.computeIfAbsent(target.getClass(),
+          type -> new ComposedPlugin.Dispatch(new ArrayList<>(interceptors), type)));
+    }
     // 遍历interceptors集合
     for (Interceptor interceptor : interceptors) {
       // 调用Interceptor.plugin()方法
@@ -44,6 +65,36 @@ public class InterceptorChain {
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    // 自定义了plugin()方法的拦截器无法合并
+    composable &= !overridesPlugin(interceptor.getClass());
+    dispatches.clear();
+  }
+
+  /**
+   * Returns whether all interceptors are applied through a single composed proxy.
+   *
+   * @return {@code true} if interceptors are composed
+   *
+   * @since 3.5.14
+   */
+  public boolean isComposed() {
+    return composed;
+  }
+
+  /**
+   * Sets whether all interceptors are applied through a single composed proxy instead of wrapping the target once per
+   * interceptor. The proxied interfaces and the interceptors of each method are resolved once per target type. The
+   * interceptors are called in the same order, but {@link Invocation#getTarget()} always returns the original target
+   * instead of the proxy created by the previous interceptor. Interceptors that override
+   * {@link Interceptor#plugin(Object)} cannot be composed; if there are any, every interceptor is applied separately.
+   *
+   * @param composed
+   *          {@code true} to compose interceptors
+   *
+   * @since 3.5.14
+   */
+  public void setComposed(boolean composed) {
+    this.composed = composed;
   }
 
   public List<Interceptor> getInterceptors() {
@@ -51,4 +102,12 @@ public class InterceptorChain {
     return Collections.unmodifiableList(interceptors);
   }
 
+  private static boolean overridesPlugin(Class<?> type) {
+    try {
+      return type.getMethod("plugin", Object.class).getDeclaringClass() != Interceptor.class;
+    } catch (NoSuchMethodException e) {
+      return true;
+    }
+  }
+
 }
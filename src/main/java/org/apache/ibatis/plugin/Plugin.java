@@ -18,10 +18,12 @@ package org.apache.ibatis.plugin;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.util.MapUtil;
@@ -47,6 +49,26 @@ public class Plugin implements InvocationHandler {
    */
   private final Map<Class<?>, Set<Method>> signatureMap;
 
+  /**
+   * 按拦截器类型缓存解析好的@Signature信息，注解在运行期不会变化，不必每次创建代理时都重新解析
+   */
+  private static final ClassValue<Map<Class<?>, Set<Method>>> SIGNATURE_MAPS = new ClassValue<Map<Class<?>, Set<Method>>>() {
+    @Override
+    protected Map<Class<?>, Set<Method>> computeValue(Class<?> type) {
+      return resolveSignatureMap(type);
+    }
+  };
+
+  /**
+   * 按拦截器类型和目标类型缓存需要代理的接口
+   */
+  private static final ClassValue<Map<Class<?>, Class<?>[]>> INTERFACES = new ClassValue<Map<Class<?>, Class<?>[]>>() {
+    @Override
+    protected Map<Class<?>, Class<?>[]> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
   private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
     this.target = target;
     this.interceptor = interceptor;
@@ -60,7 +82,7 @@ public class Plugin implements InvocationHandler {
     // 获取目标类型
     Class<?> type = target.getClass();
     // 使用JDK动态代理的方式创建代理对象的基础
-    Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
+    Class<?>[] interfaces = getAllInterfaces(interceptor, type);
     if (interfaces.length > 0) {
       // 使用JDK动态代理的方式创建动态对象
       return Proxy.newProxyInstance(type.getClassLoader(), interfaces, new Plugin(target, interceptor, signatureMap));
@@ -81,12 +103,20 @@ public class Plugin implements InvocationHandler {
     }
   }
 
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
-    Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
+  static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
+    return SIGNATURE_MAPS.get(interceptor.getClass());
+  }
+
+  static Class<?>[] getAllInterfaces(Interceptor interceptor, Class<?> type) {
+    return INTERFACES.get(interceptor.getClass()).computeIfAbsent(type,
+        k -> getAllInterfaces(k, getSignatureMap(interceptor)));
+  }
+
+  private static Map<Class<?>, Set<Method>> resolveSignatureMap(Class<?> interceptorType) {
+    Intercepts interceptsAnnotation = interceptorType.getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
-      throw new PluginException(
-          "No @Intercepts annotation was found in interceptor " + interceptor.getClass().getName());
+      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorType.getName());
     }
     Signature[] sigs = interceptsAnnotation.value();
     Map<Class<?>, Set<Method>> signatureMap = new HashMap<>();
@@ -100,7 +130,8 @@ public class Plugin implements InvocationHandler {
             e);
       }
     }
-    return signatureMap;
+    signatureMap.replaceAll((type, methods) -> Collections.unmodifiableSet(methods));
+    return Collections.unmodifiableMap(signatureMap);
   }
 
   private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
@@ -60,7 +60,10 @@ public class DefaultParameterHandler implements ParameterHandler {
 
   @Override
   public void setParameters(PreparedStatement ps) {
-    ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
+    if (!configuration.isSessionErrorContext()) {
+      // 开启sessionErrorContext时由StatementHandler记录到会话的错误上下文中
+      ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
+    }
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
       MetaObject metaObject = null;
@@ -0,0 +1,370 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import ognl.ASTAnd;
+import ognl.ASTChain;
+import ognl.ASTConst;
+import ognl.ASTEq;
+import ognl.ASTGreater;
+import ognl.ASTGreaterEq;
+import ognl.ASTLessEq;
+import ognl.ASTMethod;
+import ognl.ASTNot;
+import ognl.ASTNotEq;
+import ognl.ASTOr;
+import ognl.ASTProperty;
+import ognl.Node;
+import ognl.OgnlOps;
+
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+
+/**
+ * 将OGNL解析得到的语法树编译为不依赖OGNL上下文的表达式，只支持动态SQL中常用的语法：属性路径、常量、比较运算、
+ * and/or/not以及无参的size()、isEmpty()、length()方法。运算语义与OGNL保持一致（比较运算直接使用OgnlOps），
+ * 属性通过所属Configuration的ReflectorFactory缓存的getter方法直接读取。编译失败或者运行时遇到无法直接处理的情况时，
+ * 由OgnlCache回退到OGNL执行；getter方法本身抛出的异常不会回退，避免同一个getter被调用两次
+ */
+abstract class CompiledExpression {
+
+  /**
+   * 无法编译的表达式，总是回退到OGNL执行
+   */
+  static final CompiledExpression NOT_COMPILABLE = new CompiledExpression() {
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      throw Fallback.INSTANCE;
+    }
+  };
+
+  /**
+   * 以ContextMap为根对象求值，读取属性时使用其所属Configuration的ReflectorFactory
+   */
+  final Object getValue(Object root) {
+    ReflectorFactory reflectorFactory = root instanceof DynamicContext.ContextMap
+        ? ((DynamicContext.ContextMap) root).getReflectorFactory() : null;
+    return getValue(root, reflectorFactory);
+  }
+
+  abstract Object getValue(Object source, ReflectorFactory reflectorFactory);
+
+  static CompiledExpression compile(Object tree) {
+    CompiledExpression expression = compileNode((Node) tree);
+    return expression == null ? NOT_COMPILABLE : expression;
+  }
+
+  private static CompiledExpression compileNode(Node node) {
+    if (node instanceof ASTConst) {
+      return new Const(((ASTConst) node).getValue());
+    }
+    if (node instanceof ASTProperty) {
+      return compileProperty((ASTProperty) node);
+    }
+    if (node instanceof ASTMethod) {
+      String methodName = ((ASTMethod) node).getMethodName();
+      return node.jjtGetNumChildren() == 0 && Method.isSupported(methodName) ? new Method(methodName) : null;
+    }
+    if (node instanceof ASTNot) {
+      CompiledExpression[] children = compileChildren(node);
+      return children == null || children.length != 1 ? null : new Not(children[0]);
+    }
+    if (node instanceof ASTChain || node instanceof ASTAnd || node instanceof ASTOr) {
+      CompiledExpression[] children = compileChildren(node);
+      if (children == null) {
+        return null;
+      }
+      if (node instanceof ASTChain) {
+        return new Chain(children);
+      }
+      return new Logical(node instanceof ASTAnd, children);
+    }
+    Operator operator = Operator.of(node);
+    if (operator != null) {
+      CompiledExpression[] children = compileChildren(node);
+      return children == null || children.length != 2 ? null : new Comparison(operator, children[0], children[1]);
+    }
+    return null;
+  }
+
+  private static CompiledExpression compileProperty(ASTProperty property) {
+    if (property.isIndexedAccess() || property.jjtGetNumChildren() != 1
+        || !(property.jjtGetChild(0) instanceof ASTConst)) {
+      return null;
+    }
+    Object name = ((ASTConst) property.jjtGetChild(0)).getValue();
+    return name instanceof String ? new Property((String) name) : null;
+  }
+
+  private static CompiledExpression[] compileChildren(Node node) {
+    CompiledExpression[] children = new CompiledExpression[node.jjtGetNumChildren()];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = compileNode(node.jjtGetChild(i));
+      if (children[i] == null) {
+        return null;
+      }
+    }
+    return children;
+  }
+
+  /**
+   * 运行时无法直接处理当前表达式时抛出，不记录异常栈
+   */
+  static final class Fallback extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private static final Fallback INSTANCE = new Fallback();
+
+    private Fallback() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * 属性的getter方法抛出了异常，cause为getter方法抛出的异常
+   */
+  static final class InvocationFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    InvocationFailure(Throwable cause) {
+      super(cause);
+    }
+  }
+
+  private static final class Const extends CompiledExpression {
+    private final Object value;
+
+    Const(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      return value;
+    }
+  }
+
+  private static final class Property extends CompiledExpression {
+    private final String name;
+
+    Property(String name) {
+      this.name = name;
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      if (source instanceof DynamicContext.ContextMap) {
+        // 与DynamicContext.ContextAccessor的逻辑相同
+        Map<String, Object> map = (Map<String, Object>) source;
+        Object result = map.get(name);
+        if (result != null || map.containsKey(name)) {
+          return result;
+        }
+        Object parameterObject = map.get(DynamicContext.PARAMETER_OBJECT_KEY);
+        return parameterObject instanceof Map ? ((Map<?, ?>) parameterObject).get(name) : null;
+      }
+      if (source instanceof Map) {
+        // OGNL会将Map的size、keys、keySet、values、isEmpty属性解析为对应的方法调用
+        if ("size".equals(name) || "keys".equals(name) || "keySet".equals(name) || "values".equals(name)
+            || "isEmpty".equals(name)) {
+          throw Fallback.INSTANCE;
+        }
+        return ((Map<?, ?>) source).get(name);
+      }
+      if (source == null || reflectorFactory == null || source instanceof Collection || source instanceof Iterator
+          || source.getClass().isArray()) {
+        throw Fallback.INSTANCE;
+      }
+      Reflector reflector = reflectorFactory.findForClass(source.getClass());
+      if (!reflector.hasGetter(name)) {
+        throw Fallback.INSTANCE;
+      }
+      Invoker invoker = reflector.getGetInvoker(name);
+      if (!(invoker instanceof MethodInvoker)) {
+        throw Fallback.INSTANCE;
+      }
+      try {
+        return invoker.invoke(source, null);
+      } catch (InvocationTargetException e) {
+        throw new InvocationFailure(e.getTargetException());
+      } catch (IllegalAccessException e) {
+        throw Fallback.INSTANCE;
+      }
+    }
+  }
+
+  private static final class Method extends CompiledExpression {
+    private final String name;
+
+    Method(String name) {
+      this.name = name;
+    }
+
+    static boolean isSupported(String name) {
+      return "size".equals(name) || "isEmpty".equals(name) || "length".equals(name);
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      if ("size".equals(name)) {
+        if (source instanceof Collection) {
+          return ((Collection<?>) source).size();
+        }
+        if (source instanceof Map) {
+          return ((Map<?, ?>) source).size();
+        }
+      } else if ("isEmpty".equals(name)) {
+        if (source instanceof Collection) {
+          return ((Collection<?>) source).isEmpty();
+        }
+        if (source instanceof Map) {
+          return ((Map<?, ?>) source).isEmpty();
+        }
+        if (source instanceof String) {
+          return ((String) source).isEmpty();
+        }
+      } else if (source instanceof CharSequence) {
+        return ((CharSequence) source).length();
+      }
+      throw Fallback.INSTANCE;
+    }
+  }
+
+  private static final class Chain extends CompiledExpression {
+    private final CompiledExpression[] children;
+
+    Chain(CompiledExpression[] children) {
+      this.children = children;
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      Object result = source;
+      for (CompiledExpression child : children) {
+        result = child.getValue(result, reflectorFactory);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * 与OGNL一样，and/or返回最后一个被计算的子表达式的值，而不是Boolean
+   */
+  private static final class Logical extends CompiledExpression {
+    private final boolean and;
+    private final CompiledExpression[] children;
+
+    Logical(boolean and, CompiledExpression[] children) {
+      this.and = and;
+      this.children = children;
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      Object result = null;
+      for (CompiledExpression child : children) {
+        result = child.getValue(source, reflectorFactory);
+        if (OgnlOps.booleanValue(result) != and) {
+          break;
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Not extends CompiledExpression {
+    private final CompiledExpression child;
+
+    Not(CompiledExpression child) {
+      this.child = child;
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      return OgnlOps.booleanValue(child.getValue(source, reflectorFactory)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  private enum Operator {
+    EQ, NOT_EQ, LESS, LESS_EQ, GREATER, GREATER_EQ;
+
+    static Operator of(Node node) {
+      if (node instanceof ASTEq) {
+        return EQ;
+      }
+      if (node instanceof ASTNotEq) {
+        return NOT_EQ;
+      }
+      if (node instanceof ASTLessEq) {
+        return LESS_EQ;
+      }
+      if (node instanceof ASTGreater) {
+        return GREATER;
+      }
+      if (node instanceof ASTGreaterEq) {
+        return GREATER_EQ;
+      }
+      // ognl.ASTLess不是public类
+      if ("ognl.ASTLess".equals(node.getClass().getName())) {
+        return LESS;
+      }
+      return null;
+    }
+
+    boolean apply(Object v1, Object v2) {
+      switch (this) {
+        case EQ:
+          return OgnlOps.equal(v1, v2);
+        case NOT_EQ:
+          return !OgnlOps.equal(v1, v2);
+        case LESS:
+          return OgnlOps.less(v1, v2);
+        case LESS_EQ:
+          return !OgnlOps.greater(v1, v2);
+        case GREATER:
+          return OgnlOps.greater(v1, v2);
+        default:
+          return !OgnlOps.less(v1, v2);
+      }
+    }
+  }
+
+  private static final class Comparison extends CompiledExpression {
+    private final Operator operator;
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+
+    Comparison(Operator operator, CompiledExpression left, CompiledExpression right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object getValue(Object source, ReflectorFactory reflectorFactory) {
+      Object v1 = left.getValue(source, reflectorFactory);
+      Object v2 = right.getValue(source, reflectorFactory);
+      return operator.apply(v1, v2) ? Boolean.TRUE : Boolean.FALSE;
+    }
+  }
+
+}
@@ -17,13 +17,13 @@ package org.apache.ibatis.scripting.xmltags;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.StringJoiner;
 
 import ognl.OgnlContext;
 import ognl.OgnlRuntime;
 import ognl.PropertyAccessor;
 
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -45,9 +45,9 @@ public class DynamicContext {
   private final ContextMap bindings;
 
   /**
-   * 在SqlNode解析动态SQL时，会将解析后的SQL语句片段添加到该属性中保存，最终拼凑出一条完整的SQL语句
+   * 在SqlNode解析动态SQL时，会将解析后的SQL语句片段以空格分隔添加到该属性中保存，最终拼凑出一条完整的SQL语句
    */
-  private final StringJoiner sqlBuilder = new StringJoiner(" ");
+  private final SqlFragments sqlBuilder = new SqlFragments(" ");
   private int uniqueNumber;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
@@ -55,9 +55,10 @@ public class DynamicContext {
       // 对于非Map类型的参数，会创建对应的MetaObject对象，并封装成ContextMap对象
       MetaObject metaObject = configuration.newMetaObject(parameterObject);
       boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
-      bindings = new ContextMap(metaObject, existsTypeHandler);
+      bindings = new ContextMap(metaObject, existsTypeHandler, configuration.getOgnlCache(),
+          configuration.getReflectorFactory());
     } else {
-      bindings = new ContextMap(null, false);
+      bindings = new ContextMap(null, false, configuration.getOgnlCache(), configuration.getReflectorFactory());
     }
     // 将<PARAMETER_OBJECT_KEY, parameterObject>这一对应关系添加到bindings集合中,
     // 其中PARAMETER_OBJECT_KEY的值是"_parameter"，在有的SqlNode实现中直接使用了该字面值
@@ -77,14 +78,14 @@ public class DynamicContext {
    * 追加SQL片段
    */
   public void appendSql(String sql) {
-    sqlBuilder.add(sql);
+    sqlBuilder.append(sql);
   }
 
   /**
    * 获取解析后完整的SQL
    */
   public String getSql() {
-    return sqlBuilder.toString().trim();
+    return sqlBuilder.substring(sqlBuilder.trimStart(), sqlBuilder.trimEnd());
   }
 
   public int getUniqueNumber() {
@@ -103,9 +104,42 @@ public class DynamicContext {
     private final MetaObject parameterMetaObject;
     private final boolean fallbackParameterObject;
 
+    /**
+     * 所属Configuration的OGNL表达式缓存
+     */
+    private final OgnlCache ognlCache;
+
+    /**
+     * 所属Configuration的ReflectorFactory，编译后的OGNL表达式通过它读取属性
+     */
+    private final ReflectorFactory reflectorFactory;
+
+    /**
+     * 使用不属于任何Configuration的共享OGNL表达式缓存
+     */
     public ContextMap(MetaObject parameterMetaObject, boolean fallbackParameterObject) {
+      this(parameterMetaObject, fallbackParameterObject, OgnlCache.SHARED);
+    }
+
+    public ContextMap(MetaObject parameterMetaObject, boolean fallbackParameterObject, OgnlCache ognlCache) {
+      this(parameterMetaObject, fallbackParameterObject, ognlCache,
+          parameterMetaObject == null ? null : parameterMetaObject.getReflectorFactory());
+    }
+
+    public ContextMap(MetaObject parameterMetaObject, boolean fallbackParameterObject, OgnlCache ognlCache,
+        ReflectorFactory reflectorFactory) {
       this.parameterMetaObject = parameterMetaObject;
       this.fallbackParameterObject = fallbackParameterObject;
+      this.ognlCache = ognlCache;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    public OgnlCache getOgnlCache() {
+      return ognlCache;
+    }
+
+    public ReflectorFactory getReflectorFactory() {
+      return reflectorFactory;
     }
 
     /**
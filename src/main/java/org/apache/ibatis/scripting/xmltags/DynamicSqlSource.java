@@ -15,9 +15,17 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -29,9 +37,19 @@ public class DynamicSqlSource implements SqlSource {
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
 
+  /**
+   * 缓存解析后的StaticSqlSource，key由生成的SQL语句、参数类型以及各个绑定变量的类型组成，
+   * 相同形态的SQL语句不需要再次解析“#{}”占位符及ParameterMapping。为null时表示未开启缓存
+   */
+  private final Map<ShapeKey, SqlSource> shapeCache;
+  private final int shapeCacheSize;
+
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
     this.rootSqlNode = rootSqlNode;
+    Integer cacheSize = configuration.getDynamicSqlShapeCacheSize();
+    this.shapeCacheSize = cacheSize == null ? 0 : cacheSize;
+    this.shapeCache = shapeCacheSize > 0 ? new ConcurrentHashMap<>() : null;
   }
 
   /**
@@ -41,12 +59,86 @@ public class DynamicSqlSource implements SqlSource {
   public BoundSql getBoundSql(Object parameterObject) {
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     rootSqlNode.apply(context);
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    SqlSource sqlSource = shapeCache == null ? parse(context, parameterType) : getOrParse(context, parameterType);
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     context.getBindings().forEach(boundSql::setAdditionalParameter);
     return boundSql;
   }
 
+  private SqlSource parse(DynamicContext context, Class<?> parameterType) {
+    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+    return sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+  }
+
+  private SqlSource getOrParse(DynamicContext context, Class<?> parameterType) {
+    Map<String, Object> bindings = context.getBindings();
+    ShapeKey key = new ShapeKey(context.getSql(), parameterType, bindings);
+    SqlSource sqlSource = shapeCache.get(key);
+    if (sqlSource == null) {
+      sqlSource = new SqlSourceBuilder(configuration).parse(key.sql, parameterType, bindings);
+      // 缓存满了之后不再添加新的形态，已经缓存的形态不受影响
+      if (shapeCache.size() < shapeCacheSize && isCacheable(sqlSource, bindings)) {
+        shapeCache.putIfAbsent(key, sqlSource);
+      }
+    }
+    return sqlSource;
+  }
+
+  /**
+   * ParameterMapping的类型是根据绑定变量推断出来的。只有一层的嵌套属性（如foreach中的“item.name”）由绑定变量的类型决定，
+   * 而更深的嵌套属性、下标访问或者Map、集合、数组类型的绑定变量，其类型取决于运行时的值，这些情况下不能缓存
+   */
+  private static boolean isCacheable(SqlSource sqlSource, Map<String, Object> bindings) {
+    for (ParameterMapping parameterMapping : sqlSource.getBoundSql(null).getParameterMappings()) {
+      PropertyTokenizer prop = new PropertyTokenizer(parameterMapping.getProperty());
+      if (prop.getChildren() == null || !bindings.containsKey(prop.getName())) {
+        continue;
+      }
+      Object root = bindings.get(prop.getName());
+      if (prop.getIndex() != null || prop.next().getChildren() != null || root instanceof Map
+          || root instanceof Collection || root != null && root.getClass().isArray()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class ShapeKey {
+
+    private final String sql;
+    private final Class<?> parameterType;
+    private final Map<String, Class<?>> bindingTypes;
+    private final int hashCode;
+
+    ShapeKey(String sql, Class<?> parameterType, Map<String, Object> bindings) {
+      this.sql = sql;
+      this.parameterType = parameterType;
+      this.bindingTypes = new HashMap<>((int) (bindings.size() / 0.75f) + 1);
+      for (Map.Entry<String, Object> entry : bindings.entrySet()) {
+        Object value = entry.getValue();
+        bindingTypes.put(entry.getKey(), value == null ? null : value.getClass());
+      }
+      this.hashCode = Objects.hash(sql, parameterType, bindingTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ShapeKey)) {
+        return false;
+      }
+      ShapeKey other = (ShapeKey) obj;
+      return hashCode == other.hashCode && parameterType.equals(other.parameterType) && sql.equals(other.sql)
+          && bindingTypes.equals(other.bindingTypes);
+    }
+  }
+
 }
@@ -29,7 +29,7 @@ import org.apache.ibatis.builder.BuilderException;
 public class ExpressionEvaluator {
 
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = OgnlCache.evaluate(expression, parameterObject);
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -51,7 +51,7 @@ public class ExpressionEvaluator {
    * @since 3.5.9
    */
   public Iterable<?> evaluateIterable(String expression, Object parameterObject, boolean nullable) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = OgnlCache.evaluate(expression, parameterObject);
     if (value == null) {
       if (nullable) {
         return null;
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.builder.BuilderException;
+
+/**
+ * <foreach>节点的padding属性，将迭代次数向上取整到固定的几个长度，不足的部分重复最后一个元素，
+ * 从而使IN列表生成的SQL语句只有少数几种形态，便于Statement重用、数据库执行计划缓存以及CacheKey的复用。
+ * 支持两种写法：pow2表示取整到下一个2的幂；以逗号分隔的升序长度列表(例如10,50,100)表示取整到下一个不小于元素个数的长度，
+ * 超过最大长度时取整到最大长度的整数倍
+ *
+ * @since 3.5.14
+ */
+public final class ForEachPadding {
+
+  public static final String POWER_OF_TWO = "pow2";
+
+  private static final ForEachPadding POWER_OF_TWO_PADDING = new ForEachPadding(null);
+
+  /**
+   * 升序排列的长度，为null时表示取整到2的幂
+   */
+  private final int[] buckets;
+
+  private ForEachPadding(int[] buckets) {
+    this.buckets = buckets;
+  }
+
+  /**
+   * Parses the value of the {@code padding} attribute.
+   *
+   * @param padding
+   *          {@code pow2}, a comma separated list of bucket sizes or {@code null}
+   *
+   * @return the padding, or {@code null} if padding is disabled
+   */
+  public static ForEachPadding parse(String padding) {
+    if (padding == null || padding.trim().isEmpty()) {
+      return null;
+    }
+    if (POWER_OF_TWO.equalsIgnoreCase(padding.trim())) {
+      return POWER_OF_TWO_PADDING;
+    }
+    String[] values = padding.split(",");
+    int[] buckets = new int[values.length];
+    try {
+      for (int i = 0; i < values.length; i++) {
+        buckets[i] = Integer.parseInt(values[i].trim());
+        if (buckets[i] < 1 || i > 0 && buckets[i] <= buckets[i - 1]) {
+          throw new BuilderException("Invalid foreach padding '" + padding
+              + "'. Bucket sizes must be positive and in ascending order.");
+        }
+      }
+    } catch (NumberFormatException e) {
+      throw new BuilderException(
+          "Invalid foreach padding '" + padding + "'. Expected '" + POWER_OF_TWO + "' or comma separated sizes.", e);
+    }
+    return new ForEachPadding(buckets);
+  }
+
+  /**
+   * 计算size个元素填充之后的长度
+   */
+  public int pad(int size) {
+    if (size <= 1) {
+      return size;
+    }
+    if (buckets == null) {
+      int highest = Integer.highestOneBit(size);
+      return highest == size || highest == 1 << 30 ? size : highest << 1;
+    }
+    for (int bucket : buckets) {
+      if (size <= bucket) {
+        return bucket;
+      }
+    }
+    int largest = buckets[buckets.length - 1];
+    int remainder = size % largest;
+    return remainder == 0 ? size : size + largest - remainder;
+  }
+
+  @Override
+  public String toString() {
+    return buckets == null ? POWER_OF_TWO : Arrays.toString(buckets);
+  }
+
+}
@@ -66,6 +66,11 @@ public class ForEachSqlNode implements SqlNode {
   private final String item;
   private final String index;
 
+  /**
+   * 迭代次数的填充方式，为null时不进行填充
+   */
+  private final ForEachPadding padding;
+
   /**
    * 全局配置对象
    */
@@ -86,6 +91,14 @@ public class ForEachSqlNode implements SqlNode {
    */
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, Boolean nullable,
       String index, String item, String open, String close, String separator) {
+    this(configuration, contents, collectionExpression, nullable, index, item, open, close, separator, null);
+  }
+
+  /**
+   * @since 3.5.14
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, Boolean nullable,
+      String index, String item, String open, String close, String separator, ForEachPadding padding) {
     this.evaluator = new ExpressionEvaluator();
     this.collectionExpression = collectionExpression;
     this.nullable = nullable;
@@ -95,6 +108,7 @@ public class ForEachSqlNode implements SqlNode {
     this.separator = separator;
     this.index = index;
     this.item = item;
+    this.padding = padding;
     this.configuration = configuration;
   }
 
@@ -109,37 +123,57 @@ public class ForEachSqlNode implements SqlNode {
     boolean first = true;
     applyOpen(context);
     int i = 0;
+    Object last = null;
     for (Object o : iterable) {
-      DynamicContext oldContext = context;
-      if (first || separator == null) {
-        context = new PrefixedContext(context, "");
-      } else {
-        context = new PrefixedContext(context, separator);
-      }
-      int uniqueNumber = context.getUniqueNumber();
-      // Issue #709
-      if (o instanceof Map.Entry) {
-        @SuppressWarnings("unchecked")
-        Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-        applyIndex(context, mapEntry.getKey(), uniqueNumber);
-        applyItem(context, mapEntry.getValue(), uniqueNumber);
-      } else {
-        applyIndex(context, i, uniqueNumber);
-        applyItem(context, o, uniqueNumber);
-      }
-      contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
-      if (first) {
-        first = !((PrefixedContext) context).isPrefixApplied();
-      }
-      context = oldContext;
+      first = applyElement(context, o, i, first);
+      last = o;
       i++;
     }
+    if (padding != null) {
+      // 重复最后一个元素，直到迭代次数达到填充后的长度
+      for (int size = padding.pad(i); i < size; i++) {
+        first = applyElement(context, last, i, first);
+      }
+    }
     applyClose(context);
     context.getBindings().remove(item);
     context.getBindings().remove(index);
     return true;
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  /**
+   * 创建一个迭代配置相同，但子节点不同的ForEachSqlNode
+   */
+  ForEachSqlNode withContents(SqlNode contents) {
+    return new ForEachSqlNode(configuration, contents, collectionExpression, nullable, index, item, open, close,
+        separator, padding);
+  }
+
+  private boolean applyElement(DynamicContext context, Object o, int i, boolean first) {
+    if (first || separator == null) {
+      context = new PrefixedContext(context, "");
+    } else {
+      context = new PrefixedContext(context, separator);
+    }
+    int uniqueNumber = context.getUniqueNumber();
+    // Issue #709
+    if (o instanceof Map.Entry) {
+      @SuppressWarnings("unchecked")
+      Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
+      applyIndex(context, mapEntry.getKey(), uniqueNumber);
+      applyItem(context, mapEntry.getValue(), uniqueNumber);
+    } else {
+      applyIndex(context, i, uniqueNumber);
+      applyItem(context, o, uniqueNumber);
+    }
+    contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
+    return first && !((PrefixedContext) context).isPrefixApplied();
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
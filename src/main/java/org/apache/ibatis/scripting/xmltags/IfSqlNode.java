@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2022 the original author or authors.
+ *    Copyright 2009-2023 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -52,4 +52,12 @@ public class IfSqlNode implements SqlNode {
     return false;
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  String getTest() {
+    return test;
+  }
+
 }
@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2022 the original author or authors.
+ *    Copyright 2009-2023 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,8 +15,10 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import ognl.Ognl;
 import ognl.OgnlException;
@@ -25,6 +27,11 @@ import org.apache.ibatis.builder.BuilderException;
 
 /**
  * Caches OGNL parsed expressions.
+ * <p>
+ * Each {@link org.apache.ibatis.session.Configuration} owns its own cache, which is used for every expression evaluated
+ * against the bindings of a {@link DynamicContext}. Expressions evaluated against other roots use a cache shared by
+ * the JVM. A cache is bounded: when it grows beyond its maximum size, expressions that have not been used since the
+ * last sweep are evicted first.
  *
  * @author Eduardo Macarron
  *
@@ -32,30 +39,171 @@ import org.apache.ibatis.builder.BuilderException;
  */
 public final class OgnlCache {
 
+  /**
+   * @since 3.5.14
+   */
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
   private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
   private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
-  private static final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+  /**
+   * 不属于任何Configuration的表达式使用的共享缓存
+   */
+  static final OgnlCache SHARED = new OgnlCache(DEFAULT_MAX_SIZE);
+
+  private final int maxSize;
+  private final Map<String, Entry> expressionCache = new ConcurrentHashMap<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
 
-  private OgnlCache() {
-    // Prevent Instantiation of Static Class
+  /**
+   * @since 3.5.14
+   */
+  public OgnlCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("The maximum size of the OGNL expression cache must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
   }
 
   public static Object getValue(String expression, Object root) {
     try {
-      Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
-      return Ognl.getValue(parseExpression(expression), context, root);
+      return getValue(cacheFor(root).getEntry(expression), root);
+    } catch (OgnlException e) {
+      throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Evaluates the expression with its compiled form, which reads properties directly without creating an OGNL
+   * context. Falls back to OGNL for expressions that cannot be compiled or cannot be evaluated directly against the
+   * given root. An exception thrown by a getter is reported without evaluating the expression again.
+   */
+  static Object evaluate(String expression, Object root) {
+    try {
+      Entry entry = cacheFor(root).getEntry(expression);
+      CompiledExpression compiled = entry.compiled;
+      if (compiled == null) {
+        compiled = CompiledExpression.compile(entry.node);
+        entry.compiled = compiled;
+      }
+      if (compiled != CompiledExpression.NOT_COMPILABLE) {
+        try {
+          return compiled.getValue(root);
+        } catch (CompiledExpression.Fallback e) {
+          // fall back to OGNL
+        } catch (CompiledExpression.InvocationFailure e) {
+          throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e.getCause(),
+              e.getCause());
+        }
+      }
+      return getValue(entry, root);
     } catch (OgnlException e) {
       throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
     }
   }
 
-  private static Object parseExpression(String expression) throws OgnlException {
-    Object node = expressionCache.get(expression);
-    if (node == null) {
-      node = Ognl.parseExpression(expression);
-      expressionCache.put(expression, node);
+  private static Object getValue(Entry entry, Object root) throws OgnlException {
+    Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
+    return Ognl.getValue(entry.node, context, root);
+  }
+
+  private static OgnlCache cacheFor(Object root) {
+    return root instanceof DynamicContext.ContextMap ? ((DynamicContext.ContextMap) root).getOgnlCache() : SHARED;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int size() {
+    return expressionCache.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  public void clear() {
+    expressionCache.clear();
+  }
+
+  private Entry getEntry(String expression) throws OgnlException {
+    Entry entry = expressionCache.get(expression);
+    if (entry != null) {
+      entry.referenced = true;
+      hitCount.increment();
+      return entry;
+    }
+    try {
+      // computeIfAbsent() guarantees that an expression is parsed only once
+      entry = expressionCache.computeIfAbsent(expression, this::parse);
+    } catch (ParseFailure e) {
+      throw e.getCause();
+    }
+    if (expressionCache.size() > maxSize) {
+      evict();
+    }
+    return entry;
+  }
+
+  private Entry parse(String expression) {
+    missCount.increment();
+    try {
+      return new Entry(Ognl.parseExpression(expression));
+    } catch (OgnlException e) {
+      throw new ParseFailure(e);
+    }
+  }
+
+  /**
+   * 近似的CLOCK淘汰策略：依次扫描缓存项，最近被访问过的缓存项清除访问标记后保留，否则将其淘汰
+   */
+  private void evict() {
+    Iterator<Map.Entry<String, Entry>> iterator = expressionCache.entrySet().iterator();
+    while (expressionCache.size() > maxSize) {
+      if (!iterator.hasNext()) {
+        iterator = expressionCache.entrySet().iterator();
+      }
+      Map.Entry<String, Entry> candidate = iterator.next();
+      if (candidate.getValue().referenced) {
+        candidate.getValue().referenced = false;
+      } else if (expressionCache.remove(candidate.getKey(), candidate.getValue())) {
+        evictionCount.increment();
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final Object node;
+    private volatile CompiledExpression compiled;
+    private volatile boolean referenced;
+
+    Entry(Object node) {
+      this.node = node;
+    }
+  }
+
+  private static final class ParseFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ParseFailure(OgnlException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized OgnlException getCause() {
+      return (OgnlException) super.getCause();
     }
-    return node;
   }
 
 }
@@ -0,0 +1,113 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以引用的方式记录追加的SQL片段，直到最终生成SQL语句时才一次性复制到结果字符串中。
+ * 去除首尾空白、截取部分内容都直接在片段上进行，不会生成中间字符串
+ */
+final class SqlFragments {
+
+  /**
+   * 片段之间的分隔符，为null时直接拼接
+   */
+  private final String delimiter;
+  private final List<String> fragments = new ArrayList<>();
+  private int length;
+
+  SqlFragments(String delimiter) {
+    this.delimiter = delimiter;
+  }
+
+  void append(String sql) {
+    if (delimiter != null && !fragments.isEmpty()) {
+      add(delimiter);
+    }
+    add(String.valueOf(sql));
+  }
+
+  private void add(String fragment) {
+    fragments.add(fragment);
+    length += fragment.length();
+  }
+
+  int length() {
+    return length;
+  }
+
+  /**
+   * 返回第一个非空白字符的位置，与String.trim()的规则相同，全部为空白时返回length()
+   */
+  int trimStart() {
+    int offset = 0;
+    for (String fragment : fragments) {
+      for (int i = 0; i < fragment.length(); i++) {
+        if (fragment.charAt(i) > ' ') {
+          return offset + i;
+        }
+      }
+      offset += fragment.length();
+    }
+    return length;
+  }
+
+  /**
+   * 返回最后一个非空白字符之后的位置，与String.trim()的规则相同，全部为空白时返回0
+   */
+  int trimEnd() {
+    int offset = length;
+    for (int f = fragments.size() - 1; f >= 0; f--) {
+      String fragment = fragments.get(f);
+      offset -= fragment.length();
+      for (int i = fragment.length() - 1; i >= 0; i--) {
+        if (fragment.charAt(i) > ' ') {
+          return offset + i + 1;
+        }
+      }
+    }
+    return 0;
+  }
+
+  void appendTo(StringBuilder builder, int start, int end) {
+    int offset = 0;
+    for (String fragment : fragments) {
+      int fragmentEnd = offset + fragment.length();
+      if (fragmentEnd > start && offset < end) {
+        builder.append(fragment, Math.max(start - offset, 0), Math.min(end, fragmentEnd) - offset);
+      }
+      if (fragmentEnd >= end) {
+        break;
+      }
+      offset = fragmentEnd;
+    }
+  }
+
+  String substring(int start, int end) {
+    if (start >= end) {
+      return "";
+    }
+    if (fragments.size() == 1) {
+      return fragments.get(0).substring(start, end);
+    }
+    StringBuilder builder = new StringBuilder(end - start);
+    appendTo(builder, start, end);
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将XMLScriptBuilder解析得到的SqlNode树改写为等价但更扁平的SqlNode树：展开嵌套的MixedSqlNode，
+ * 合并相邻的StaticTextSqlNode，只有一个静态子节点时去掉外层的MixedSqlNode。条件表达式仍在每次执行时求值，
+ * 改写前后生成的SQL完全相同
+ *
+ * @since 3.5.14
+ */
+public class SqlNodeFlattener {
+
+  /**
+   * DynamicContext使用空格连接各个SQL片段
+   */
+  private static final String CONTEXT_SEPARATOR = " ";
+
+  /**
+   * TrimSqlNode会将子节点的SQL片段直接拼接到缓冲区中
+   */
+  private static final String TRIM_SEPARATOR = "";
+
+  public SqlNode flatten(SqlNode rootSqlNode) {
+    return flatten(rootSqlNode, CONTEXT_SEPARATOR);
+  }
+
+  /**
+   * @param separator
+   *          当前节点追加SQL片段时使用的连接符，为null时表示不能合并相邻的静态节点
+   */
+  private SqlNode flatten(SqlNode node, String separator) {
+    if (node instanceof MixedSqlNode) {
+      return flattenContents(((MixedSqlNode) node).getContents(), separator);
+    }
+    if (node instanceof IfSqlNode) {
+      IfSqlNode ifSqlNode = (IfSqlNode) node;
+      return new IfSqlNode(flatten(ifSqlNode.getContents(), separator), ifSqlNode.getTest());
+    }
+    if (node instanceof ChooseSqlNode) {
+      ChooseSqlNode chooseSqlNode = (ChooseSqlNode) node;
+      List<SqlNode> ifSqlNodes = new ArrayList<>(chooseSqlNode.getIfSqlNodes().size());
+      for (SqlNode ifSqlNode : chooseSqlNode.getIfSqlNodes()) {
+        ifSqlNodes.add(flatten(ifSqlNode, separator));
+      }
+      SqlNode defaultSqlNode = chooseSqlNode.getDefaultSqlNode();
+      return new ChooseSqlNode(ifSqlNodes, defaultSqlNode == null ? null : flatten(defaultSqlNode, separator));
+    }
+    if (node instanceof TrimSqlNode) {
+      TrimSqlNode trimSqlNode = (TrimSqlNode) node;
+      return trimSqlNode.withContents(flatten(trimSqlNode.getContents(), TRIM_SEPARATOR));
+    }
+    if (node instanceof ForEachSqlNode) {
+      // ForEachSqlNode在第一个非空片段之前才添加分隔符，合并空白片段会改变分隔符的位置，所以其直接子节点不做合并
+      ForEachSqlNode forEachSqlNode = (ForEachSqlNode) node;
+      return forEachSqlNode.withContents(flatten(forEachSqlNode.getContents(), null));
+    }
+    return node;
+  }
+
+  private SqlNode flattenContents(List<SqlNode> contents, String separator) {
+    List<SqlNode> flattened = new ArrayList<>(contents.size());
+    inline(contents, separator, flattened);
+    if (separator != null) {
+      flattened = mergeStaticText(flattened, separator);
+    }
+    // 只有StaticTextSqlNode和MixedSqlNode一样总是返回true，其他节点的apply()返回值可能会被父节点使用
+    if (flattened.size() == 1 && flattened.get(0) instanceof StaticTextSqlNode) {
+      return flattened.get(0);
+    }
+    return new MixedSqlNode(flattened);
+  }
+
+  private void inline(List<SqlNode> contents, String separator, List<SqlNode> target) {
+    for (SqlNode node : contents) {
+      if (node instanceof MixedSqlNode) {
+        inline(((MixedSqlNode) node).getContents(), separator, target);
+      } else {
+        target.add(flatten(node, separator));
+      }
+    }
+  }
+
+  private List<SqlNode> mergeStaticText(List<SqlNode> contents, String separator) {
+    List<SqlNode> merged = new ArrayList<>(contents.size());
+    StringBuilder text = null;
+    for (SqlNode node : contents) {
+      if (node instanceof StaticTextSqlNode) {
+        String nodeText = ((StaticTextSqlNode) node).getText();
+        if (text == null) {
+          text = new StringBuilder(nodeText);
+        } else {
+          text.append(separator).append(nodeText);
+        }
+      } else {
+        if (text != null) {
+          merged.add(new StaticTextSqlNode(text.toString()));
+          text = null;
+        }
+        merged.add(node);
+      }
+    }
+    if (text != null) {
+      merged.add(new StaticTextSqlNode(text.toString()));
+    }
+    return merged;
+  }
+
+}
@@ -33,4 +33,8 @@ public class StaticTextSqlNode implements SqlNode {
     return true;
   }
 
+  String getText() {
+    return text;
+  }
+
 }
@@ -54,6 +54,12 @@ public class TrimSqlNode implements SqlNode {
    * 如果<trim>节点包裹的SQL语句是空语句(经常出现在jf判断为否的情况下),删除指定的后缀，如逗号
    */
   private final List<String> suffixesToOverride;
+
+  /**
+   * 前缀、后缀中最长一项的长度，匹配时只需要截取SQL语句开头或结尾对应长度的片段
+   */
+  private final int prefixOverrideLength;
+  private final int suffixOverrideLength;
   private final Configuration configuration;
 
   public TrimSqlNode(Configuration configuration, SqlNode contents, String prefix, String prefixesToOverride,
@@ -71,6 +77,8 @@ public class TrimSqlNode implements SqlNode {
     this.prefixesToOverride = prefixesToOverride;
     this.suffix = suffix;
     this.suffixesToOverride = suffixesToOverride;
+    this.prefixOverrideLength = maxLength(prefixesToOverride);
+    this.suffixOverrideLength = maxLength(suffixesToOverride);
     this.configuration = configuration;
   }
 
@@ -85,6 +93,17 @@ public class TrimSqlNode implements SqlNode {
     return result;
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  /**
+   * 创建一个前缀、后缀配置相同，但子节点不同的TrimSqlNode
+   */
+  TrimSqlNode withContents(SqlNode contents) {
+    return new TrimSqlNode(configuration, contents, prefix, prefixesToOverride, suffix, suffixesToOverride);
+  }
+
   private static List<String> parseOverrides(String overrides) {
     if (overrides != null) {
       // 按照"|"进行分割
@@ -110,33 +129,58 @@ public class TrimSqlNode implements SqlNode {
     private final DynamicContext delegate;
 
     /**
-     * 是否已经处理过前缀和后缀，初始值都为false
-     */
-    private boolean prefixApplied;
-    private boolean suffixApplied;
-
-    /**
-     * 用于记录子节点解析后的结果，FilteredDynamicContext.appendSql()方法会将该字段添加解析结果，】
+     * 用于记录子节点解析后的结果，FilteredDynamicContext.appendSql()方法会将SQL片段以引用的方式添加到该字段中，
      * 而不是调用delegate.appendSql()方法
      */
-    private StringBuilder sqlBuffer;
+    private final SqlFragments sqlBuffer;
 
     public FilteredDynamicContext(DynamicContext delegate) {
       super(configuration, null);
       this.delegate = delegate;
-      this.prefixApplied = false;
-      this.suffixApplied = false;
-      this.sqlBuffer = new StringBuilder();
+      this.sqlBuffer = new SqlFragments(null);
     }
 
+    /**
+     * 去除首尾空白并处理前缀和后缀，只在开头和结尾截取与override等长的片段转换为大写进行匹配，
+     * 最终结果只复制一次后交给delegate
+     */
     public void applyAll() {
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);
-        applySuffix(sqlBuffer, trimmedUppercaseSql);
+      int start = sqlBuffer.trimStart();
+      int end = sqlBuffer.trimEnd();
+      if (start >= end) {
+        delegate.appendSql("");
+        return;
+      }
+      int prefixToRemove = 0;
+      if (prefixOverrideLength > 0) {
+        String head = sqlBuffer.substring(start, Math.min(end, start + prefixOverrideLength))
+            .toUpperCase(Locale.ENGLISH);
+        // 如果以prefixesToOverride中某项开头，则将该项从SQL语句开头删除掉
+        prefixToRemove = prefixesToOverride.stream().filter(head::startsWith).findFirst()
+            .map(toRemove -> toRemove.trim().length()).orElse(0);
+      }
+      int suffixToRemove = 0;
+      if (suffixOverrideLength > 0) {
+        String tail = sqlBuffer.substring(Math.max(start, end - suffixOverrideLength), end)
+            .toUpperCase(Locale.ENGLISH);
+        // 如果以suffixesToOverride中某项结尾，则将该项从SQL语句结尾删除掉
+        suffixToRemove = suffixesToOverride.stream()
+            .filter(toRemove -> tail.endsWith(toRemove) || tail.endsWith(toRemove.trim())).findFirst()
+            .map(toRemove -> toRemove.trim().length()).orElse(0);
+      }
+      StringBuilder sql = new StringBuilder(end - start + (prefix == null ? 0 : prefix.length() + 1)
+          + (suffix == null ? 0 : suffix.length() + 1));
+      // 添加prefix前缀
+      if (prefix != null) {
+        sql.append(prefix).append(' ');
       }
-      delegate.appendSql(sqlBuffer.toString());
+      sqlBuffer.appendTo(sql, Math.min(start + prefixToRemove, end), end);
+      sql.setLength(Math.max(sql.length() - suffixToRemove, 0));
+      // 添加suffix后缀
+      if (suffix != null) {
+        sql.append(' ').append(suffix);
+      }
+      delegate.appendSql(sql.toString());
     }
 
     @Override
@@ -164,49 +208,17 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
+  }
 
-      // 检测是否已经处理过前缀
-      if (prefixApplied) {
-        return;
-      }
-      // 标记已经处理过前缀
-      prefixApplied = true;
-      if (prefixesToOverride != null) {
-        // 遍历prefixesToOverride集合，如果以prefixesToOverride中某项开头，则将该项从SQL语句开头删除掉
-        prefixesToOverride.stream().filter(trimmedUppercaseSql::startsWith).findFirst()
-            .ifPresent(toRemove -> sql.delete(0, toRemove.trim().length()));
-      }
-      // 添加prefix前缀
-      if (prefix != null) {
-        sql.insert(0, " ").insert(0, prefix);
-      }
+  private static int maxLength(List<String> overrides) {
+    int maxLength = 0;
+    if (overrides == null) {
+      return maxLength;
     }
-
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
-      // 检测是否已经处理过后缀
-      if (suffixApplied) {
-        return;
-      }
-      // 表示已经处理过后缀
-      suffixApplied = true;
-      if (suffixesToOverride != null) {
-        // 遍历prefixesToOverride集合
-        // 如果以suffixesToOverride中某项结尾，则将该项从SQL语句结尾删除掉
-        suffixesToOverride.stream()
-            .filter(toRemove -> trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim()))
-            .findFirst().ifPresent(toRemove -> {
-              int start = sql.length() - toRemove.trim().length();
-              int end = sql.length();
-              sql.delete(start, end);
-            });
-      }
-      // 添加suffix后缀
-      if (suffix != null) {
-        sql.append(" ").append(suffix);
-      }
+    for (String override : overrides) {
+      maxLength = Math.max(maxLength, override.length());
     }
-
+    return maxLength;
   }
 
 }
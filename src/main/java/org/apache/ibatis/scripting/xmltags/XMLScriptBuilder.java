@@ -66,7 +66,8 @@ public class XMLScriptBuilder extends BaseBuilder {
     MixedSqlNode rootSqlNode = parseDynamicTags(context);
     SqlSource sqlSource;
     if (isDynamic) {
-      sqlSource = new DynamicSqlSource(configuration, rootSqlNode);
+      SqlNode sqlNode = configuration.isFlattenDynamicSql() ? new SqlNodeFlattener().flatten(rootSqlNode) : rootSqlNode;
+      sqlSource = new DynamicSqlSource(configuration, sqlNode);
     } else {
       sqlSource = new RawSqlSource(configuration, rootSqlNode, parameterType);
     }
@@ -176,8 +177,9 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
+      ForEachPadding padding = ForEachPadding.parse(nodeToHandle.getStringAttribute("padding"));
       ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, nullable, index, item,
-          open, close, separator);
+          open, close, separator, padding);
       targetContents.add(forEachSqlNode);
     }
   }
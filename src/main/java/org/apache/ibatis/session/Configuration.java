@@ -26,11 +26,13 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.builder.LazySqlSource;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
@@ -45,22 +47,38 @@ import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.GroupingBatchExecutor;
 import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.executor.SimpleExecutor;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
+import org.apache.ibatis.executor.metrics.AllocationPhase;
+import org.apache.ibatis.executor.metrics.AllocationProfiler;
+import org.apache.ibatis.executor.metrics.AllocationProfilingExecutor;
+import org.apache.ibatis.executor.metrics.AllocationProfilingResultSetHandler;
+import org.apache.ibatis.executor.metrics.AllocationProfilingStatementHandler;
+import org.apache.ibatis.executor.metrics.MetricsRegistry;
+import org.apache.ibatis.executor.metrics.MetricsResultSetHandler;
+import org.apache.ibatis.executor.metrics.MetricsStatementHandler;
+import org.apache.ibatis.executor.metrics.StatementAllocations;
+import org.apache.ibatis.executor.metrics.StatementMetrics;
+import org.apache.ibatis.executor.pagination.PaginationDialect;
+import org.apache.ibatis.executor.pagination.PaginationDialectRegistry;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.executor.statement.TracingStatementHandler;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
+import org.apache.ibatis.logging.jdbc.StatementTracer;
 import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
 import org.apache.ibatis.logging.log4j.Log4jImpl;
 import org.apache.ibatis.logging.log4j2.Log4j2Impl;
@@ -87,6 +105,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -118,6 +137,15 @@ public class Configuration {
   protected boolean shrinkWhitespacesInSql;
   protected boolean nullableOnForEach;
   protected boolean argNameBasedConstructorAutoMapping;
+  protected boolean flattenDynamicSql;
+  protected boolean parallelMapperLoading;
+  protected String mapperSnapshotFile;
+  protected boolean lazyStatementBuilding;
+  protected boolean databasePagination;
+  protected boolean statementTracing;
+  protected boolean metricsEnabled;
+  protected boolean allocationProfiling;
+  protected boolean sessionErrorContext;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -129,6 +157,12 @@ public class Configuration {
       Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer reuseStatementCacheSize;
+  protected Integer dynamicSqlShapeCacheSize;
+  protected Integer defaultResultSizeLimit;
+  protected Integer defaultSlowQueryThreshold;
+  protected ResultGuardBehavior resultGuardBehavior = ResultGuardBehavior.WARNING;
+  protected OgnlCache ognlCache = new OgnlCache(OgnlCache.DEFAULT_MAX_SIZE);
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -152,6 +186,10 @@ public class Configuration {
 
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
+  protected final PaginationDialectRegistry paginationDialectRegistry = new PaginationDialectRegistry();
+  protected final StatementTracer statementTracer = new StatementTracer();
+  protected final MetricsRegistry metricsRegistry = new MetricsRegistry();
+  protected final AllocationProfiler allocationProfiler = new AllocationProfiler();
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry(this);
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
@@ -330,6 +368,483 @@ public class Configuration {
     return nullableOnForEach;
   }
 
+  /**
+   * Returns the maximum number of statements cached by each REUSE executor.
+   * <p>
+   * Default is {@code null}, which means unbounded.
+   *
+   * @return the maximum number of cached statements
+   *
+   * @since 3.5.14
+   */
+  public Integer getReuseStatementCacheSize() {
+    return reuseStatementCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of statements cached by each REUSE executor. When the limit is exceeded, the least recently
+   * used statement is closed and evicted.
+   *
+   * @param reuseStatementCacheSize
+   *          the maximum number of cached statements, {@code null} means unbounded
+   *
+   * @since 3.5.14
+   */
+  public void setReuseStatementCacheSize(Integer reuseStatementCacheSize) {
+    this.reuseStatementCacheSize = reuseStatementCacheSize;
+  }
+
+  /**
+   * Gets the maximum number of parsed SQL shapes cached by each dynamic SQL statement.
+   * <p>
+   * Default is {@code null}, which means the cache is disabled.
+   *
+   * @return the maximum number of cached SQL shapes
+   *
+   * @since 3.5.14
+   */
+  public Integer getDynamicSqlShapeCacheSize() {
+    return dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of parsed SQL shapes cached by each dynamic SQL statement. A shape is identified by the
+   * generated SQL text, the parameter type and the types of the binding values. Once the limit is reached, new shapes
+   * are parsed on every call and are not cached.
+   * <p>
+   * This setting is read when a statement is built, so it must be set before the mappers are loaded.
+   *
+   * @param dynamicSqlShapeCacheSize
+   *          the maximum number of cached SQL shapes, {@code null} or {@code 0} disables the cache
+   *
+   * @since 3.5.14
+   */
+  public void setDynamicSqlShapeCacheSize(Integer dynamicSqlShapeCacheSize) {
+    this.dynamicSqlShapeCacheSize = dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * Gets the cache of parsed OGNL expressions used by the dynamic SQL of this configuration.
+   *
+   * @return the OGNL expression cache
+   *
+   * @since 3.5.14
+   */
+  public OgnlCache getOgnlCache() {
+    return ognlCache;
+  }
+
+  /**
+   * Gets the maximum number of parsed OGNL expressions cached by this configuration.
+   *
+   * @return the maximum number of cached expressions
+   *
+   * @since 3.5.14
+   */
+  public int getOgnlCacheSize() {
+    return ognlCache.getMaxSize();
+  }
+
+  /**
+   * Sets the maximum number of parsed OGNL expressions cached by this configuration. Replaces the current cache with
+   * an empty one. Expressions that were not used recently are evicted when the limit is exceeded.
+   *
+   * @param ognlCacheSize
+   *          the maximum number of cached expressions
+   *
+   * @since 3.5.14
+   */
+  public void setOgnlCacheSize(int ognlCacheSize) {
+    this.ognlCache = new OgnlCache(ognlCacheSize);
+  }
+
+  /**
+   * Gets whether row bounds are applied by the database.
+   *
+   * @return {@code true} if row bounds are applied by the database
+   *
+   * @since 3.5.14
+   */
+  public boolean isDatabasePagination() {
+    return databasePagination;
+  }
+
+  /**
+   * Sets whether row bounds are applied by the database instead of skipping rows on the client. When enabled, a select
+   * executed with {@link RowBounds} is rewritten by the {@link PaginationDialect} registered for the current database
+   * id. If there is no dialect, or the statement cannot be rewritten, the maximum number of rows of the JDBC statement
+   * is limited to {@code offset + limit}. Statements with nested result maps, multiple result sets or callable
+   * statements are not affected.
+   *
+   * @param databasePagination
+   *          {@code true} to apply row bounds in the database
+   *
+   * @since 3.5.14
+   */
+  public void setDatabasePagination(boolean databasePagination) {
+    this.databasePagination = databasePagination;
+  }
+
+  /**
+   * Gets the registry of pagination dialects by database id.
+   *
+   * @return the pagination dialect registry
+   *
+   * @since 3.5.14
+   */
+  public PaginationDialectRegistry getPaginationDialectRegistry() {
+    return paginationDialectRegistry;
+  }
+
+  /**
+   * Gets the pagination dialect used to apply row bounds.
+   *
+   * @return the dialect for the current database id, or {@code null} if database pagination is disabled or no dialect
+   *         matches
+   *
+   * @since 3.5.14
+   */
+  public PaginationDialect getPaginationDialect() {
+    return databasePagination ? paginationDialectRegistry.getDialect(databaseId) : null;
+  }
+
+  /**
+   * Gets whether execution metrics are recorded for each mapped statement.
+   *
+   * @return {@code true} if metrics are recorded
+   *
+   * @since 3.5.14
+   */
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  /**
+   * Sets whether execution metrics are recorded for each mapped statement in the {@link MetricsRegistry}: executions,
+   * errors, returned rows, the latency of each phase of an execution, and the hits and misses of the local and second
+   * level caches.
+   *
+   * @param metricsEnabled
+   *          {@code true} to record metrics
+   *
+   * @since 3.5.14
+   */
+  public void setMetricsEnabled(boolean metricsEnabled) {
+    this.metricsEnabled = metricsEnabled;
+  }
+
+  /**
+   * Gets the registry that holds the metrics of the mapped statements.
+   *
+   * @return the metrics registry
+   *
+   * @since 3.5.14
+   */
+  public MetricsRegistry getMetricsRegistry() {
+    return metricsRegistry;
+  }
+
+  /**
+   * Gets whether the bytes allocated by each mapped statement are accounted.
+   *
+   * @return {@code true} if allocations are accounted
+   *
+   * @since 3.5.14
+   */
+  public boolean isAllocationProfiling() {
+    return allocationProfiling;
+  }
+
+  /**
+   * Sets whether the heap bytes allocated by the executions of each mapped statement are accounted in the
+   * {@link AllocationProfiler}, in total and for each {@link AllocationPhase}. Nothing is accounted on JVMs that cannot
+   * measure the bytes allocated by a thread.
+   *
+   * @param allocationProfiling
+   *          {@code true} to account allocations
+   *
+   * @since 3.5.14
+   */
+  public void setAllocationProfiling(boolean allocationProfiling) {
+    this.allocationProfiling = allocationProfiling;
+  }
+
+  /**
+   * Gets the profiler that holds the allocations of the mapped statements.
+   *
+   * @return the allocation profiler
+   *
+   * @since 3.5.14
+   */
+  public AllocationProfiler getAllocationProfiler() {
+    return allocationProfiler;
+  }
+
+  /**
+   * Gets how many phases of a statement execution are executed for each measured one.
+   *
+   * @return the allocation profiling sampling
+   *
+   * @since 3.5.14
+   */
+  public int getAllocationProfilingSampling() {
+    return allocationProfiler.getSampling();
+  }
+
+  /**
+   * Sets how many phases of a statement execution are executed for each measured one.
+   *
+   * @param allocationProfilingSampling
+   *          {@code 1} to measure every phase, {@code n} to measure one phase in {@code n} on average
+   *
+   * @see AllocationProfiler#setSampling(int)
+   *
+   * @since 3.5.14
+   */
+  public void setAllocationProfilingSampling(int allocationProfilingSampling) {
+    allocationProfiler.setSampling(allocationProfilingSampling);
+  }
+
+  /**
+   * Gets whether each session keeps its own {@link ErrorContext} instead of the one bound to the current thread.
+   *
+   * @return {@code true} if error contexts are kept by sessions
+   *
+   * @since 3.5.14
+   */
+  public boolean isSessionErrorContext() {
+    return sessionErrorContext;
+  }
+
+  /**
+   * Sets whether each session keeps its own {@link ErrorContext} instead of the one bound to the current thread. This
+   * avoids a thread local lookup for each statement phase, which matters when sessions run on many short lived threads
+   * such as virtual threads. The static {@link ErrorContext#instance()} is then not filled by the statements of a
+   * session; read the context with {@link Executor#getErrorContext()} instead.
+   *
+   * @param sessionErrorContext
+   *          {@code true} to keep error contexts in sessions
+   *
+   * @since 3.5.14
+   */
+  public void setSessionErrorContext(boolean sessionErrorContext) {
+    this.sessionErrorContext = sessionErrorContext;
+  }
+
+  /**
+   * Gets whether statements are traced by a {@link StatementTracer} instead of proxied JDBC loggers.
+   *
+   * @return {@code true} if statements are traced
+   *
+   * @since 3.5.14
+   */
+  public boolean isStatementTracing() {
+    return statementTracing;
+  }
+
+  /**
+   * Sets whether statements whose log is at debug level are traced by a {@link StatementTracer}. Instead of wrapping
+   * the connection, statements and result sets in logging proxies, one line with the SQL, bind values, row count and
+   * elapsed time is written per statement after it has been executed. Result set rows are not logged.
+   *
+   * @param statementTracing
+   *          {@code true} to trace statements
+   *
+   * @since 3.5.14
+   */
+  public void setStatementTracing(boolean statementTracing) {
+    this.statementTracing = statementTracing;
+  }
+
+  /**
+   * Gets the tracer used when statement tracing is enabled.
+   *
+   * @return the statement tracer
+   *
+   * @since 3.5.14
+   */
+  public StatementTracer getStatementTracer() {
+    return statementTracer;
+  }
+
+  /**
+   * Gets how many statements are executed for each traced one.
+   *
+   * @return the statement trace sampling
+   *
+   * @since 3.5.14
+   */
+  public int getStatementTraceSampling() {
+    return statementTracer.getSampling();
+  }
+
+  /**
+   * Sets how many statements are executed for each traced one.
+   *
+   * @param statementTraceSampling
+   *          {@code 1} to trace every statement, {@code n} to trace one statement in {@code n} on average
+   *
+   * @see StatementTracer#setSampling(int)
+   *
+   * @since 3.5.14
+   */
+  public void setStatementTraceSampling(int statementTraceSampling) {
+    statementTracer.setSampling(statementTraceSampling);
+  }
+
+  /**
+   * Gets whether statement traces are written by a background thread.
+   *
+   * @return {@code true} if statement traces are written asynchronously
+   *
+   * @since 3.5.14
+   */
+  public boolean isAsyncStatementTrace() {
+    return statementTracer.isAsync();
+  }
+
+  /**
+   * Sets whether statement traces are written by a background thread instead of the thread executing the statement.
+   * Setting it back to {@code false} stops the background thread.
+   *
+   * @param asyncStatementTrace
+   *          {@code true} to write statement traces asynchronously
+   *
+   * @see StatementTracer#setAsync(boolean)
+   *
+   * @since 3.5.14
+   */
+  public void setAsyncStatementTrace(boolean asyncStatementTrace) {
+    statementTracer.setAsync(asyncStatementTrace);
+  }
+
+  /**
+   * Gets whether all interceptors are applied through a single composed proxy.
+   *
+   * @return {@code true} if interceptors are composed
+   *
+   * @since 3.5.14
+   */
+  public boolean isComposePlugins() {
+    return interceptorChain.isComposed();
+  }
+
+  /**
+   * Sets whether all interceptors are applied through a single composed proxy instead of one proxy per interceptor.
+   *
+   * @param composePlugins
+   *          {@code true} to compose interceptors
+   *
+   * @see InterceptorChain#setComposed(boolean)
+   *
+   * @since 3.5.14
+   */
+  public void setComposePlugins(boolean composePlugins) {
+    interceptorChain.setComposed(composePlugins);
+  }
+
+  /**
+   * Gets whether the SQL of statements declared in mapper XML files is built on first use.
+   *
+   * @return {@code true} if statement SQL is built lazily
+   *
+   * @since 3.5.14
+   */
+  public boolean isLazyStatementBuilding() {
+    return lazyStatementBuilding;
+  }
+
+  /**
+   * Sets whether the SQL of statements declared in mapper XML files is built on first use. Statements are still
+   * registered at startup with their result maps, caches and key generators, but their scripts are parsed into
+   * {@link org.apache.ibatis.mapping.SqlSource}s only when they are executed for the first time or when
+   * {@link #warmUpStatements(String...)} is called. Errors in a script are reported on first use instead of at startup.
+   *
+   * @param lazyStatementBuilding
+   *          {@code true} to build statement SQL lazily
+   *
+   * @since 3.5.14
+   */
+  public void setLazyStatementBuilding(boolean lazyStatementBuilding) {
+    this.lazyStatementBuilding = lazyStatementBuilding;
+  }
+
+  /**
+   * Gets the file that records the mapper documents which already passed DTD validation.
+   *
+   * @return the mapper snapshot file, or {@code null} if no snapshot is used
+   *
+   * @since 3.5.14
+   */
+  public String getMapperSnapshotFile() {
+    return mapperSnapshotFile;
+  }
+
+  /**
+   * Sets the file that records the mapper documents which already passed DTD validation, together with checksums of
+   * their contents. Mapper documents whose checksum matches the snapshot are parsed without DTD validation. The file is
+   * created or updated after the mappers are loaded.
+   *
+   * @param mapperSnapshotFile
+   *          the mapper snapshot file, {@code null} disables the snapshot
+   *
+   * @since 3.5.14
+   */
+  public void setMapperSnapshotFile(String mapperSnapshotFile) {
+    this.mapperSnapshotFile = mapperSnapshotFile;
+  }
+
+  /**
+   * Gets whether the mapper documents and classes listed in {@code <mappers>} are read in parallel.
+   *
+   * @return {@code true} if mappers are loaded in parallel
+   *
+   * @since 3.5.14
+   */
+  public boolean isParallelMapperLoading() {
+    return parallelMapperLoading;
+  }
+
+  /**
+   * Sets whether the mapper documents and classes listed in {@code <mappers>} are read in parallel. Reading and
+   * parsing the XML documents and loading the mapper classes run concurrently. Statements, result maps and caches are
+   * still registered one mapper at a time in declaration order, so the resulting configuration is identical to
+   * sequential loading.
+   *
+   * @param parallelMapperLoading
+   *          {@code true} to load mappers in parallel
+   *
+   * @since 3.5.14
+   */
+  public void setParallelMapperLoading(boolean parallelMapperLoading) {
+    this.parallelMapperLoading = parallelMapperLoading;
+  }
+
+  /**
+   * Gets whether the {@code SqlNode} tree of a dynamic SQL statement is flattened when the statement is built.
+   *
+   * @return {@code true} if dynamic SQL is flattened
+   *
+   * @since 3.5.14
+   */
+  public boolean isFlattenDynamicSql() {
+    return flattenDynamicSql;
+  }
+
+  /**
+   * Sets whether the {@code SqlNode} tree of a dynamic SQL statement is flattened when the statement is built: nested
+   * blocks are inlined and adjacent static text is merged. The flattened tree generates exactly the same SQL with
+   * fewer nodes to visit; its conditions are still evaluated on each execution.
+   *
+   * @param flattenDynamicSql
+   *          {@code true} to flatten dynamic SQL
+   *
+   * @since 3.5.14
+   */
+  public void setFlattenDynamicSql(boolean flattenDynamicSql) {
+    this.flattenDynamicSql = flattenDynamicSql;
+  }
+
   public boolean isArgNameBasedConstructorAutoMapping() {
     return argNameBasedConstructorAutoMapping;
   }
@@ -425,6 +940,80 @@ public class Configuration {
     this.autoMappingUnknownColumnBehavior = autoMappingUnknownColumnBehavior;
   }
 
+  /**
+   * Gets the maximum number of result objects a query may map into a list, unless the statement sets its own.
+   *
+   * @return the default result size limit, {@code null} for no limit
+   *
+   * @since 3.5.14
+   */
+  public Integer getDefaultResultSizeLimit() {
+    return defaultResultSizeLimit;
+  }
+
+  /**
+   * Sets the maximum number of result objects a query may map into a list, unless the statement sets its own with the
+   * {@code resultSizeLimit} attribute. When a query returns more rows, the {@link ResultGuardBehavior} is applied and
+   * no more rows are fetched. Cursors and queries with a {@link ResultHandler} are not limited.
+   *
+   * @param defaultResultSizeLimit
+   *          the default result size limit, {@code null} or {@code 0} for no limit
+   *
+   * @since 3.5.14
+   */
+  public void setDefaultResultSizeLimit(Integer defaultResultSizeLimit) {
+    this.defaultResultSizeLimit = defaultResultSizeLimit;
+  }
+
+  /**
+   * Gets the time in milliseconds after which a query is considered slow, unless the statement sets its own.
+   *
+   * @return the default slow query threshold, {@code null} for no threshold
+   *
+   * @since 3.5.14
+   */
+  public Integer getDefaultSlowQueryThreshold() {
+    return defaultSlowQueryThreshold;
+  }
+
+  /**
+   * Sets the time in milliseconds after which a query is considered slow, unless the statement sets its own with the
+   * {@code slowQueryThreshold} attribute. The time is measured from the creation of the statement until its results are
+   * mapped, and is checked while rows are mapped and once they all are. When it is exceeded, the
+   * {@link ResultGuardBehavior} is applied.
+   *
+   * @param defaultSlowQueryThreshold
+   *          the default slow query threshold, {@code null} or {@code 0} for no threshold
+   *
+   * @since 3.5.14
+   */
+  public void setDefaultSlowQueryThreshold(Integer defaultSlowQueryThreshold) {
+    this.defaultSlowQueryThreshold = defaultSlowQueryThreshold;
+  }
+
+  /**
+   * Gets what happens when a query exceeds its result size limit or slow query threshold.
+   *
+   * @return the result guard behavior
+   *
+   * @since 3.5.14
+   */
+  public ResultGuardBehavior getResultGuardBehavior() {
+    return resultGuardBehavior;
+  }
+
+  /**
+   * Sets what happens when a query exceeds its result size limit or slow query threshold.
+   *
+   * @param resultGuardBehavior
+   *          the result guard behavior
+   *
+   * @since 3.5.14
+   */
+  public void setResultGuardBehavior(ResultGuardBehavior resultGuardBehavior) {
+    this.resultGuardBehavior = resultGuardBehavior;
+  }
+
   public boolean isLazyLoadingEnabled() {
     return lazyLoadingEnabled;
   }
@@ -712,8 +1301,32 @@ public class Configuration {
 
   public StatementHandler newStatementHandler(Executor executor, MappedStatement mappedStatement,
       Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
-    StatementHandler statementHandler = new RoutingStatementHandler(executor, mappedStatement, parameterObject,
+    boolean allocationSampled = allocationProfiling && allocationProfiler.isSampled();
+    long allocationStart = allocationSampled ? allocationProfiler.getAllocatedBytes() : 0;
+    RoutingStatementHandler statementHandler = new RoutingStatementHandler(executor, mappedStatement, parameterObject,
         rowBounds, resultHandler, boundSql);
+    // 装饰器包装在RoutingStatementHandler内部，插件看到的目标对象结构不变
+    if (allocationSampled) {
+      StatementAllocations allocations = allocationProfiler.getStatementAllocations(mappedStatement.getId());
+      if (boundSql == null) {
+        // 更新语句的BoundSql在创建StatementHandler时才生成
+        allocations.record(AllocationPhase.SQL_BUILD, allocationProfiler.getAllocatedBytes() - allocationStart);
+      }
+      statementHandler.decorateResultSetHandler(
+          handler -> new AllocationProfilingResultSetHandler(handler, allocationProfiler, allocations));
+      statementHandler.decorate(handler -> new AllocationProfilingStatementHandler(handler, allocationProfiler,
+          allocations));
+    }
+    if (metricsEnabled) {
+      StatementMetrics metrics = metricsRegistry.getStatementMetrics(mappedStatement.getId());
+      // 两个装饰器共享映射结果集的耗时，EXECUTE阶段不包含MAP阶段
+      AtomicLong mapNanos = new AtomicLong();
+      statementHandler.decorateResultSetHandler(handler -> new MetricsResultSetHandler(handler, metrics, mapNanos));
+      statementHandler.decorate(handler -> new MetricsStatementHandler(handler, metrics, mapNanos));
+    }
+    if (statementTracing && mappedStatement.getStatementLog().isDebugEnabled() && statementTracer.isSampled()) {
+      statementHandler.decorate(handler -> new TracingStatementHandler(handler, mappedStatement, statementTracer));
+    }
     return (StatementHandler) interceptorChain.pluginAll(statementHandler);
   }
 
@@ -726,6 +1339,8 @@ public class Configuration {
     Executor executor;
     if (ExecutorType.BATCH == executorType) {
       executor = new BatchExecutor(this, transaction);
+    } else if (ExecutorType.GROUPING_BATCH == executorType) {
+      executor = new GroupingBatchExecutor(this, transaction);
     } else if (ExecutorType.REUSE == executorType) {
       executor = new ReuseExecutor(this, transaction);
     } else {
@@ -734,7 +1349,12 @@ public class Configuration {
     if (cacheEnabled) {
       executor = new CachingExecutor(executor);
     }
-    return (Executor) interceptorChain.pluginAll(executor);
+    executor = (Executor) interceptorChain.pluginAll(executor);
+    // 包装在插件外层，插件看到的目标对象结构不变
+    if (allocationProfiling) {
+      executor = new AllocationProfilingExecutor(executor, allocationProfiler);
+    }
+    return executor;
   }
 
   public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
@@ -865,6 +1485,42 @@ public class Configuration {
     return incompleteMethods;
   }
 
+  /**
+   * Builds the SQL of statements that are built lazily, so that their first execution does not pay for it.
+   *
+   * @param namespaces
+   *          the namespaces whose statements are built, all statements are built if none is given
+   *
+   * @see #setLazyStatementBuilding(boolean)
+   *
+   * @since 3.5.14
+   */
+  public void warmUpStatements(String... namespaces) {
+    buildAllStatements();
+    for (Object value : mappedStatements.values()) {
+      // 简称冲突时值为 Ambiguity
+      if (!(value instanceof MappedStatement)) {
+        continue;
+      }
+      MappedStatement ms = (MappedStatement) value;
+      if (ms.getSqlSource() instanceof LazySqlSource && isInNamespaces(ms.getId(), namespaces)) {
+        ((LazySqlSource) ms.getSqlSource()).initialize();
+      }
+    }
+  }
+
+  private static boolean isInNamespaces(String id, String... namespaces) {
+    if (namespaces == null || namespaces.length == 0) {
+      return true;
+    }
+    for (String namespace : namespaces) {
+      if (id.startsWith(namespace + '.')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public MappedStatement getMappedStatement(String id) {
     return this.getMappedStatement(id, true);
   }
@@ -1,5 +1,5 @@
 /*
- *    Copyright 2009-2022 the original author or authors.
+ *    Copyright 2009-2023 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -24,6 +24,13 @@ public enum ExecutorType {
 
   REUSE,
 
-  BATCH
+  BATCH,
+
+  /**
+   * 按SQL语句分组的批处理，交替执行的SQL语句会被合并到各自的批处理中
+   *
+   * @since 3.5.14
+   */
+  GROUPING_BATCH
 
 }
@@ -0,0 +1,286 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+
+/**
+ * 并行的批量加载工具，适用于非事务性的批量导入(例如临时表、幂等的upsert)。
+ * 参数对象按batchSize切分成多个分片，每个分片在独立的SqlSession(即独立的数据库连接)中以批处理方式执行并提交，
+ * 最多同时有parallelism个分片在执行。各分片独立提交，某个分片失败不会回滚其他分片。
+ * <p>
+ * 已完成分片的结果会立即汇总为计数并释放，内存中最多只有parallelism+1个分片的参数对象(以及失败分片的参数对象)。
+ * 线程池在多次加载之间复用，使用完毕后调用{@link #close()}关闭。
+ *
+ * @since 3.5.14
+ */
+public class ParallelBatchLoader implements Closeable {
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final int parallelism;
+  private final int batchSize;
+  private final ExecutorService executorService;
+  // 是否由本对象创建线程池，只有自己创建的线程池才在close()时关闭
+  private final boolean ownsExecutorService;
+  private ExecutorType executorType = ExecutorType.BATCH;
+
+  public ParallelBatchLoader(SqlSessionFactory sqlSessionFactory, int parallelism, int batchSize) {
+    this(sqlSessionFactory, parallelism, batchSize, null);
+  }
+
+  /**
+   * Creates a loader that runs the chunks on the given executor service, which {@link #close()} does not shut down.
+   *
+   * @param sqlSessionFactory
+   *          the factory of the worker sessions
+   * @param parallelism
+   *          the maximum number of chunks executed at the same time
+   * @param batchSize
+   *          the number of parameter objects of a chunk
+   * @param executorService
+   *          the executor service running the chunks, or {@code null} to create one with {@code parallelism} threads
+   */
+  public ParallelBatchLoader(SqlSessionFactory sqlSessionFactory, int parallelism, int batchSize,
+      ExecutorService executorService) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be greater than 0 but was " + parallelism);
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be greater than 0 but was " + batchSize);
+    }
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.parallelism = parallelism;
+    this.batchSize = batchSize;
+    this.ownsExecutorService = executorService == null;
+    this.executorService = executorService == null
+        ? Executors.newFixedThreadPool(parallelism, new LoaderThreadFactory()) : executorService;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public ExecutorType getExecutorType() {
+    return executorType;
+  }
+
+  /**
+   * Sets the executor type used by each worker session. Only {@link ExecutorType#BATCH} and
+   * {@link ExecutorType#GROUPING_BATCH} make sense here; the default is {@link ExecutorType#BATCH}.
+   *
+   * @param executorType
+   *          the executor type
+   */
+  public void setExecutorType(ExecutorType executorType) {
+    this.executorType = executorType;
+  }
+
+  public ParallelBatchResult load(String statement, Iterable<?> parameters) {
+    return load(statement, parameters.iterator());
+  }
+
+  public ParallelBatchResult load(String statement, Stream<?> parameters) {
+    try (Stream<?> stream = parameters) {
+      return load(statement, stream.iterator());
+    }
+  }
+
+  /**
+   * 从parameters中读取参数对象并切分成分片，分片被并行地执行，调用线程会阻塞到所有分片执行完成。
+   * 读取参数对象或者提交分片失败时不再读取后续的参数对象，等待已提交的分片执行完成后，
+   * 将该异常作为一个失败的分片与它们的结果一起返回。
+   *
+   * @param statement
+   *          Unique identifier matching the statement to execute.
+   * @param parameters
+   *          the parameter objects, consumed on the caller thread
+   *
+   * @return the aggregated counts and the failures of all chunks
+   */
+  public ParallelBatchResult load(String statement, Iterator<?> parameters) {
+    CompletionService<ChunkResult> completionService = new ExecutorCompletionService<>(executorService);
+    // 限制同时执行的分片数量，调用线程最多再准备一个分片，防止生产者远快于消费者
+    Semaphore chunkPermits = new Semaphore(parallelism);
+    // 执行中的分片，分片异常结束时用于记录失败的参数对象
+    Map<Future<ChunkResult>, List<Object>> running = new HashMap<>();
+    ResultCollector collector = new ResultCollector();
+    try {
+      while (true) {
+        List<Object> chunk = new ArrayList<>(batchSize);
+        try {
+          while (chunk.size() < batchSize && parameters.hasNext()) {
+            chunk.add(parameters.next());
+          }
+        } catch (RuntimeException e) {
+          // 已读取的参数对象没有执行，记为失败的分片
+          collector.fail(chunk,
+              new PersistenceException("Error reading parameters for statement '" + statement + "'.", e));
+          break;
+        }
+        if (chunk.isEmpty()) {
+          break;
+        }
+        chunkPermits.acquire();
+        try {
+          running.put(completionService.submit(() -> {
+            try {
+              return executeChunk(statement, chunk);
+            } finally {
+              chunkPermits.release();
+            }
+          }), chunk);
+        } catch (RuntimeException e) {
+          // 例如线程池已经关闭
+          chunkPermits.release();
+          collector.fail(chunk, e);
+          break;
+        }
+        // 汇总已完成的分片，释放它们占用的内存
+        Future<ChunkResult> done;
+        while ((done = completionService.poll()) != null) {
+          collector.collect(done, running.remove(done));
+        }
+      }
+      while (!running.isEmpty()) {
+        Future<ChunkResult> done = completionService.take();
+        collector.collect(done, running.remove(done));
+      }
+      return collector.toResult();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running.keySet().forEach(future -> future.cancel(true));
+      throw new PersistenceException("Interrupted while loading parameters for statement '" + statement + "'.", e);
+    }
+  }
+
+  /**
+   * Shuts down the thread pool created by this loader. An executor service given to the constructor is left running.
+   */
+  @Override
+  public void close() {
+    if (ownsExecutorService) {
+      executorService.shutdown();
+    }
+  }
+
+  private ChunkResult executeChunk(String statement, List<Object> chunk) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(executorType, false)) {
+      try {
+        for (Object parameter : chunk) {
+          sqlSession.update(statement, parameter);
+        }
+        long updateCount = 0;
+        for (BatchResult batchResult : sqlSession.flushStatements()) {
+          for (int count : batchResult.getUpdateCounts()) {
+            // 驱动返回SUCCESS_NO_INFO等负值时无法得知影响的行数
+            if (count > 0) {
+              updateCount += count;
+            }
+          }
+        }
+        sqlSession.commit(true);
+        return new ChunkResult(chunk.size(), updateCount, null);
+      } catch (RuntimeException e) {
+        sqlSession.rollback(true);
+        return new ChunkResult(0, 0, new ParallelBatchResult.Failure(chunk, e));
+      }
+    } catch (RuntimeException e) {
+      // opening or closing the session failed
+      return new ChunkResult(0, 0, new ParallelBatchResult.Failure(chunk, e));
+    }
+  }
+
+  private static class ChunkResult {
+    private final int loadedCount;
+    private final long updateCount;
+    private final ParallelBatchResult.Failure failure;
+
+    ChunkResult(int loadedCount, long updateCount, ParallelBatchResult.Failure failure) {
+      this.loadedCount = loadedCount;
+      this.updateCount = updateCount;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * 汇总分片的结果，只保留计数和失败的分片
+   */
+  private static class ResultCollector {
+    private long loadedCount;
+    private long updateCount;
+    private final List<ParallelBatchResult.Failure> failures = new ArrayList<>();
+
+    void collect(Future<ChunkResult> future, List<Object> chunk) throws InterruptedException {
+      ChunkResult chunkResult;
+      try {
+        chunkResult = future.get();
+      } catch (ExecutionException e) {
+        // 分片抛出了Error等未预期的异常，只记为该分片失败，不影响其他分片的结果
+        fail(chunk, new PersistenceException("Unexpected error while loading parameters.", e.getCause()));
+        return;
+      }
+      loadedCount += chunkResult.loadedCount;
+      updateCount += chunkResult.updateCount;
+      if (chunkResult.failure != null) {
+        failures.add(chunkResult.failure);
+      }
+    }
+
+    void fail(List<Object> chunk, RuntimeException cause) {
+      failures.add(new ParallelBatchResult.Failure(chunk, cause));
+    }
+
+    ParallelBatchResult toResult() {
+      return new ParallelBatchResult(loadedCount, updateCount, failures);
+    }
+  }
+
+  private static class LoaderThreadFactory implements ThreadFactory {
+    private static final AtomicInteger poolNumber = new AtomicInteger(1);
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+    private final String namePrefix = "mybatis-batch-loader-" + poolNumber.getAndIncrement() + "-";
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ParallelBatchLoader}的执行结果，汇总了所有成功分片的计数以及失败的分片
+ *
+ * @since 3.5.14
+ */
+public class ParallelBatchResult {
+
+  private final long loadedCount;
+  private final long updateCount;
+  private final List<Failure> failures;
+
+  public ParallelBatchResult(long loadedCount, long updateCount, List<Failure> failures) {
+    this.loadedCount = loadedCount;
+    this.updateCount = updateCount;
+    this.failures = Collections.unmodifiableList(failures);
+  }
+
+  /**
+   * Gets the number of parameter objects executed by the chunks that were committed.
+   *
+   * @return the number of loaded parameter objects
+   */
+  public long getLoadedCount() {
+    return loadedCount;
+  }
+
+  /**
+   * Gets the sum of the update counts reported by the driver for the committed chunks. Drivers reporting
+   * {@link java.sql.Statement#SUCCESS_NO_INFO} do not contribute to it.
+   *
+   * @return the number of updated rows
+   */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+
+  public List<Failure> getFailures() {
+    return failures;
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * 执行失败的分片，该分片内的所有更新都已经回滚。读取参数对象失败时，其参数对象为已经读取但没有执行的参数对象
+   */
+  public static class Failure {
+
+    private final List<Object> parameterObjects;
+    private final RuntimeException cause;
+
+    public Failure(List<Object> parameterObjects, RuntimeException cause) {
+      this.parameterObjects = Collections.unmodifiableList(parameterObjects);
+      this.cause = cause;
+    }
+
+    public List<Object> getParameterObjects() {
+      return parameterObjects;
+    }
+
+    public RuntimeException getCause() {
+      return cause;
+    }
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Specifies what happens when a query exceeds its result size limit or its slow query threshold.
+ *
+ * @since 3.5.14
+ *
+ * @see Configuration#setDefaultResultSizeLimit(Integer)
+ * @see Configuration#setDefaultSlowQueryThreshold(Integer)
+ */
+public enum ResultGuardBehavior {
+
+  /**
+   * Output warning log (Default). A query that exceeds its result size limit returns the results mapped so far, which
+   * are not cached. Note: The log level of {@code 'org.apache.ibatis.session.ResultGuardBehavior'} must be set to
+   * {@code WARN}.
+   */
+  WARNING {
+    @Override
+    public void doAction(MappedStatement mappedStatement, String guard, long limit, long actual,
+        Object parameterObject) {
+      LogHolder.log.warn(buildMessage(mappedStatement, guard, limit, actual, parameterObject));
+    }
+  },
+
+  /**
+   * Fail the query. Note: throw {@link SqlSessionException}.
+   */
+  FAILING {
+    @Override
+    public void doAction(MappedStatement mappedStatement, String guard, long limit, long actual,
+        Object parameterObject) {
+      throw new SqlSessionException(buildMessage(mappedStatement, guard, limit, actual, parameterObject));
+    }
+  };
+
+  /**
+   * Perform the action when a query exceeds a guard.
+   *
+   * @param mappedStatement
+   *          current mapped statement
+   * @param guard
+   *          the exceeded guard, {@code resultSizeLimit} or {@code slowQueryThreshold}
+   * @param limit
+   *          the limit of the guard, in rows or milliseconds
+   * @param actual
+   *          the value that exceeded the limit
+   * @param parameterObject
+   *          the parameter object of the query
+   */
+  public abstract void doAction(MappedStatement mappedStatement, String guard, long limit, long actual,
+      Object parameterObject);
+
+  /**
+   * build error message.
+   */
+  private static String buildMessage(MappedStatement mappedStatement, String guard, long limit, long actual,
+      Object parameterObject) {
+    return new StringBuilder("Query '").append(mappedStatement.getId()).append("' exceeded its ").append(guard)
+        .append(". Guard parameters are [").append("statementId=").append(mappedStatement.getId()).append(",")
+        .append("guard=").append(guard).append(",").append("limit=").append(limit).append(",").append("actual=")
+        .append(actual).append(",").append("parameters=").append(parameterObject).append("]").toString();
+  }
+
+  private static class LogHolder {
+    private static final Log log = LogFactory.getLog(ResultGuardBehavior.class);
+  }
+
+}
@@ -52,6 +52,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
    */
   private final ThreadLocal<SqlSession> localSqlSession = new ThreadLocal<>();
 
+  /**
+   * 是否启动过托管的SqlSession，未启动时代理方法不需要查询ThreadLocal，也不会为每个线程创建ThreadLocalMap
+   */
+  private volatile boolean managedSessionStarted;
+
   private SqlSessionManager(SqlSessionFactory sqlSessionFactory) {
     this.sqlSessionFactory = sqlSessionFactory;
     this.sqlSessionProxy = (SqlSession) Proxy.newProxyInstance(SqlSessionFactory.class.getClassLoader(),
@@ -87,39 +92,48 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
   }
 
   public void startManagedSession() {
-    this.localSqlSession.set(openSession());
+    bindManagedSession(openSession());
   }
 
   public void startManagedSession(boolean autoCommit) {
-    this.localSqlSession.set(openSession(autoCommit));
+    bindManagedSession(openSession(autoCommit));
   }
 
   public void startManagedSession(Connection connection) {
-    this.localSqlSession.set(openSession(connection));
+    bindManagedSession(openSession(connection));
   }
 
   public void startManagedSession(TransactionIsolationLevel level) {
-    this.localSqlSession.set(openSession(level));
+    bindManagedSession(openSession(level));
   }
 
   public void startManagedSession(ExecutorType execType) {
-    this.localSqlSession.set(openSession(execType));
+    bindManagedSession(openSession(execType));
   }
 
   public void startManagedSession(ExecutorType execType, boolean autoCommit) {
-    this.localSqlSession.set(openSession(execType, autoCommit));
+    bindManagedSession(openSession(execType, autoCommit));
   }
 
   public void startManagedSession(ExecutorType execType, TransactionIsolationLevel level) {
-    this.localSqlSession.set(openSession(execType, level));
+    bindManagedSession(openSession(execType, level));
   }
 
   public void startManagedSession(ExecutorType execType, Connection connection) {
-    this.localSqlSession.set(openSession(execType, connection));
+    bindManagedSession(openSession(execType, connection));
+  }
+
+  private void bindManagedSession(SqlSession sqlSession) {
+    managedSessionStarted = true;
+    localSqlSession.set(sqlSession);
+  }
+
+  private SqlSession getManagedSession() {
+    return managedSessionStarted ? localSqlSession.get() : null;
   }
 
   public boolean isManagedSessionStarted() {
-    return this.localSqlSession.get() != null;
+    return getManagedSession() != null;
   }
 
   @Override
@@ -274,7 +288,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public Connection getConnection() {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot get connection.  No managed session is started.");
     }
@@ -283,7 +297,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public void clearCache() {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot clear the cache.  No managed session is started.");
     }
@@ -292,7 +306,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public void commit() {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot commit.  No managed session is started.");
     }
@@ -301,7 +315,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public void commit(boolean force) {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot commit.  No managed session is started.");
     }
@@ -310,7 +324,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public void rollback() {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot rollback.  No managed session is started.");
     }
@@ -319,7 +333,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public void rollback(boolean force) {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot rollback.  No managed session is started.");
     }
@@ -328,7 +342,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public List<BatchResult> flushStatements() {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot rollback.  No managed session is started.");
     }
@@ -337,7 +351,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
   @Override
   public void close() {
-    final SqlSession sqlSession = localSqlSession.get();
+    final SqlSession sqlSession = getManagedSession();
     if (sqlSession == null) {
       throw new SqlSessionException("Error:  Cannot close.  No managed session is started.");
     }
@@ -355,7 +369,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-      final SqlSession sqlSession = SqlSessionManager.this.localSqlSession.get();
+      final SqlSession sqlSession = getManagedSession();
       if (sqlSession != null) {
         try {
           return method.invoke(sqlSession, args);
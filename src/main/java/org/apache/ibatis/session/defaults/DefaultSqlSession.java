@@ -28,7 +28,6 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
-import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
@@ -150,9 +149,9 @@ public class DefaultSqlSession implements SqlSession {
       registerCursor(cursor);
       return cursor;
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error querying database.  Cause: " + e, e);
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -177,9 +176,9 @@ public class DefaultSqlSession implements SqlSession {
       dirty |= ms.isDirtySelect();
       return executor.query(ms, wrapCollection(parameter), rowBounds, handler);
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error querying database.  Cause: " + e, e);
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -222,9 +221,9 @@ public class DefaultSqlSession implements SqlSession {
       MappedStatement ms = configuration.getMappedStatement(statement);
       return executor.update(ms, wrapCollection(parameter));
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error updating database.  Cause: " + e, e);
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -249,9 +248,9 @@ public class DefaultSqlSession implements SqlSession {
       executor.commit(isCommitOrRollbackRequired(force));
       dirty = false;
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error committing transaction.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error committing transaction.  Cause: " + e, e);
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -266,9 +265,10 @@ public class DefaultSqlSession implements SqlSession {
       executor.rollback(isCommitOrRollbackRequired(force));
       dirty = false;
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error rolling back transaction.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error rolling back transaction.  Cause: " + e,
+          e);
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -277,9 +277,9 @@ public class DefaultSqlSession implements SqlSession {
     try {
       return executor.flushStatements();
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error flushing statements.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error flushing statements.  Cause: " + e, e);
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -290,7 +290,7 @@ public class DefaultSqlSession implements SqlSession {
       closeCursors();
       dirty = false;
     } finally {
-      ErrorContext.instance().reset();
+      executor.getErrorContext().reset();
     }
   }
 
@@ -300,7 +300,7 @@ public class DefaultSqlSession implements SqlSession {
         try {
           cursor.close();
         } catch (IOException e) {
-          throw ExceptionFactory.wrapException("Error closing cursor.  Cause: " + e, e);
+          throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error closing cursor.  Cause: " + e, e);
         }
       }
       cursorList.clear();
@@ -322,7 +322,8 @@ public class DefaultSqlSession implements SqlSession {
     try {
       return executor.getTransaction().getConnection();
     } catch (SQLException e) {
-      throw ExceptionFactory.wrapException("Error getting a new connection.  Cause: " + e, e);
+      throw ExceptionFactory.wrapException(executor.getErrorContext(), "Error getting a new connection.  Cause: " + e,
+          e);
     }
   }
 
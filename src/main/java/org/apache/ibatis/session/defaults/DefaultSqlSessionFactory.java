@@ -101,9 +101,9 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
       return new DefaultSqlSession(configuration, executor, autoCommit);
     } catch (Exception e) {
       closeTransaction(tx); // may have fetched a connection so lets call close()
-      throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
+      throw openSessionException(e);
     } finally {
-      ErrorContext.instance().reset();
+      resetErrorContext();
     }
   }
 
@@ -132,9 +132,9 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
       final Executor executor = configuration.newExecutor(tx, execType);
       return new DefaultSqlSession(configuration, executor, autoCommit);
     } catch (Exception e) {
-      throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
+      throw openSessionException(e);
     } finally {
-      ErrorContext.instance().reset();
+      resetErrorContext();
     }
   }
 
@@ -155,4 +155,16 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
     }
   }
 
+  private RuntimeException openSessionException(Exception e) {
+    // 开启sessionErrorContext时不访问ThreadLocal，使用一个独立的错误上下文
+    ErrorContext context = configuration.isSessionErrorContext() ? ErrorContext.detached() : ErrorContext.instance();
+    return ExceptionFactory.wrapException(context, "Error opening session.  Cause: " + e, e);
+  }
+
+  private void resetErrorContext() {
+    if (!configuration.isSessionErrorContext()) {
+      ErrorContext.instance().reset();
+    }
+  }
+
 }
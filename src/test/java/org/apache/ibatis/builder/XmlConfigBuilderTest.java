@@ -52,14 +52,18 @@ import org.apache.ibatis.io.JBoss6VFS;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.ResultGuardBehavior;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.EnumOrdinalTypeHandler;
@@ -111,6 +115,25 @@ class XmlConfigBuilderTest {
       assertThat(config.isArgNameBasedConstructorAutoMapping()).isFalse();
       assertThat(config.getDefaultSqlProviderType()).isNull();
       assertThat(config.isNullableOnForEach()).isFalse();
+      assertThat(config.getReuseStatementCacheSize()).isNull();
+      assertThat(config.getDynamicSqlShapeCacheSize()).isNull();
+      assertThat(config.isFlattenDynamicSql()).isFalse();
+      assertThat(config.isParallelMapperLoading()).isFalse();
+      assertThat(config.isLazyStatementBuilding()).isFalse();
+      assertThat(config.isComposePlugins()).isFalse();
+      assertThat(config.isDatabasePagination()).isFalse();
+      assertThat(config.isStatementTracing()).isFalse();
+      assertThat(config.getStatementTraceSampling()).isEqualTo(1);
+      assertThat(config.isAsyncStatementTrace()).isFalse();
+      assertThat(config.isMetricsEnabled()).isFalse();
+      assertThat(config.isAllocationProfiling()).isFalse();
+      assertThat(config.getAllocationProfilingSampling()).isEqualTo(1);
+      assertThat(config.isSessionErrorContext()).isFalse();
+      assertThat(config.getDefaultResultSizeLimit()).isNull();
+      assertThat(config.getDefaultSlowQueryThreshold()).isNull();
+      assertThat(config.getResultGuardBehavior()).isEqualTo(ResultGuardBehavior.WARNING);
+      assertThat(config.getMapperSnapshotFile()).isNull();
+      assertThat(config.getOgnlCacheSize()).isEqualTo(OgnlCache.DEFAULT_MAX_SIZE);
     }
   }
 
@@ -217,6 +240,24 @@ class XmlConfigBuilderTest {
       assertThat(config.isArgNameBasedConstructorAutoMapping()).isTrue();
       assertThat(config.getDefaultSqlProviderType().getName()).isEqualTo(MySqlProvider.class.getName());
       assertThat(config.isNullableOnForEach()).isTrue();
+      assertThat(config.getReuseStatementCacheSize()).isEqualTo(64);
+      assertThat(config.getDynamicSqlShapeCacheSize()).isEqualTo(128);
+      assertThat(config.isFlattenDynamicSql()).isTrue();
+      assertThat(config.isParallelMapperLoading()).isTrue();
+      assertThat(config.getOgnlCacheSize()).isEqualTo(256);
+      assertThat(config.isLazyStatementBuilding()).isTrue();
+      assertThat(config.isComposePlugins()).isTrue();
+      assertThat(config.isDatabasePagination()).isTrue();
+      assertThat(config.isStatementTracing()).isTrue();
+      assertThat(config.getStatementTraceSampling()).isEqualTo(10);
+      assertThat(config.isAsyncStatementTrace()).isTrue();
+      assertThat(config.isMetricsEnabled()).isTrue();
+      assertThat(config.isAllocationProfiling()).isTrue();
+      assertThat(config.getAllocationProfilingSampling()).isEqualTo(100);
+      assertThat(config.isSessionErrorContext()).isTrue();
+      assertThat(config.getDefaultResultSizeLimit()).isEqualTo(10000);
+      assertThat(config.getDefaultSlowQueryThreshold()).isEqualTo(500);
+      assertThat(config.getResultGuardBehavior()).isEqualTo(ResultGuardBehavior.FAILING);
 
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blogauthor")).isEqualTo(Author.class);
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blog")).isEqualTo(Blog.class);
@@ -366,6 +407,43 @@ class XmlConfigBuilderTest {
     }
   }
 
+  @Test
+  void shouldLoadSameConfigurationWhenMappersAreLoadedInParallel() throws Exception {
+    String resource = "org/apache/ibatis/builder/MapperConfig.xml";
+    Configuration sequential;
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      sequential = new XMLConfigBuilder(inputStream).parse();
+    }
+    Configuration parallel;
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      parallel = new XMLConfigBuilder(ParallelConfiguration.class, inputStream, null, null).parse();
+    }
+
+    assertThat(parallel.getMappedStatementNames())
+        .containsExactlyInAnyOrderElementsOf(sequential.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).containsExactlyInAnyOrderElementsOf(sequential.getResultMapNames());
+    assertThat(parallel.getCacheNames()).containsExactlyInAnyOrderElementsOf(sequential.getCacheNames());
+    assertThat(parallel.getParameterMapNames()).containsExactlyInAnyOrderElementsOf(sequential.getParameterMapNames());
+    for (String id : sequential.getMappedStatementNames()) {
+      if (!id.contains(".")) {
+        continue;
+      }
+      MappedStatement expected = sequential.getMappedStatement(id);
+      MappedStatement actual = parallel.getMappedStatement(id);
+      assertThat(actual.getResource()).isEqualTo(expected.getResource());
+      assertThat(actual.getSqlSource().getClass()).isEqualTo(expected.getSqlSource().getClass());
+      assertThat(actual.getResultMaps()).extracting(ResultMap::getId)
+          .containsExactlyElementsOf(expected.getResultMaps().stream().map(ResultMap::getId).toList());
+    }
+  }
+
+  public static class ParallelConfiguration extends Configuration {
+    @Override
+    public boolean isParallelMapperLoading() {
+      return true;
+    }
+  }
+
   public static class MyConfiguration extends Configuration {
     // only using to check configuration was used
   }
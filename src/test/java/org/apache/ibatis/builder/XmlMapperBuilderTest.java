@@ -20,13 +20,23 @@ import static com.googlecode.catchexception.apis.BDDCatchException.when;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.BDDAssertions.then;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
@@ -62,6 +72,8 @@ class XmlMapperBuilderTest {
       assertThat(mappedStatement.getResultSetType()).isEqualTo(ResultSetType.SCROLL_SENSITIVE);
       assertThat(mappedStatement.isFlushCacheRequired()).isFalse();
       assertThat(mappedStatement.isUseCache()).isFalse();
+      assertThat(mappedStatement.getResultSizeLimit()).isEqualTo(1000);
+      assertThat(mappedStatement.getSlowQueryThreshold()).isEqualTo(250);
     }
   }
 
@@ -229,4 +241,97 @@ class XmlMapperBuilderTest {
       assertThat(exception.getMessage()).isEqualTo(message);
     }
   }
+
+  @Test
+  void shouldBuildStatementSqlOnFirstUseWhenLazy() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    String resource = "org/apache/ibatis/builder/AuthorMapper.xml";
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XMLMapperBuilder builder = new XMLMapperBuilder(inputStream, configuration, resource,
+          configuration.getSqlFragments());
+      builder.parse();
+    }
+    String mapper = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"https://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"lazy\"><select id=\"select\" resultType=\"string\">select name from t</select></mapper>";
+    try (InputStream inputStream = new ByteArrayInputStream(mapper.getBytes())) {
+      new XMLMapperBuilder(inputStream, configuration, "lazy.xml", configuration.getSqlFragments()).parse();
+    }
+
+    MappedStatement selectAllAuthors = configuration
+        .getMappedStatement("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors");
+    assertThat(selectAllAuthors.getSqlSource()).isInstanceOf(LazySqlSource.class);
+    LazySqlSource sqlSource = (LazySqlSource) selectAllAuthors.getSqlSource();
+    LazySqlSource selectAuthor = (LazySqlSource) configuration.getMappedStatement("selectAuthor").getSqlSource();
+    LazySqlSource lazySelect = (LazySqlSource) configuration.getMappedStatement("lazy.select").getSqlSource();
+    assertThat(sqlSource.isInitialized()).isFalse();
+    assertThat(selectAuthor.isInitialized()).isFalse();
+    assertThat(selectAllAuthors.getBoundSql(null).getSql()).isEqualTo("select * from author");
+    assertThat(sqlSource.isInitialized()).isTrue();
+    // 同一个映射文件中的语句一起构建
+    assertThat(selectAuthor.isInitialized()).isTrue();
+    assertThat(lazySelect.isInitialized()).isFalse();
+
+    configuration.warmUpStatements("org.apache.ibatis.domain.other");
+    assertThat(lazySelect.isInitialized()).isFalse();
+    configuration.warmUpStatements("lazy");
+    assertThat(lazySelect.isInitialized()).isTrue();
+    // 映射接口上注解声明的语句不会延迟构建
+    assertThat(configuration.getMappedStatements()).map(MappedStatement::getSqlSource)
+        .filteredOn(LazySqlSource.class::isInstance).isNotEmpty()
+        .allSatisfy(lazy -> assertThat(((LazySqlSource) lazy).isInitialized()).isTrue());
+  }
+
+  @Test
+  void shouldBuildStatementsOfOneMapperConcurrentlyWhenLazy() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    String resource = "org/apache/ibatis/builder/AuthorMapper.xml";
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+    }
+    List<MappedStatement> statements = configuration.getMappedStatements().stream()
+        .filter(ms -> ms.getSqlSource() instanceof LazySqlSource).distinct().collect(Collectors.toList());
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<SqlSource>> futures = new ArrayList<>();
+      for (MappedStatement ms : statements) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return ((LazySqlSource) ms.getSqlSource()).initialize();
+        }));
+      }
+      start.countDown();
+      for (Future<SqlSource> future : futures) {
+        assertThat(future.get(10, TimeUnit.SECONDS)).isNotNull();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldReportScriptErrorsOnFirstUseWhenLazy() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    String mapper = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"https://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"lazy\"><select id=\"select\" resultType=\"string\" lang=\"raw\">"
+        + "select name from t where id = #{id,unknownAttribute=1}</select>"
+        + "<select id=\"selectAll\" resultType=\"string\">select name from t</select></mapper>";
+    try (InputStream inputStream = new ByteArrayInputStream(mapper.getBytes())) {
+      new XMLMapperBuilder(inputStream, configuration, "lazy.xml", configuration.getSqlFragments()).parse();
+    }
+    MappedStatement ms = configuration.getMappedStatement("lazy.select");
+    BuilderException e = Assertions.assertThrows(BuilderException.class, () -> ms.getBoundSql(null));
+    assertThat(e.getMessage()).startsWith("Error building SQL for statement 'lazy.select'.")
+        .contains("unknownAttribute");
+    // 出错的语句不影响同一文件中的其他语句
+    assertThat(configuration.getMappedStatement("lazy.selectAll").getBoundSql(null).getSql())
+        .isEqualTo("select name from t");
+    Assertions.assertThrows(BuilderException.class, () -> ms.getBoundSql(null));
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MapperSnapshotTest {
+
+  private static final String MAPPER = "org/apache/ibatis/builder/AuthorMapper.xml";
+
+  // @formatter:off
+  private static final String CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+      + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"https://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+      + "<configuration>\n"
+      + "  <settings>\n"
+      + "    <setting name=\"mapperSnapshotFile\" value=\"${snapshot}\"/>\n"
+      + "  </settings>\n"
+      + "  <mappers>\n"
+      + "    <mapper resource=\"" + MAPPER + "\"/>\n"
+      + "  </mappers>\n"
+      + "</configuration>\n";
+  // @formatter:on
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldRecordValidatedMappers() throws Exception {
+    Path file = tempDir.resolve("snapshot/mappers.properties");
+    Configuration first = build(file);
+    assertThat(first.getMapperSnapshotFile()).isEqualTo(file.toString());
+
+    String checksum = checksum(MAPPER);
+    assertThat(MapperSnapshot.load(file.toString()).isValidated(MAPPER, checksum)).isTrue();
+    long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+    Configuration second = build(file);
+    assertThat(second.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(first.getMappedStatementNames());
+    assertThat(Files.getLastModifiedTime(file).toMillis()).isEqualTo(lastModified);
+  }
+
+  @Test
+  void shouldValidateChangedMappersAgain() throws Exception {
+    Path file = tempDir.resolve("mappers.properties");
+    Files.write(file, (MAPPER + "=0-0\n").getBytes());
+    assertThat(MapperSnapshot.load(file.toString()).isValidated(MAPPER, checksum(MAPPER))).isFalse();
+
+    build(file);
+    assertThat(MapperSnapshot.load(file.toString()).isValidated(MAPPER, checksum(MAPPER))).isTrue();
+  }
+
+  @Test
+  void shouldNotLeaveTemporaryFileWhenWriteFails() throws Exception {
+    // 快照路径是非空目录，替换时会失败
+    Path file = tempDir.resolve("mappers.properties");
+    Files.createDirectories(file.resolve("child"));
+    MapperSnapshot snapshot = MapperSnapshot.load(file.toString());
+    snapshot.validated(MAPPER, checksum(MAPPER));
+    snapshot.save();
+
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertThat(files).containsExactly(file);
+    }
+  }
+
+  private static Configuration build(Path file) {
+    Properties props = new Properties();
+    props.setProperty("snapshot", file.toString());
+    return new XMLConfigBuilder(new StringReader(CONFIG), null, props).parse();
+  }
+
+  private static String checksum(String resource) throws Exception {
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      return MapperSnapshot.checksum(MapperSnapshot.readAll(inputStream));
+    }
+  }
+
+}
@@ -16,6 +16,10 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -27,10 +31,12 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.scripting.xmltags.ChooseSqlNode;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.ForEachPadding;
 import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
 import org.apache.ibatis.scripting.xmltags.IfSqlNode;
 import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
@@ -282,6 +288,40 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_item_2", boundSql.getParameterMappings().get(2).getProperty());
   }
 
+  @Test
+  void shouldPadForEachToNextPowerOfTwoByRepeatingLastItem() throws Exception {
+    final HashMap<String, Integer[]> parameterObject = new HashMap<>() {
+      private static final long serialVersionUID = 1L;
+      {
+        put("array", new Integer[] { 1, 2, 3 });
+      }
+    };
+    final String expected = "SELECT * FROM BLOG WHERE id in (  ? , ? , ? , ? )";
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG WHERE id in"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "array", null, null, "item",
+            "(", ")", ",", ForEachPadding.parse("pow2")));
+    BoundSql boundSql = source.getBoundSql(parameterObject);
+    assertEquals(expected, boundSql.getSql());
+    assertEquals(4, boundSql.getParameterMappings().size());
+    assertEquals(3, boundSql.getAdditionalParameter("__frch_item_3"));
+  }
+
+  @Test
+  void shouldPadForEachToConfiguredBuckets() {
+    ForEachPadding padding = ForEachPadding.parse("10, 50");
+    assertEquals(1, padding.pad(1));
+    assertEquals(10, padding.pad(2));
+    assertEquals(50, padding.pad(11));
+    assertEquals(100, padding.pad(51));
+    assertEquals(100, padding.pad(100));
+    ForEachPadding powerOfTwo = ForEachPadding.parse("pow2");
+    assertEquals(2, powerOfTwo.pad(2));
+    assertEquals(8, powerOfTwo.pad(5));
+    assertEquals(1024, powerOfTwo.pad(1000));
+    assertNull(ForEachPadding.parse(null));
+    assertThrows(BuilderException.class, () -> ForEachPadding.parse("50,10"));
+  }
+
   @Test
   void shouldHandleOgnlExpression() throws Exception {
     final HashMap<String, String> parameterObject = new HashMap<>() {
@@ -361,6 +401,50 @@ class DynamicSqlSourceTest extends BaseDataTest {
     Assertions.assertEquals("id=", sql);
   }
 
+  @Test
+  void shouldReuseParsedSqlForSameShape() {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration,
+        mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE id = #{id}")));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    BoundSql second = source.getBoundSql(new Bean("2"));
+    assertEquals("SELECT * FROM BLOG WHERE id = ?", second.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals("2", ((Bean) second.getParameterObject()).getId());
+  }
+
+  @Test
+  void shouldNotShareParsedSqlBetweenDifferentBindingTypes() {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration,
+        mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE id in"), new ForEachSqlNode(configuration,
+            mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    Map<String, Object> integers = new HashMap<>();
+    integers.put("list", Arrays.asList(1, 2));
+    Map<String, Object> strings = new HashMap<>();
+    strings.put("list", Arrays.asList("1", "2"));
+    assertEquals(Integer.class, source.getBoundSql(integers).getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, source.getBoundSql(strings).getParameterMappings().get(0).getJavaType());
+    assertEquals(Integer.class, source.getBoundSql(integers).getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  void shouldNotCacheParsedSqlReadingIntoMapBindings() {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    final DynamicSqlSource source = new DynamicSqlSource(configuration,
+        mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE id in"), new ForEachSqlNode(configuration,
+            mixedContents(new TextSqlNode("#{item.id}")), "list", null, "item", "(", ")", ",")));
+    Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("list", Arrays.asList(Map.of("id", 1), Map.of("id", 2)));
+    BoundSql first = source.getBoundSql(parameterObject);
+    BoundSql second = source.getBoundSql(parameterObject);
+    assertEquals("SELECT * FROM BLOG WHERE id in (  ? , ? )", second.getSql());
+    assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+  }
+
   public static class Bean {
     public String id;
 
@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class LoggingCacheTest {
+
+  @Test
+  void shouldCountHitsMissesAndPuts() {
+    LoggingCache cache = new LoggingCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    cache.getObject(0);
+    cache.getObject(1);
+    cache.getObject(2);
+    CacheStatistics statistics = cache.getStatistics();
+    assertEquals(2, statistics.getHits());
+    assertEquals(1, statistics.getMisses());
+    assertEquals(3, statistics.getRequests());
+    assertEquals(2, statistics.getPuts());
+    assertEquals(2.0 / 3.0, statistics.getHitRatio(), 0.0001);
+    statistics.reset();
+    assertEquals(0, statistics.getRequests());
+    assertEquals(0, statistics.getHitRatio(), 0);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  void shouldKeepCountersForSubclasses() {
+    class CountingCache extends LoggingCache {
+      CountingCache(Cache delegate) {
+        super(delegate);
+      }
+
+      int[] counters() {
+        return new int[] { requests, hits };
+      }
+    }
+    CountingCache cache = new CountingCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    cache.getObject(0);
+    cache.getObject(1);
+    assertArrayEquals(new int[] { 2, 1 }, cache.counters());
+  }
+
+  @Test
+  void shouldCountEvictionsOfDecoratedCaches() {
+    LruCache lru = new LruCache(new PerpetualCache("lru"));
+    lru.setSize(2);
+    Cache lruCache = new SynchronizedCache(new LoggingCache(lru));
+    FifoCache fifo = new FifoCache(new PerpetualCache("fifo"));
+    fifo.setSize(2);
+    Cache fifoCache = new LoggingCache(fifo);
+    for (int i = 0; i < 5; i++) {
+      lruCache.putObject(i, i);
+      fifoCache.putObject(i, i);
+    }
+    assertEquals(3, lruCache.getStatistics().getEvictions());
+    assertEquals(5, lruCache.getStatistics().getPuts());
+    assertEquals(3, fifoCache.getStatistics().getEvictions());
+  }
+
+  @Test
+  void shouldExposeStatisticsOfBuiltCache() {
+    Cache cache = new CacheBuilder("built").size(1).build();
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    assertEquals(1, cache.getStatistics().getEvictions());
+    assertSame(cache.getStatistics(), cache.getStatistics());
+  }
+
+  @Test
+  void shouldCountConcurrentReadsWithoutLosingUpdates() throws Exception {
+    LoggingCache cache = new LoggingCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; i++) {
+            cache.getObject(i % 2);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(20000, cache.getStatistics().getHits());
+    assertEquals(20000, cache.getStatistics().getMisses());
+  }
+
+}
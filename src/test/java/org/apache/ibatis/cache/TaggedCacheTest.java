@@ -0,0 +1,189 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.ScheduledCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class TaggedCacheTest {
+
+  @Test
+  void shouldEvictOnlyEntriesOfWrittenTable() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("blogs", "b", tags("blog"));
+    cache.putObject("authors", "a", tags("author"));
+    cache.invalidate(tags("author"));
+    assertNotNull(cache.getObject("blogs"));
+    assertNull(cache.getObject("authors"));
+    assertEquals(1, cache.getIndexedKeyCount());
+  }
+
+  @Test
+  void shouldEvictOnlyEntriesOfWrittenKey() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("blog1", "b1", tags("blog:1"));
+    cache.putObject("blog2", "b2", tags("blog:2"));
+    cache.putObject("blogs", "b", tags("blog"));
+    cache.invalidate(tags("blog:1"));
+    assertNull(cache.getObject("blog1"));
+    assertNotNull(cache.getObject("blog2"));
+    assertNull(cache.getObject("blogs"));
+  }
+
+  @Test
+  void shouldEvictAllKeysOfWrittenTable() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("blog1", "b1", tags("blog:1"));
+    cache.putObject("blog2", "b2", tags("blog:2"));
+    cache.invalidate(tags("blog"));
+    assertNull(cache.getObject("blog1"));
+    assertNull(cache.getObject("blog2"));
+    assertEquals(0, cache.getIndexedKeyCount());
+  }
+
+  @Test
+  void shouldEvictUntaggedEntriesOnAnyWrite() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("unknown", "u");
+    cache.putObject("blogs", "b", tags("blog"));
+    cache.invalidate(tags("author"));
+    assertNull(cache.getObject("unknown"));
+    assertNotNull(cache.getObject("blogs"));
+  }
+
+  @Test
+  void shouldClearWhenIndexIsFull() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.setMaxIndexedKeys(2);
+    cache.putObject(1, 1, tags("blog"));
+    cache.putObject(2, 2, tags("blog"));
+    assertEquals(2, cache.getSize());
+    cache.putObject(3, 3, tags("blog"));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getIndexedKeyCount());
+  }
+
+  @Test
+  void shouldUnindexKeysEvictedByLru() {
+    LruCache lru = new LruCache(new PerpetualCache("default"));
+    lru.setSize(2);
+    TaggedCache cache = new TaggedCache(new LoggingCache(lru));
+    cache.setMaxIndexedKeys(4);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, i, tags("blog:" + i));
+    }
+    // 淘汰的key已从索引中删除，不会因为索引过大而清空缓存
+    assertEquals(2, cache.getSize());
+    assertEquals(2, cache.getIndexedKeyCount());
+    assertNotNull(cache.getObject(8));
+    assertNotNull(cache.getObject(9));
+    assertEquals(8, cache.getStatistics().getEvictions());
+  }
+
+  @Test
+  void shouldUnindexAllKeysWhenScheduledCacheExpires() throws Exception {
+    ScheduledCache scheduled = new ScheduledCache(new PerpetualCache("default"));
+    scheduled.setClearInterval(50);
+    TaggedCache cache = new TaggedCache(new LoggingCache(scheduled));
+    cache.putObject(1, 1, tags("blog"));
+    cache.putObject(2, 2, tags("blog"));
+    Thread.sleep(100);
+    cache.putObject(3, 3, tags("blog"));
+    assertEquals(1, cache.getSize());
+    assertEquals(1, cache.getIndexedKeyCount());
+    cache.invalidate(tags("blog"));
+    assertNull(cache.getObject(3));
+  }
+
+  @Test
+  void shouldKeepIndexOfKeyPutAgainAfterEviction() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("blogs", "b1", tags("blog"));
+    // 淘汰事件在重新放入之前发生，清理索引时不能删除新放入的缓存项
+    cache.onEviction("blogs");
+    cache.putObject("blogs", "b2", tags("blog"));
+    assertEquals(1, cache.getIndexedKeyCount());
+    cache.invalidate(tags("blog"));
+    assertNull(cache.getObject("blogs"));
+  }
+
+  @Test
+  void shouldRemoveEntriesBelowBlockingCache() {
+    PerpetualCache entries = new PerpetualCache("default");
+    TaggedCache cache = new TaggedCache(new BlockingCache(entries), entries);
+    assertNull(cache.getObject("blogs"));
+    cache.putObject("blogs", "b", tags("blog"));
+    cache.invalidate(tags("blog"));
+    assertNull(entries.getObject("blogs"));
+  }
+
+  @Test
+  void shouldTellWhetherReadTagsAreAffected() {
+    assertTrue(TaggedCache.isAffected(tags("blog:1"), tags("blog")));
+    assertTrue(TaggedCache.isAffected(tags("blog"), tags("blog:1")));
+    assertTrue(TaggedCache.isAffected(null, tags("blog")));
+    assertFalse(TaggedCache.isAffected(tags("blog:1"), tags("blog:2")));
+    assertFalse(TaggedCache.isAffected(tags("blog", "post"), tags("author")));
+  }
+
+  @Test
+  void shouldApplyTagsOnCommit() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("blog1", "b1", tags("blog:1"));
+    cache.putObject("blog2", "b2", tags("blog:2"));
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    transactionalCache.invalidate(tags("blog:1"));
+    // 事务提交前，被写过的缓存项对当前事务不可见
+    assertNull(transactionalCache.getObject("blog1"));
+    assertNotNull(transactionalCache.getObject("blog2"));
+    assertNotNull(cache.getObject("blog1"));
+    transactionalCache.commit();
+    assertNull(cache.getObject("blog1"));
+    assertNotNull(cache.getObject("blog2"));
+  }
+
+  @Test
+  void shouldClearOnCommitWhenTagsAreUnknown() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("blog2", "b2", tags("blog:2"));
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    transactionalCache.invalidate(Collections.emptySet());
+    transactionalCache.commit();
+    assertNull(cache.getObject("blog2"));
+  }
+
+  private static Set<String> tags(String... tags) {
+    return new HashSet<>(Arrays.asList(tags));
+  }
+
+}
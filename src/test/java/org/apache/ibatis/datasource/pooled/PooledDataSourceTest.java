@@ -21,6 +21,8 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -158,4 +160,73 @@ class PooledDataSourceTest {
     assertEquals(0, poolState.getActiveConnectionCount());
     assertEquals(0, poolState.getIdleConnectionCount());
   }
+
+  @Test
+  void shouldReusePreparedStatementAcrossCheckouts() throws Exception {
+    dataSource.setPoolMaximumCachedStatements(2);
+    PoolState poolState = dataSource.getPoolState();
+
+    Connection connection = dataSource.getConnection();
+    PreparedStatement first = connection.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+    first.close();
+    assertTrue(first.isClosed());
+    connection.close();
+
+    connection = dataSource.getConnection();
+    try (PreparedStatement second = connection.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+        ResultSet rs = second.executeQuery()) {
+      assertTrue(rs.next());
+      assertEquals(1, rs.getInt(1));
+    }
+    connection.prepareStatement("SELECT 2 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+    connection.prepareStatement("SELECT 3 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+    connection.close();
+
+    assertEquals(1, poolState.getStatementCacheHitCount());
+    assertEquals(3, poolState.getStatementCacheMissCount());
+    assertEquals(1, poolState.getStatementCacheEvictionCount());
+  }
+
+  @Test
+  void shouldNotShareStatementInUse() throws Exception {
+    dataSource.setPoolMaximumCachedStatements(2);
+    PoolState poolState = dataSource.getPoolState();
+
+    try (Connection connection = dataSource.getConnection()) {
+      PreparedStatement outer = connection.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      PreparedStatement inner = connection.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      assertNotEquals(outer, inner);
+      inner.close();
+      outer.close();
+    }
+
+    assertEquals(0, poolState.getStatementCacheHitCount());
+    assertEquals(2, poolState.getStatementCacheMissCount());
+  }
+
+  @Test
+  void shouldCloseCachedStatementsWhenPoolIsClosed() throws Exception {
+    dataSource.setPoolMaximumCachedStatements(2);
+
+    Connection connection = dataSource.getConnection();
+    PreparedStatement idle = connection.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+    PreparedStatement idleTarget = idle.unwrap(PreparedStatement.class);
+    idle.close();
+    PreparedStatement inUse = connection.prepareStatement("SELECT 2 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+    PreparedStatement inUseTarget = inUse.unwrap(PreparedStatement.class);
+    connection.close();
+
+    PooledStatementCache statementCache = dataSource.getPoolState().idleConnections.get(0).getStatementCache();
+    assertEquals(1, statementCache.size());
+    assertFalse(idleTarget.isClosed());
+
+    dataSource.forceCloseAll();
+    assertEquals(0, statementCache.size());
+    assertTrue(idleTarget.isClosed());
+
+    // 连接池关闭之后归还的Statement不再放入缓存
+    inUse.close();
+    assertEquals(0, statementCache.size());
+    assertTrue(inUseTarget.isClosed());
+  }
 }
@@ -0,0 +1,134 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CacheTagResolverTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldInferTablesOfSelect() {
+    assertThat(CacheTagResolver
+        .inferTables("SELECT b.id, a.username FROM Blog b INNER JOIN author AS a ON b.author_id = a.id WHERE b.id = ?"))
+            .containsExactly("blog", "author");
+  }
+
+  @Test
+  void shouldInferCommaSeparatedAndQualifiedTables() {
+    assertThat(CacheTagResolver.inferTables("select * from blog.\"POST\" p, comment c, tag where p.id = c.post_id"))
+        .containsExactly("post", "comment", "tag");
+  }
+
+  @Test
+  void shouldInferTablesOfSubqueries() {
+    assertThat(CacheTagResolver
+        .inferTables("select * from blog where author_id in (select id from author where username = 'from x')"))
+            .containsExactly("blog", "author");
+  }
+
+  @Test
+  void shouldInferWrittenTables() {
+    assertThat(CacheTagResolver.inferTables("insert into Author (id, username) values (?, ?)"))
+        .containsExactly("author");
+    assertThat(CacheTagResolver.inferTables("update author set username = ? where id = ?")).containsExactly("author");
+    assertThat(CacheTagResolver.inferTables("delete from author where id = ?")).containsExactly("author");
+  }
+
+  @Test
+  void shouldInferNothingFromProcedureCall() {
+    assertThat(CacheTagResolver.inferTables("{call update_author(?, ?)}")).isEmpty();
+  }
+
+  @Test
+  void shouldResolveKeyFromParameterProperty() {
+    Author author = new Author(101);
+    assertThat(resolve("author:{id}", author)).containsExactly("author:101");
+  }
+
+  @Test
+  void shouldResolveKeyFromSimpleParameter() {
+    assertThat(resolve("Blog:{id}, author", 1)).containsExactly("blog:1", "author");
+  }
+
+  @Test
+  void shouldResolveKeysFromCollection() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("ids", Arrays.asList(1, 2));
+    assertThat(resolve("blog:{ids}", parameter)).containsExactly("blog:1", "blog:2");
+  }
+
+  @Test
+  void shouldFallBackToTableWhenKeyIsUnknown() {
+    assertThat(resolve("blog:{id}", new HashMap<>())).containsExactly("blog");
+    assertThat(resolve("blog:{id}", null)).containsExactly("blog");
+  }
+
+  @Test
+  void shouldPreferDeclaredTagsOverInference() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectBlog",
+        new StaticSqlSource(configuration, "select * from blog_view where id = ?"), SqlCommandType.SELECT)
+            .cacheTags("blog:{id}").build();
+    assertThat(CacheTagResolver.resolve(ms, 3, null)).containsExactly("blog:3");
+  }
+
+  @Test
+  void shouldInferTagsWithoutDeclaration() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectBlog",
+        new StaticSqlSource(configuration, "select * from blog where id = ?"), SqlCommandType.SELECT).build();
+    assertThat(CacheTagResolver.resolve(ms, 3, null)).containsExactly("blog");
+  }
+
+  @Test
+  void shouldRememberTablesOfStaticSql() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectBlog",
+        new StaticSqlSource(configuration, "select * from blog where id = ?"), SqlCommandType.SELECT).build();
+    Set<String> tables = CacheTagResolver.resolve(ms, 3, null);
+    assertThat(ms.getInferredCacheTags()).isSameAs(tables);
+    assertThat(CacheTagResolver.resolve(ms, 4, null)).isSameAs(tables);
+  }
+
+  @Test
+  void shouldInferTablesOfDynamicSqlOnEveryUse() {
+    SqlSource sqlSource = parameter -> new StaticSqlSource(configuration,
+        "select * from " + parameter + " where id = ?").getBoundSql(parameter);
+    MappedStatement ms = new MappedStatement.Builder(configuration, "selectAny", sqlSource, SqlCommandType.SELECT)
+        .build();
+    assertThat(CacheTagResolver.resolve(ms, "blog", null)).containsExactly("blog");
+    assertThat(CacheTagResolver.resolve(ms, "author", null)).containsExactly("author");
+    assertThat(ms.getInferredCacheTags()).isNull();
+  }
+
+  private Set<String> resolve(String declaredTags, Object parameter) {
+    String[] tags = Arrays.stream(declaredTags.split(",")).map(String::trim).toArray(String[]::new);
+    return CacheTagResolver.resolveDeclaredTags(configuration, tags, parameter, null);
+  }
+
+}
@@ -16,6 +16,10 @@
 package org.apache.ibatis.executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -55,4 +59,29 @@ class ErrorContextTest {
     assertEquals(outer, recalled);
     assertEquals(outer, ErrorContext.instance());
   }
+
+  @Test
+  void detachedContextShouldNotReplaceThreadContext() {
+    ErrorContext threadContext = ErrorContext.instance();
+    ErrorContext detached = ErrorContext.detached();
+    assertNotSame(threadContext, detached);
+    detached.activity("detached activity").reset();
+    assertSame(threadContext, ErrorContext.instance());
+  }
+
+  @Test
+  void verifyDetachedStoreRecall() {
+    ErrorContext context = ErrorContext.detached();
+    context.resource("outer.xml").activity("outer activity");
+    assertSame(context, context.store());
+    assertFalse(context.toString().contains("outer.xml"));
+    context.activity("inner activity");
+    assertTrue(context.toString().contains("inner activity"));
+    assertSame(context, context.recall());
+    assertTrue(context.toString().contains("outer.xml"));
+    assertTrue(context.toString().contains("outer activity"));
+    assertFalse(context.toString().contains("inner activity"));
+    context.store().reset();
+    assertEquals("", context.recall().toString().trim());
+  }
 }
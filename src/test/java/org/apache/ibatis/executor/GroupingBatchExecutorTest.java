@@ -0,0 +1,69 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.jupiter.api.Test;
+
+class GroupingBatchExecutorTest extends BaseExecutorTest {
+
+  @Test
+  void shouldGroupInterleavedStatementsInFirstSeenOrder() throws Exception {
+    DataSource ds = createBlogDataSource();
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement updateStatement = ExecutorTestHelper.prepareUpdateAuthorMappedStatement(config);
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      Author first = new Author(97, "first", "******", "first@apache.org", null, Section.NEWS);
+      Author second = new Author(98, "second", "******", "second@apache.org", null, Section.NEWS);
+      executor.update(insertStatement, first);
+      executor.update(updateStatement, new Author(97, "first-updated", "******", "first@apache.org", "", null));
+      executor.update(insertStatement, second);
+      executor.update(updateStatement, new Author(98, "second-updated", "******", "second@apache.org", "", null));
+
+      List<BatchResult> results = executor.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(insertStatement, results.get(0).getMappedStatement());
+      assertEquals(2, results.get(0).getParameterObjects().size());
+      assertEquals(updateStatement, results.get(1).getMappedStatement());
+      assertEquals(2, results.get(1).getParameterObjects().size());
+
+      List<Author> authors = executor.query(selectStatement, 98, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(1, authors.size());
+      assertEquals("second-updated", authors.get(0).getUsername());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Override
+  protected Executor createExecutor(Transaction transaction) {
+    return new GroupingBatchExecutor(config, transaction);
+  }
+}
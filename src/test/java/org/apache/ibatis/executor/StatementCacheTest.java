@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+
+  @Test
+  void shouldEvictAndCloseLeastRecentlyUsedStatement() throws SQLException {
+    StatementCache cache = new StatementCache(2);
+    Statement first = openStatement();
+    Statement second = openStatement();
+    Statement third = openStatement();
+    cache.put("first", first);
+    cache.put("second", second);
+    assertSame(first, cache.get("first"));
+    cache.put("third", third);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    verify(second).close();
+    verify(first, never()).close();
+    assertNull(cache.get("second"));
+    assertSame(third, cache.get("third"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void shouldDiscardStatementOfClosedConnection() throws SQLException {
+    StatementCache cache = new StatementCache(null);
+    Statement statement = openStatement();
+    cache.put("sql", statement);
+    when(statement.getConnection().isClosed()).thenReturn(true);
+
+    assertNull(cache.get("sql"));
+    assertEquals(0, cache.size());
+    verify(statement).close();
+  }
+
+  @Test
+  void shouldCloseAllStatementsOnClear() throws SQLException {
+    StatementCache cache = new StatementCache(null);
+    Statement first = openStatement();
+    Statement second = openStatement();
+    cache.put("first", first);
+    cache.put("second", second);
+    cache.clear();
+
+    assertEquals(0, cache.size());
+    verify(first).close();
+    verify(second).close();
+  }
+
+  @Test
+  void shouldCloseEvictedStatementOnlyWhenReleased() throws SQLException {
+    StatementCache cache = new StatementCache(1);
+    Statement outer = openStatement();
+    Statement nested = openStatement();
+    cache.put("outer", outer);
+    cache.acquire(outer);
+    assertNull(cache.get("outer"));
+    cache.put("nested", nested);
+
+    assertEquals(1, cache.getEvictionCount());
+    verify(outer, never()).close();
+    cache.release(outer);
+    verify(outer).close();
+  }
+
+  @Test
+  void shouldNotReturnStatementInUse() throws SQLException {
+    StatementCache cache = new StatementCache(null);
+    Statement outer = openStatement();
+    Statement inner = openStatement();
+    cache.put("sql", outer);
+    cache.acquire(outer);
+    assertNull(cache.get("sql"));
+    cache.put("sql", inner);
+
+    verify(outer, never()).close();
+    cache.release(outer);
+    verify(outer).close();
+    assertSame(inner, cache.get("sql"));
+  }
+
+  private static Statement openStatement() throws SQLException {
+    Statement statement = mock(Statement.class);
+    Connection connection = mock(Connection.class);
+    when(statement.getConnection()).thenReturn(connection);
+    return statement;
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class AllocationProfilerTest {
+
+  @Test
+  void shouldAverageSampledAllocations() {
+    AllocationProfiler profiler = new AllocationProfiler();
+    StatementAllocations allocations = profiler.getStatementAllocations("select");
+    allocations.record(AllocationPhase.MAP, 1000);
+    allocations.record(AllocationPhase.MAP, 3000);
+    allocations.record(AllocationPhase.TOTAL, 5000);
+
+    StatementAllocationSnapshot snapshot = profiler.getSnapshot("select");
+    assertThat(snapshot.getSamples(AllocationPhase.MAP)).isEqualTo(2);
+    assertThat(snapshot.getAllocatedBytes(AllocationPhase.MAP)).isEqualTo(4000);
+    assertThat(snapshot.getAverageBytes(AllocationPhase.MAP)).isEqualTo(2000);
+    assertThat(snapshot.getAverageBytes(AllocationPhase.BIND)).isZero();
+    assertThat(profiler.getSnapshot("update")).isNull();
+  }
+
+  @Test
+  void shouldSortSnapshotsByTotalAllocatedBytes() {
+    AllocationProfiler profiler = new AllocationProfiler();
+    profiler.getStatementAllocations("small").record(AllocationPhase.TOTAL, 100);
+    profiler.getStatementAllocations("large").record(AllocationPhase.TOTAL, 10_000);
+    profiler.getStatementAllocations("medium").record(AllocationPhase.TOTAL, 1000);
+
+    assertThat(profiler.getSnapshots()).extracting(StatementAllocationSnapshot::getStatementId).containsExactly("large",
+        "medium", "small");
+
+    profiler.reset();
+    assertThat(profiler.getSnapshots()).isEmpty();
+  }
+
+  @Test
+  void shouldRejectInvalidSampling() {
+    AllocationProfiler profiler = new AllocationProfiler();
+    assertThatThrownBy(() -> profiler.setSampling(0)).isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Allocation profiling sampling must be at least 1 but was 0");
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void shouldPlaceLatenciesInExponentialBuckets() {
+    assertThat(LatencyHistogram.bucketIndex(0)).isZero();
+    assertThat(LatencyHistogram.bucketIndex(1023)).isZero();
+    assertThat(LatencyHistogram.bucketIndex(1024)).isEqualTo(1);
+    assertThat(LatencyHistogram.bucketIndex(2047)).isEqualTo(1);
+    assertThat(LatencyHistogram.bucketIndex(2048)).isEqualTo(2);
+    assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    assertThat(LatencyHistogram.bucketUpperBound(1)).isEqualTo(2048);
+  }
+
+  @Test
+  void shouldEstimatePercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(1500);
+    }
+    histogram.record(1_000_000);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount()).isEqualTo(100);
+    assertThat(snapshot.getMaxNanos()).isEqualTo(1_000_000);
+    assertThat(snapshot.getTotalNanos()).isEqualTo(99 * 1500 + 1_000_000);
+    assertThat(snapshot.getPercentileNanos(50)).isEqualTo(2048);
+    assertThat(snapshot.getPercentileNanos(99)).isEqualTo(2048);
+    assertThat(snapshot.getPercentileNanos(100)).isEqualTo(1_000_000);
+    assertThat(new LatencyHistogram().snapshot().getPercentileNanos(99)).isZero();
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class PaginationDialectTest {
+
+  @Test
+  void limitOffsetDialect() {
+    PaginationDialect dialect = new LimitOffsetDialect();
+    List<Object> parameters = new ArrayList<>();
+    assertThat(dialect.getPagedSql("select * from t ;\n", 10, 5, parameters))
+        .isEqualTo("select * from t LIMIT ? OFFSET ?");
+    assertThat(parameters).containsExactly(5, 10);
+    parameters.clear();
+    assertThat(dialect.getPagedSql("select * from t", 0, 5, parameters)).isEqualTo("select * from t LIMIT ?");
+    assertThat(parameters).containsExactly(5);
+    parameters.clear();
+    assertThat(dialect.getPagedSql("select * from t", 3, RowBounds.NO_ROW_LIMIT, parameters))
+        .isEqualTo("select * from t LIMIT ? OFFSET ?");
+    assertThat(parameters).containsExactly(RowBounds.NO_ROW_LIMIT, 3);
+    assertThat(dialect.getPagedSql("select * from t where id = ? for update", 0, 5, new ArrayList<>())).isNull();
+  }
+
+  @Test
+  void offsetFetchDialect() {
+    PaginationDialect dialect = new OffsetFetchDialect();
+    List<Object> parameters = new ArrayList<>();
+    assertThat(dialect.getPagedSql("select * from t order by id", 10, 5, parameters))
+        .isEqualTo("select * from t order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+    assertThat(parameters).containsExactly(10, 5);
+    parameters.clear();
+    assertThat(dialect.getPagedSql("select * from t order by id", 3, RowBounds.NO_ROW_LIMIT, parameters))
+        .isEqualTo("select * from t order by id OFFSET ? ROWS");
+    assertThat(parameters).containsExactly(3);
+    parameters.clear();
+    assertThat(dialect.getKeysetSql("select id from t", "id", true, 7L, 20, parameters))
+        .isEqualTo("select * from (select id from t) mybatis_keyset where mybatis_keyset.id < ?"
+            + " order by mybatis_keyset.id desc OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+    assertThat(parameters).containsExactly(7L, 0, 20);
+  }
+
+  @Test
+  void offsetFetchDialectShouldSkipUnorderedQueriesWhenOrderByIsRequired() {
+    PaginationDialect dialect = new OffsetFetchDialect(true);
+    List<Object> parameters = new ArrayList<>();
+    assertThat(dialect.getPagedSql("select * from t ORDER  BY id", 10, 5, parameters))
+        .isEqualTo("select * from t ORDER  BY id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+    assertThat(dialect.getPagedSql("select * from t", 10, 5, parameters)).isNull();
+    assertThat(dialect.getPagedSql("select * from (select * from t order by id) x", 10, 5, parameters)).isNull();
+    assertThat(dialect.getPagedSql("select * from t where name = 'order by'", 10, 5, parameters)).isNull();
+    assertThat(dialect.getPagedSql("select * from t_reorder by_name", 10, 5, parameters)).isNull();
+    parameters.clear();
+    assertThat(dialect.getKeysetSql("select id from t", "id", false, null, 20, parameters))
+        .isEqualTo("select * from (select id from t) mybatis_keyset"
+            + " order by mybatis_keyset.id asc OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+    assertThat(parameters).containsExactly(0, 20);
+  }
+
+  @Test
+  void dialectsShouldNotPageQueriesThatAreAlreadyPaged() {
+    PaginationDialect limitOffset = new LimitOffsetDialect();
+    PaginationDialect offsetFetch = new OffsetFetchDialect();
+    List<Object> parameters = new ArrayList<>();
+    assertThat(limitOffset.getPagedSql("select * from t order by id limit 10", 0, 5, parameters)).isNull();
+    assertThat(limitOffset.getPagedSql("select * from t order by id LIMIT ? OFFSET ?", 0, 5, parameters)).isNull();
+    assertThat(offsetFetch.getPagedSql("select * from t order by id fetch first 10 rows only", 0, 5, parameters))
+        .isNull();
+    assertThat(offsetFetch.getPagedSql("select * from t order by id offset 10 rows", 0, 5, parameters)).isNull();
+    // 子查询和字符串常量中的分页子句不影响改写
+    parameters.clear();
+    assertThat(limitOffset.getPagedSql("select * from (select * from t limit 10) x where name <> 'limit'", 0, 5,
+        parameters)).isEqualTo("select * from (select * from t limit 10) x where name <> 'limit' LIMIT ?");
+    assertThat(limitOffset.getPagedSql("select * from t_limit", 0, 5, new ArrayList<>()))
+        .isEqualTo("select * from t_limit LIMIT ?");
+  }
+
+  @Test
+  void registryShouldResolveDatabaseIdsAndProductNames() {
+    PaginationDialectRegistry registry = new PaginationDialectRegistry();
+    assertThat(registry.getDialect("h2")).isInstanceOf(LimitOffsetDialect.class);
+    assertThat(registry.getDialect("HSQL Database Engine")).isInstanceOf(LimitOffsetDialect.class);
+    assertThat(registry.getDialect("PostgreSQL")).isInstanceOf(LimitOffsetDialect.class);
+    assertThat(registry.getDialect("Apache Derby")).isInstanceOf(OffsetFetchDialect.class);
+    assertThat(registry.getDialect("Microsoft SQL Server")).isInstanceOf(OffsetFetchDialect.class);
+    assertThat(registry.getDialect("sqlserver").getPagedSql("select * from t", 0, 5, new ArrayList<>())).isNull();
+    assertThat(registry.getDialect("oracle").getPagedSql("select * from t", 0, 5, new ArrayList<>()))
+        .isEqualTo("select * from t OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+    assertThat(registry.getDialect("DB2/LINUXX8664")).isInstanceOf(OffsetFetchDialect.class);
+    assertThat(registry.getDialect("unknown")).isNull();
+    assertThat(registry.getDialect(null)).isNull();
+
+    PaginationDialect custom = (sql, offset, limit, parameters) -> sql;
+    registry.register("unknown", custom);
+    assertThat(registry.getDialect("unknown")).isSameAs(custom);
+  }
+
+  @Test
+  void keysetRowBoundsShouldRejectInvalidColumns() {
+    assertThatThrownBy(() -> new KeysetRowBounds("id; drop table t", 1, 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(new KeysetRowBounds("id", 1, 10).getOffset()).isZero();
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.jdbc.StatementTracer;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TracingStatementHandlerTest {
+
+  @Mock
+  StatementHandler delegate;
+
+  @Mock
+  StatementTracer tracer;
+
+  @Mock
+  Statement statement;
+
+  private final Configuration configuration = new Configuration();
+
+  private TracingStatementHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "id", new StaticSqlSource(configuration, "sql"),
+        SqlCommandType.SELECT).build();
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 10);
+    parameter.put("name", "a");
+    BoundSql boundSql = new BoundSql(configuration, "select * from t where id = ? and name = ?",
+        Arrays.asList(new ParameterMapping.Builder(configuration, "id", Integer.class).build(),
+            new ParameterMapping.Builder(configuration, "name", String.class).build()),
+        parameter);
+    when(delegate.getBoundSql()).thenReturn(boundSql);
+    handler = new TracingStatementHandler(delegate, ms, tracer);
+  }
+
+  @Test
+  void shouldTraceQueryWithRowCountAndBindValues() throws SQLException {
+    when(delegate.query(statement, null)).thenReturn(Arrays.asList("x", "y"));
+
+    handler.query(statement, null);
+
+    verify(tracer).trace(any(Log.class), eq("select * from t where id = ? and name = ?"), eq(Arrays.asList(10, "a")),
+        eq(2), anyLong(), isNull());
+  }
+
+  @Test
+  void shouldTraceQueryWithResultHandlerWithoutRowCount() throws SQLException {
+    handler.query(statement, context -> {
+    });
+
+    verify(tracer).trace(any(Log.class), any(), any(), eq(StatementTracer.UNKNOWN_ROWS), anyLong(), isNull());
+  }
+
+  @Test
+  void shouldTraceUpdateFailures() throws SQLException {
+    SQLException failure = new SQLException("failed");
+    when(delegate.update(statement)).thenThrow(failure);
+
+    assertThatThrownBy(() -> handler.update(statement)).isSameAs(failure);
+
+    verify(tracer).trace(any(Log.class), any(), eq(Arrays.asList(10, "a")), eq(StatementTracer.UNKNOWN_ROWS), anyLong(),
+        eq(failure));
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClassIndexProcessorTest {
+
+  @Test
+  void shouldWriteIndexOfCompiledClasses(@TempDir Path dir) throws Exception {
+    List<String> index = compile(dir);
+    assertEquals(Arrays.asList("com.example.Mapper", "com.example.Mapper$Nested", "com.example.model.User",
+        "org.other.Ignored"), index);
+  }
+
+  @Test
+  void shouldRestrictIndexToConfiguredPackages(@TempDir Path dir) throws Exception {
+    List<String> index = compile(dir, "-A" + ClassIndexProcessor.PACKAGES_OPTION + "=com.example.model, org.other");
+    assertEquals(Arrays.asList("com.example.model.User", "org.other.Ignored"), index);
+  }
+
+  @Test
+  void shouldKeepClassesOfPreviousIndexOnIncrementalCompilation(@TempDir Path dir) throws Exception {
+    Path src = dir.resolve("src");
+    Path out = dir.resolve("out");
+    Files.createDirectories(out);
+    Path mapper = write(src.resolve("com/example/Mapper.java"), "package com.example; public interface Mapper {}");
+    Path user = write(src.resolve("com/example/model/User.java"), "package com.example.model; public class User {}");
+    Path removed = write(src.resolve("com/example/Removed.java"), "package com.example; class Removed {}");
+    assertEquals(0, run(out, "-proc:none", mapper.toString(), user.toString(), removed.toString()));
+    Files.delete(out.resolve("com/example/Removed.class"));
+    Files.createDirectories(out.resolve(ClassIndex.INDEX_LOCATION).getParent());
+    Files.write(out.resolve(ClassIndex.INDEX_LOCATION),
+        Arrays.asList("# previous", "com.example.Mapper", "com.example.Removed", "com.example.model.User"));
+
+    // 只重新编译修改过的源文件
+    Path added = write(src.resolve("com/example/Added.java"), "package com.example; class Added {}");
+    assertEquals(0, run(out, "-processor", ClassIndexProcessor.class.getName(), mapper.toString(), added.toString()));
+
+    assertEquals(Arrays.asList("com.example.Added", "com.example.Mapper", "com.example.model.User"),
+        readIndex(out));
+  }
+
+  private int run(Path out, String... args) {
+    List<String> all = new ArrayList<>(Arrays.asList("-d", out.toString(), "-cp", out.toString(), "-processorpath",
+        System.getProperty("java.class.path")));
+    all.addAll(Arrays.asList(args));
+    return ToolProvider.getSystemJavaCompiler().run(null, null, null, all.toArray(new String[0]));
+  }
+
+  private static List<String> readIndex(Path out) throws Exception {
+    return Files.readAllLines(out.resolve(ClassIndex.INDEX_LOCATION)).stream().filter(line -> !line.startsWith("#"))
+        .collect(Collectors.toList());
+  }
+
+  private List<String> compile(Path dir, String... options) throws Exception {
+    Path src = dir.resolve("src");
+    Path out = dir.resolve("out");
+    Files.createDirectories(out);
+    Path mapper = write(src.resolve("com/example/Mapper.java"),
+        "package com.example; public interface Mapper { class Nested {} }");
+    Path user = write(src.resolve("com/example/model/User.java"), "package com.example.model; public class User {}");
+    Path other = write(src.resolve("org/other/Ignored.java"), "package org.other; class Ignored {}");
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    List<String> args = new ArrayList<>(Arrays.asList("-d", out.toString(), "-proc:only", "-processorpath",
+        System.getProperty("java.class.path"), "-processor", ClassIndexProcessor.class.getName()));
+    args.addAll(Arrays.asList(options));
+    args.addAll(Arrays.asList(mapper.toString(), user.toString(), other.toString()));
+    assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])));
+
+    Path index = out.resolve(ClassIndex.INDEX_LOCATION);
+    assertTrue(Files.exists(index));
+    return Files.readAllLines(index).stream().filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+  }
+
+  private static Path write(Path file, String source) throws Exception {
+    Files.createDirectories(file.getParent());
+    return Files.write(file, source.getBytes());
+  }
+}
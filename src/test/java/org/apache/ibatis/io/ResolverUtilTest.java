@@ -16,18 +16,32 @@
 package org.apache.ibatis.io;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.parsing.XPathParser;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Unit tests for {@link ResolverUtil}.
@@ -147,6 +161,108 @@ class ResolverUtilTest {
     assertTrue(annotatedWith.toString().contains("@" + CacheNamespace.class.getSimpleName()));
   }
 
+  @Test
+  void findFromClassIndex(@TempDir Path dir) throws Exception {
+    // jar中的索引是可信的，未列入索引的类不会被扫描
+    Path jar = dir.resolve("indexed.jar");
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (String entry : Arrays.asList("META-INF/", "META-INF/mybatis/", "org/", "org/apache/", "org/apache/ibatis/",
+          "org/apache/ibatis/io/")) {
+        out.putNextEntry(new JarEntry(entry));
+        out.closeEntry();
+      }
+      out.putNextEntry(new JarEntry(ClassIndex.INDEX_LOCATION));
+      out.write(String.join("\n", "# test index", DefaultVFS.class.getName(), ResolverUtil.class.getName(),
+          ResolverUtilTest.class.getName() + "$TestMapper").getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+      out.putNextEntry(new JarEntry("org/apache/ibatis/io/Unlisted.class"));
+      out.write(0);
+      out.closeEntry();
+    }
+    // 目录中的索引可能是增量编译生成的，目录总是会被扫描
+    Path classes = dir.resolve("classes");
+    Path index = classes.resolve(ClassIndex.INDEX_LOCATION);
+    Files.createDirectories(index.getParent());
+    Files.write(index, Arrays.asList(DefaultVFS.class.getName()));
+    Path recompiled = classes.resolve("org/apache/ibatis/io/Recompiled.class");
+    Files.createDirectories(recompiled.getParent());
+    Files.write(recompiled, new byte[] { 0 });
+    Thread thread = Thread.currentThread();
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { jar.toUri().toURL(), classes.toUri().toURL() },
+        currentContextClassLoader)) {
+      thread.setContextClassLoader(loader);
+      List<String> checked = new ArrayList<>();
+      ResolverUtil<VFS> resolverUtil = new ResolverUtil<VFS>() {
+        @Override
+        protected void addIfMatching(ResolverUtil.Test test, String fqn) {
+          checked.add(fqn);
+          super.addIfMatching(test, fqn);
+        }
+      };
+      resolverUtil.setClassLoader(loader);
+      resolverUtil.findImplementations(VFS.class, "org.apache.ibatis.io");
+      // 没有索引的位置（这里是编译输出目录）仍然会被扫描并与索引合并
+      assertTrue(resolverUtil.getClasses().contains(DefaultVFS.class));
+      assertTrue(resolverUtil.getClasses().contains(JBoss6VFS.class));
+      assertFalse(checked.contains("org/apache/ibatis/io/Unlisted.class"));
+      assertTrue(checked.contains("org/apache/ibatis/io/Recompiled.class"));
+      assertEquals(checked.size(), new HashSet<>(checked).size());
+
+      ResolverUtil<Object> annotated = new ResolverUtil<>();
+      annotated.setClassLoader(loader);
+      annotated.findAnnotated(CacheNamespace.class, "org.apache.ibatis");
+      assertTrue(annotated.getClasses().contains(TestMapper.class));
+
+      // 索引中没有该包下的类时扫描类路径
+      ResolverUtil<Object> scanned = new ResolverUtil<>();
+      scanned.setClassLoader(loader);
+      scanned.findImplementations(Object.class, "org.apache.ibatis.parsing");
+      assertTrue(scanned.getClasses().contains(XPathParser.class));
+    } finally {
+      thread.setContextClassLoader(currentContextClassLoader);
+    }
+  }
+
+  @Test
+  void classIndexShouldOnlyCoverPackagesListedForItsOwnJar(@TempDir Path dir) throws Exception {
+    Path jar = dir.resolve("indexed.jar");
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry(ClassIndex.INDEX_LOCATION));
+      out.write("a.b.C".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    Path classes = dir.resolve("classes");
+    Path index = classes.resolve(ClassIndex.INDEX_LOCATION);
+    Files.createDirectories(index.getParent());
+    Files.write(index, Arrays.asList("d.e.F"));
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { jar.toUri().toURL(), classes.toUri().toURL() },
+        null)) {
+      ClassIndex classIndex = ClassIndex.load(loader);
+      URL root = new URL("jar:" + jar.toUri().toURL() + "!/");
+      assertTrue(classIndex.covers(new URL(root, "a/b"), "a/b", "a.b"));
+      assertTrue(classIndex.covers(new URL(root, "a/b/"), "a/b", "a.b"));
+      assertFalse(classIndex.covers(new URL(root, "x/y"), "x/y", "x.y"));
+      assertFalse(classIndex.covers(new URL("jar:file:/elsewhere.jar!/a/b"), "a/b", "a.b"));
+      // 目录中的索引不可信
+      assertFalse(classIndex.covers(new URL(classes.toUri().toURL(), "d/e"), "d/e", "d.e"));
+      assertEquals(Arrays.asList("d.e.F"), classIndex.getClassNames("d.e"));
+    }
+  }
+
+  @Test
+  void classIndexShouldReturnClassesOfPackageAndSubPackages(@TempDir Path dir) throws Exception {
+    Path index = dir.resolve(ClassIndex.INDEX_LOCATION);
+    Files.createDirectories(index.getParent());
+    Files.write(index, Arrays.asList("a.b.C", "a.bc.D", "a.b.c.E", "a.A", " ", "b.F"));
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, null)) {
+      ClassIndex classIndex = ClassIndex.load(loader);
+      assertEquals(Arrays.asList("a.b.C", "a.b.c.E"), classIndex.getClassNames("a.b"));
+      assertEquals(Arrays.asList("a.A", "a.b.C", "a.b.c.E", "a.bc.D"), classIndex.getClassNames("a"));
+      assertTrue(classIndex.getClassNames("c").isEmpty());
+      assertTrue(classIndex.getClassNames(null).isEmpty());
+    }
+  }
+
   @CacheNamespace(readWrite = false)
   private interface TestMapper {
     // test ResolverUtil.findAnnotated method
@@ -0,0 +1,136 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.ibatis.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StatementTracerTest {
+
+  @Mock
+  Log log;
+
+  @Test
+  void shouldWriteOneLinePerStatement() {
+    StatementTracer tracer = new StatementTracer();
+    tracer.trace(log, "select *\n  from t where id = ? and name = ?", Arrays.asList(10, null), 2, 1_500_000L, null);
+
+    verify(log).debug("==>  Executed: select * from t where id = ? and name = ? | Parameters: 10(Integer), null"
+        + " | Total: 2 | Time: 1.5 ms");
+  }
+
+  @Test
+  void shouldWriteFailuresAndOmitUnknownRows() {
+    StatementTracer tracer = new StatementTracer();
+    tracer.trace(log, "insert into t values (?)", Collections.singletonList("a"), StatementTracer.UNKNOWN_ROWS, 0L,
+        null);
+    tracer.trace(log, "delete from t", Collections.emptyList(), StatementTracer.UNKNOWN_ROWS, 0L, new SQLException());
+
+    verify(log).debug("==>  Executed: insert into t values (?) | Parameters: a(String) | Time: 0.0 ms");
+    verify(log).debug(contains("| Failed: SQLException |"));
+  }
+
+  @Test
+  void shouldWriteFromBackgroundThread() {
+    StatementTracer tracer = new StatementTracer();
+    tracer.setAsync(true);
+    tracer.trace(log, "select 1", Collections.emptyList(), 1, 0L, null);
+
+    verify(log, timeout(5000)).debug(startsWith("==>  Executed: select 1 |"));
+    assertThat(tracer.getDroppedCount()).isZero();
+    tracer.setAsync(false);
+  }
+
+  @Test
+  void shouldStopBackgroundThreadWhenNoLongerAsync() throws Exception {
+    AtomicReference<Thread> emitter = new AtomicReference<>();
+    doAnswer(invocation -> {
+      emitter.set(Thread.currentThread());
+      return null;
+    }).when(log).debug(startsWith("==>  Executed: select 1 |"));
+    StatementTracer tracer = new StatementTracer();
+    tracer.setAsync(true);
+    tracer.trace(log, "select 1", Collections.emptyList(), 1, 0L, null);
+    verify(log, timeout(5000)).debug(startsWith("==>  Executed: select 1 |"));
+
+    tracer.setAsync(false);
+    emitter.get().join(5000);
+    assertThat(emitter.get().isAlive()).isFalse();
+
+    tracer.trace(log, "select 2", Collections.emptyList(), 1, 0L, null);
+    verify(log).debug(startsWith("==>  Executed: select 2 |"));
+  }
+
+  @Test
+  void shouldConvertParametersBeforeQueueing() throws Exception {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      writing.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(log).debug(startsWith("==>  Executed: select 1 |"));
+    StatementTracer tracer = new StatementTracer();
+    tracer.setAsync(true);
+    tracer.trace(log, "select 1", Collections.emptyList(), 1, 0L, null);
+    assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+    StringBuilder value = new StringBuilder("before");
+    tracer.trace(log, "select ?", Collections.singletonList(value), 1, 0L, null);
+    value.setLength(0);
+    value.append("after");
+    release.countDown();
+
+    verify(log, timeout(5000)).debug(startsWith("==>  Executed: select ? | Parameters: before(StringBuilder) |"));
+    tracer.setAsync(false);
+  }
+
+  @Test
+  void shouldSampleStatements() {
+    StatementTracer tracer = new StatementTracer();
+    assertThat(tracer.isSampled()).isTrue();
+
+    tracer.setSampling(1000);
+    int sampled = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (tracer.isSampled()) {
+        sampled++;
+      }
+    }
+    assertThat(sampled).isBetween(1, 100);
+    assertThatThrownBy(() -> tracer.setSampling(0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
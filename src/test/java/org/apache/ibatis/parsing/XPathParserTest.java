@@ -16,19 +16,29 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
 
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
 class XPathParserTest {
@@ -263,4 +273,41 @@ class XPathParserTest {
     assertEquals(carsNodeToStringExpect, carsNodeToString);
   }
 
+  @Test
+  void simplePathsShouldMatchXPathResults() throws Exception {
+    String xml = "<mapper><select id=\"a\"/><!-- c --><insert id=\"b\"><selectKey id=\"k\"/></insert>text<update id=\"c\"/>"
+        + "<sql id=\"d\"/><select id=\"e\"/></mapper>";
+    XPathParser parser = new XPathParser(xml);
+    Document document = parser.evalNode("/mapper").getNode().getOwnerDocument();
+    Node mapper = document.getDocumentElement();
+    XPath xpath = XPathFactory.newInstance().newXPath();
+    String[][] cases = { { "/mapper", null }, { "select|insert|update|delete", "mapper" }, { "select", "mapper" },
+        { "*", "mapper" }, { "insert/selectKey", "mapper" }, { "/mapper/sql", "mapper" }, { "missing", "mapper" },
+        { "/mapper/*", null } };
+    for (String[] c : cases) {
+      Object root = c[1] == null ? document : mapper;
+      List<Node> simple = SimpleXPath.evaluate(root, c[0]);
+      NodeList expected = (NodeList) xpath.evaluate(c[0], root, XPathConstants.NODESET);
+      assertEquals(expected.getLength(), simple.size(), c[0]);
+      for (int i = 0; i < expected.getLength(); i++) {
+        assertSame(expected.item(i), simple.get(i), c[0]);
+      }
+    }
+    assertEquals(Arrays.asList("a", "b", "c", "e"), parser.evalNode("/mapper").evalNodes("select|insert|update|delete")
+        .stream().map(n -> n.getStringAttribute("id")).collect(Collectors.toList()));
+    assertNull(parser.evalNode("/mapper").evalNode("missing"));
+  }
+
+  @Test
+  void complexExpressionsShouldFallBackToXPath() {
+    for (String expression : new String[] { "/", "//select", "@id", "select[@id='a']", "text()", "../mapper", ".",
+        "/mapper/select|/mapper/insert", "ns:select" }) {
+      assertNull(SimpleXPath.evaluate(new XPathParser("<mapper/>").evalNode("/mapper").getNode(), expression),
+          expression);
+    }
+    XPathParser parser = new XPathParser("<mapper><select id=\"a\"/><select id=\"b\"/></mapper>");
+    assertEquals("b", parser.evalNode("/mapper/select[@id='b']").getStringAttribute("id"));
+    assertEquals(2, parser.evalNodes("//select").size());
+  }
+
 }
@@ -17,8 +17,14 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -39,6 +45,95 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void composedChainShouldCallInterceptorsInSameOrderAsNestedProxies() {
+    List<String> calls = new ArrayList<>();
+    for (boolean composed : new boolean[] { false, true }) {
+      InterceptorChain chain = new InterceptorChain();
+      chain.setComposed(composed);
+      chain.addInterceptor(new RecordingMapPlugin("first", calls));
+      chain.addInterceptor(new RecordingMapPlugin("second", calls));
+      chain.addInterceptor(new AlwaysMapPlugin());
+      chain.addInterceptor(new RecordingMapPlugin("last", calls));
+      Map<String, String> map = new HashMap<>();
+      map.put("key", "value");
+      map = (Map<String, String>) chain.pluginAll(map);
+      assertEquals("Always", map.get("key"));
+      assertEquals(1, map.size());
+      // AlwaysMapPlugin不调用proceed()，之前注册的拦截器不会执行
+      assertEquals(Collections.singletonList("last"), calls);
+      assertEquals(composed ? ComposedPlugin.class : Plugin.class, Proxy.getInvocationHandler(map).getClass());
+      calls.clear();
+    }
+  }
+
+  @Test
+  void composedChainShouldProceedToTargetAndPropagateExceptions() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.setComposed(true);
+    chain.addInterceptor(new RecordingMapPlugin("first", calls));
+    chain.addInterceptor(new RecordingMapPlugin("second", calls));
+    Map<String, String> map = new HashMap<>();
+    map.put("key", "value");
+    Map<String, String> proxy = (Map<String, String>) chain.pluginAll(map);
+    assertEquals("value", proxy.get("key"));
+    assertEquals(Arrays.asList("second", "first"), calls);
+
+    chain.addInterceptor(new FailingMapPlugin());
+    Map<String, String> failing = (Map<String, String>) chain.pluginAll(map);
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> failing.get("key"));
+    assertEquals("failed", e.getMessage());
+    // 未被拦截的方法直接调用目标对象
+    assertEquals(1, failing.size());
+  }
+
+  @Test
+  void shouldNotComposeInterceptorsThatOverridePlugin() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setComposed(true);
+    chain.addInterceptor(new AlwaysMapPlugin());
+    chain.addInterceptor(new Interceptor() {
+      @Override
+      public Object intercept(Invocation invocation) {
+        return null;
+      }
+
+      @Override
+      public Object plugin(Object target) {
+        return target;
+      }
+    });
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<>());
+    assertEquals(Plugin.class, Proxy.getInvocationHandler(map).getClass());
+    assertEquals("Always", map.get("key"));
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
+  public static class RecordingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    RecordingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
+  public static class FailingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) {
+      throw new IllegalStateException("failed");
+    }
+  }
+
   @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
   public static class AlwaysMapPlugin implements Interceptor {
     @Override
@@ -0,0 +1,147 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ognl.Ognl;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private static final List<String> EXPRESSIONS = Arrays.asList("id", "id != null", "id == 1", "id > 0 and id <= 5",
+      "id >= 1 or name != null", "!(id < 1)", "name != null and name != ''", "name == 'ab'", "name.length() > 0",
+      "ids != null and ids.size() > 0", "ids.isEmpty()", "author.username == 'cbegin'", "author.id == 101",
+      "map.key == 'value'", "map.size() == 1", "_parameter != null", "_databaseId == null", "flag", "!flag",
+      "flag and id");
+
+  @Test
+  void shouldEvaluateLikeOgnl() throws Exception {
+    for (Map<String, Object> bindings : bindings()) {
+      for (String expression : EXPRESSIONS) {
+        CompiledExpression compiled = CompiledExpression.compile(Ognl.parseExpression(expression));
+        assertNotSame(CompiledExpression.NOT_COMPILABLE, compiled, expression);
+        assertEquals(OgnlCache.getValue(expression, bindings), compiled.getValue(bindings), expression);
+        assertEquals(OgnlCache.getValue(expression, bindings), OgnlCache.evaluate(expression, bindings), expression);
+      }
+    }
+  }
+
+  @Test
+  void shouldNotCompileUnsupportedExpressions() throws Exception {
+    for (String expression : Arrays.asList("ids[0]", "id + 1", "@java.lang.Math@max(1, 2)", "name.substring(1)",
+        "#this", "ids.{id}")) {
+      assertSame(CompiledExpression.NOT_COMPILABLE, CompiledExpression.compile(Ognl.parseExpression(expression)),
+          expression);
+    }
+  }
+
+  @Test
+  void shouldFallBackToOgnlForSpecialProperties() {
+    Map<String, Object> bindings = new DynamicContext(new Configuration(), null).getBindings();
+    bindings.put("map", Collections.singletonMap("a", 1));
+    bindings.put("list", Arrays.asList(1, 2));
+    assertEquals(1, OgnlCache.evaluate("map.size", bindings));
+    assertEquals(false, OgnlCache.evaluate("map.isEmpty", bindings));
+    assertEquals(2, OgnlCache.evaluate("list.size", bindings));
+  }
+
+  @Test
+  void shouldReadPropertiesWithReflectorFactoryOfConfiguration() {
+    Configuration configuration = new Configuration();
+    ReflectorFactory reflectorFactory = spy(new DefaultReflectorFactory());
+    configuration.setReflectorFactory(reflectorFactory);
+    Map<String, Object> bindings = new DynamicContext(configuration, null).getBindings();
+    bindings.put("author", new Author(101, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS));
+
+    assertEquals(true, OgnlCache.evaluate("author.username == 'cbegin'", bindings));
+    verify(reflectorFactory).findForClass(Author.class);
+  }
+
+  @Test
+  void shouldNotInvokeFailingGetterAgain() {
+    FailingBean bean = new FailingBean();
+    Map<String, Object> bindings = new DynamicContext(new Configuration(), null).getBindings();
+    bindings.put("bean", bean);
+
+    BuilderException e = assertThrows(BuilderException.class, () -> OgnlCache.evaluate("bean.value != null", bindings));
+    assertSame(FailingBean.FAILURE, e.getCause());
+    assertEquals(1, bean.invocations);
+  }
+
+  public static class FailingBean {
+    static final IllegalStateException FAILURE = new IllegalStateException("getter failed");
+    int invocations;
+
+    public Object getValue() {
+      invocations++;
+      throw FAILURE;
+    }
+  }
+
+  private static List<Map<String, Object>> bindings() {
+    Configuration configuration = new Configuration();
+    List<Map<String, Object>> bindings = new ArrayList<>();
+
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 1);
+    parameter.put("name", "a");
+    parameter.put("ids", Arrays.asList(1, 2));
+    parameter.put("author", new Author(101, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS));
+    parameter.put("map", Collections.singletonMap("key", "value"));
+    parameter.put("flag", true);
+    bindings.add(new DynamicContext(configuration, parameter).getBindings());
+
+    Map<String, Object> empty = new HashMap<>();
+    empty.put("id", 0L);
+    empty.put("name", "");
+    empty.put("ids", Collections.emptyList());
+    empty.put("author", new Author(-1, null, null, null, null, null));
+    empty.put("map", new HashMap<>());
+    empty.put("flag", false);
+    bindings.add(new DynamicContext(configuration, empty).getBindings());
+
+    Map<String, Object> bound = new DynamicContext(configuration, new Author(3)).getBindings();
+    bound.put("id", 7.5d);
+    bound.put("name", "b");
+    bound.put("ids", new ArrayList<>(Arrays.asList("x")));
+    bound.put("author", new Author(101));
+    bound.put("map", Collections.singletonMap("key", null));
+    bound.put("flag", "true");
+    bindings.add(bound);
+    return bindings;
+  }
+
+}
@@ -17,6 +17,8 @@ package org.apache.ibatis.scripting.xmltags;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -27,6 +29,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
+import org.apache.ibatis.session.Configuration;
 import org.junit.jupiter.api.Test;
 
 class OgnlCacheTest {
@@ -57,4 +60,42 @@ class OgnlCacheTest {
     context.put("d2", java.sql.Date.valueOf("2022-01-02"));
     assertEquals(-1, OgnlCache.getValue("d1.compareTo(d2)", context));
   }
+
+  @Test
+  void shouldEvictExpressionsBeyondMaxSize() {
+    Configuration configuration = new Configuration();
+    configuration.setOgnlCacheSize(10);
+    Map<String, Object> bindings = new DynamicContext(configuration, null).getBindings();
+    bindings.put("id", 1);
+    OgnlCache cache = configuration.getOgnlCache();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(1 + i, OgnlCache.getValue("id + " + i, bindings));
+      assertEquals(true, OgnlCache.getValue("id != null", bindings));
+    }
+    assertEquals(10, cache.size());
+    assertEquals(101, cache.getMissCount());
+    assertEquals(99, cache.getHitCount());
+    assertEquals(91, cache.getEvictionCount());
+    // the frequently used expression survives
+    OgnlCache.getValue("id != null", bindings);
+    assertEquals(101, cache.getMissCount());
+  }
+
+  @Test
+  void shouldKeepCachePerConfiguration() {
+    Configuration first = new Configuration();
+    Configuration second = new Configuration();
+    OgnlCache.getValue("_parameter == null", new DynamicContext(first, null).getBindings());
+    assertEquals(1, first.getOgnlCache().size());
+    assertEquals(0, second.getOgnlCache().size());
+    assertThrows(IllegalArgumentException.class, () -> second.setOgnlCacheSize(0));
+  }
+
+  @Test
+  void contextMapWithoutConfigurationShouldUseSharedCache() {
+    DynamicContext.ContextMap bindings = new DynamicContext.ContextMap(null, false);
+    bindings.put("value", 1);
+    assertSame(OgnlCache.SHARED, bindings.getOgnlCache());
+    assertEquals(true, OgnlCache.getValue("value == 1", bindings));
+  }
 }
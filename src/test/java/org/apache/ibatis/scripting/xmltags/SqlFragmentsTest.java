@@ -0,0 +1,67 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class SqlFragmentsTest {
+
+  @Test
+  void shouldJoinAndTrimLikeStringJoiner() {
+    List<String> fragments = Arrays.asList("  ", "\n select *", "", "from blog ", null, "\t");
+    SqlFragments sqlFragments = new SqlFragments(" ");
+    StringJoiner joiner = new StringJoiner(" ");
+    for (String fragment : fragments) {
+      sqlFragments.append(fragment);
+      joiner.add(fragment);
+    }
+    String expected = joiner.toString();
+    assertEquals(expected.length(), sqlFragments.length());
+    assertEquals(expected.trim(), sqlFragments.substring(sqlFragments.trimStart(), sqlFragments.trimEnd()));
+    for (int start = 0; start <= expected.length(); start++) {
+      for (int end = start; end <= expected.length(); end++) {
+        assertEquals(expected.substring(start, end), sqlFragments.substring(start, end));
+      }
+    }
+  }
+
+  @Test
+  void shouldTrimBlankContent() {
+    SqlFragments sqlFragments = new SqlFragments(null);
+    sqlFragments.append(" ");
+    sqlFragments.append("\n");
+    assertEquals(2, sqlFragments.trimStart());
+    assertEquals(0, sqlFragments.trimEnd());
+  }
+
+  @Test
+  void shouldApplyOverridesAcrossFragments() {
+    Configuration configuration = new Configuration();
+    DynamicContext context = new DynamicContext(configuration, null);
+    SqlNode contents = new MixedSqlNode(Arrays.asList(new StaticTextSqlNode("  an"), new StaticTextSqlNode("d id = 1,"),
+        new StaticTextSqlNode(" name = 'x' ,"), new StaticTextSqlNode("\n")));
+    new TrimSqlNode(configuration, contents, "where", "AND |OR ", "limit 1", ",").apply(context);
+    assertEquals("where  id = 1, name = 'x'  limit 1", context.getSql());
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class SqlNodeFlattenerTest {
+
+  private static final String SCRIPT = "<script>select * from blog"
+      + "<where>\n  <if test='id != null'>and id = #{id}</if>\n"
+      + "  <if test='title != null'>\n    and title like #{title}\n  </if>\n"
+      + "  <choose><when test='author != null'> and author = #{author}</when>"
+      + "<otherwise> and featured = 1 </otherwise></choose>\n"
+      + "  <if test='ids != null'>and id in <foreach collection='ids' item='i' open='(' separator=',' close=')'>\n"
+      + "    <if test='i != null'> #{i} </if>\n  </foreach></if>\n"
+      + "</where>\n <trim prefix='order by' suffixOverrides=','>  <if test='sort'>id,</if>  title, </trim></script>";
+
+  @Test
+  void shouldGenerateSameSqlAsOriginalTree() {
+    SqlSource original = createSqlSource(false);
+    SqlSource flattened = createSqlSource(true);
+    for (Map<String, Object> parameter : parameters()) {
+      BoundSql expected = original.getBoundSql(parameter);
+      BoundSql actual = flattened.getBoundSql(parameter);
+      assertEquals(expected.getSql(), actual.getSql());
+      assertEquals(expected.getParameterMappings().size(), actual.getParameterMappings().size());
+    }
+  }
+
+  @Test
+  void shouldMergeAdjacentStaticText() {
+    List<SqlNode> contents = Arrays.asList(new StaticTextSqlNode("select *"),
+        new MixedSqlNode(Arrays.asList(new StaticTextSqlNode("from blog"), new StaticTextSqlNode("where"))),
+        new IfSqlNode(new MixedSqlNode(Collections.singletonList(new StaticTextSqlNode("id = 1"))), "true"));
+    SqlNode flattened = new SqlNodeFlattener().flatten(new MixedSqlNode(contents));
+
+    List<SqlNode> flattenedContents = ((MixedSqlNode) flattened).getContents();
+    assertEquals(2, flattenedContents.size());
+    assertEquals("select * from blog where", ((StaticTextSqlNode) flattenedContents.get(0)).getText());
+    assertTrue(((IfSqlNode) flattenedContents.get(1)).getContents() instanceof StaticTextSqlNode);
+  }
+
+  private SqlSource createSqlSource(boolean flattenDynamicSql) {
+    Configuration configuration = new Configuration();
+    configuration.setFlattenDynamicSql(flattenDynamicSql);
+    return new XMLLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+  }
+
+  private static List<Map<String, Object>> parameters() {
+    Map<String, Object> empty = new HashMap<>();
+    empty.put("id", null);
+    empty.put("title", null);
+    empty.put("author", null);
+    empty.put("ids", null);
+    empty.put("sort", false);
+    Map<String, Object> all = new HashMap<>();
+    all.put("id", 1);
+    all.put("title", "%mybatis%");
+    all.put("author", "jim");
+    all.put("ids", Arrays.asList(1, null, 3));
+    all.put("sort", true);
+    Map<String, Object> some = new HashMap<>(empty);
+    some.put("title", "%sql%");
+    some.put("ids", Arrays.asList(null, 2));
+    return Arrays.asList(empty, all, some);
+  }
+
+}
@@ -0,0 +1,240 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the behavior when a query exceeds its result size limit or slow query threshold.
+ */
+class ResultGuardBehaviorTest {
+
+  interface Mapper {
+    @Select("SELECT * FROM POST ORDER BY ID")
+    List<Map<String, Object>> selectPosts();
+
+    @Select("SELECT * FROM AUTHOR WHERE ID = #{id}")
+    Author selectAuthor(int id);
+  }
+
+  @CacheNamespace
+  interface CachedMapper {
+    @Select("SELECT ID FROM POST ORDER BY ID")
+    List<Map<String, Object>> selectPosts();
+  }
+
+  public static class LastEventSavedAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    private static ILoggingEvent lastEvent;
+
+    @Override
+    protected void append(ILoggingEvent event) {
+      lastEvent = event;
+    }
+  }
+
+  /**
+   * Makes the mapping of every author slow.
+   */
+  public static class SlowObjectFactory extends DefaultObjectFactory {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public <T> T create(Class<T> type) {
+      if (type == Author.class) {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return super.create(type);
+    }
+  }
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setup() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Environment environment = new Environment("Production", new JdbcTransactionFactory(), dataSource);
+    Configuration configuration = new Configuration(environment);
+    configuration.setObjectFactory(new SlowObjectFactory());
+    configuration.addMapper(Mapper.class);
+    configuration.addMapper(CachedMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @BeforeEach
+  void clearLastEvent() {
+    LastEventSavedAppender.lastEvent = null;
+  }
+
+  @AfterEach
+  void resetGuards() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDefaultResultSizeLimit(null);
+    configuration.setDefaultSlowQueryThreshold(null);
+    configuration.setResultGuardBehavior(ResultGuardBehavior.WARNING);
+    configuration.setDatabasePagination(false);
+    configuration.setDatabaseId(null);
+  }
+
+  @Test
+  void warningStopsFetchingWhenResultSizeLimitIsExceeded() {
+    sqlSessionFactory.getConfiguration().setDefaultResultSizeLimit(3);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> posts = session.getMapper(Mapper.class).selectPosts();
+      assertThat(posts).hasSize(3);
+      assertThat(LastEventSavedAppender.lastEvent.getMessage()).isEqualTo(
+          "Query 'org.apache.ibatis.session.ResultGuardBehaviorTest$Mapper.selectPosts' exceeded its resultSizeLimit."
+              + " Guard parameters are [statementId=org.apache.ibatis.session.ResultGuardBehaviorTest$Mapper.selectPosts,"
+              + "guard=resultSizeLimit,limit=3,actual=4,parameters=null]");
+    }
+  }
+
+  @Test
+  void truncatedResultsAreNotCached() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDefaultResultSizeLimit(3);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      CachedMapper mapper = session.getMapper(CachedMapper.class);
+      assertThat(mapper.selectPosts()).hasSize(3);
+      LastEventSavedAppender.lastEvent = null;
+      // 没有放入一级缓存，再次查询数据库并再次报告
+      assertThat(mapper.selectPosts()).hasSize(3);
+      assertThat(LastEventSavedAppender.lastEvent).isNotNull();
+      session.commit();
+    }
+    configuration.setDefaultResultSizeLimit(null);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      // 没有放入二级缓存，取消限制之后查询到全部结果
+      assertThat(session.getMapper(CachedMapper.class).selectPosts()).hasSize(5);
+    }
+  }
+
+  @Test
+  void truncatedPagesAreNotCached() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDatabasePagination(true);
+    configuration.setDatabaseId("derby");
+    configuration.setDefaultResultSizeLimit(2);
+    String statement = CachedMapper.class.getName() + ".selectPosts";
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertThat(session.<Map<String, Object>> selectList(statement, null, new RowBounds(1, 3))).hasSize(2);
+      LastEventSavedAppender.lastEvent = null;
+      // 分页改写后的BoundSql被截断时，执行器持有的BoundSql同样被标记，不放入一级缓存
+      assertThat(session.<Map<String, Object>> selectList(statement, null, new RowBounds(1, 3))).hasSize(2);
+      assertThat(LastEventSavedAppender.lastEvent).isNotNull();
+      session.commit();
+    }
+    configuration.setDefaultResultSizeLimit(null);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> page = session.selectList(statement, null, new RowBounds(1, 3));
+      assertThat(page).hasSize(3);
+      assertThat(page.get(0)).containsEntry("ID", 2);
+    }
+  }
+
+  @Test
+  void selectMapIsLimited() {
+    sqlSessionFactory.getConfiguration().setDefaultResultSizeLimit(3);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Map<Object, Map<String, Object>> posts = session.selectMap(Mapper.class.getName() + ".selectPosts", "ID");
+      assertThat(posts).hasSize(3);
+      assertThat(LastEventSavedAppender.lastEvent.getMessage()).contains("guard=resultSizeLimit,limit=3,actual=4");
+    }
+  }
+
+  @Test
+  void noWarningWhenResultSizeIsExactlyTheLimit() {
+    sqlSessionFactory.getConfiguration().setDefaultResultSizeLimit(5);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertThat(session.getMapper(Mapper.class).selectPosts()).hasSize(5);
+      assertThat(LastEventSavedAppender.lastEvent).isNull();
+    }
+  }
+
+  @Test
+  void failingWhenResultSizeLimitIsExceeded() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDefaultResultSizeLimit(3);
+    configuration.setResultGuardBehavior(ResultGuardBehavior.FAILING);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Mapper mapper = session.getMapper(Mapper.class);
+      assertThatThrownBy(mapper::selectPosts).isInstanceOf(PersistenceException.class)
+          .hasCauseInstanceOf(SqlSessionException.class).hasMessageContaining("guard=resultSizeLimit,limit=3");
+    }
+  }
+
+  @Test
+  void cursorsAreNotLimited() {
+    sqlSessionFactory.getConfiguration().setDefaultResultSizeLimit(3);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      int count = 0;
+      for (Object post : session.selectCursor(Mapper.class.getName() + ".selectPosts")) {
+        count++;
+      }
+      assertThat(count).isEqualTo(5);
+      assertThat(LastEventSavedAppender.lastEvent).isNull();
+    }
+  }
+
+  @Test
+  void warningWhenSlowQueryThresholdIsExceeded() {
+    sqlSessionFactory.getConfiguration().setDefaultSlowQueryThreshold(10);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Author author = session.getMapper(Mapper.class).selectAuthor(101);
+      assertThat(author.getId()).isEqualTo(101);
+      assertThat(LastEventSavedAppender.lastEvent.getMessage()).contains("guard=slowQueryThreshold,limit=10,")
+          .endsWith(",parameters=101]");
+    }
+  }
+
+  @Test
+  void failingWhenSlowQueryThresholdIsExceeded() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDefaultSlowQueryThreshold(10);
+    configuration.setResultGuardBehavior(ResultGuardBehavior.FAILING);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Mapper mapper = session.getMapper(Mapper.class);
+      assertThatThrownBy(() -> mapper.selectAuthor(101)).isInstanceOf(PersistenceException.class)
+          .hasMessageContaining("guard=slowQueryThreshold");
+    }
+  }
+
+}
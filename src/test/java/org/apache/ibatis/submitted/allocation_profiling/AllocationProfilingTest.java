@@ -0,0 +1,155 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.allocation_profiling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.metrics.AllocationPhase;
+import org.apache.ibatis.executor.metrics.AllocationProfiler;
+import org.apache.ibatis.executor.metrics.StatementAllocationSnapshot;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AllocationProfilingTest {
+
+  private static final String NAMESPACE = Mapper.class.getName() + ".";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  private AllocationProfiler profiler;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/allocation_profiling/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/allocation_profiling/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetProfiler() {
+    profiler = sqlSessionFactory.getConfiguration().getAllocationProfiler();
+    assumeTrue(profiler.isSupported());
+    profiler.reset();
+  }
+
+  @Test
+  void shouldAccountAllocationsOfEachQueryPhase() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(Mapper.class).selectItems()).hasSize(10);
+    }
+
+    StatementAllocationSnapshot snapshot = profiler.getSnapshot(NAMESPACE + "selectItems");
+    for (AllocationPhase phase : AllocationPhase.values()) {
+      assertThat(snapshot.getSamples(phase)).isEqualTo(1);
+    }
+    assertThat(snapshot.getAllocatedBytes(AllocationPhase.MAP)).isPositive();
+    assertThat(snapshot.getAllocatedBytes(AllocationPhase.TOTAL))
+        .isGreaterThanOrEqualTo(snapshot.getAllocatedBytes(AllocationPhase.SQL_BUILD)
+            + snapshot.getAllocatedBytes(AllocationPhase.BIND) + snapshot.getAllocatedBytes(AllocationPhase.MAP));
+  }
+
+  @Test
+  void shouldKeepTargetsOfPluginsUnchanged() {
+    TargetTypesInterceptor interceptor = (TargetTypesInterceptor) sqlSessionFactory.getConfiguration()
+        .getInterceptors().get(0);
+    interceptor.getTargetTypes().clear();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(Mapper.class).selectItems()).hasSize(10);
+    }
+
+    assertThat(interceptor.getTargetTypes()).containsExactly(CachingExecutor.class, DefaultResultSetHandler.class);
+    StatementAllocationSnapshot snapshot = profiler.getSnapshot(NAMESPACE + "selectItems");
+    assertThat(snapshot.getSamples(AllocationPhase.SQL_BUILD)).isEqualTo(1);
+    assertThat(snapshot.getSamples(AllocationPhase.MAP)).isEqualTo(1);
+    assertThat(snapshot.getSamples(AllocationPhase.TOTAL)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldAccountAllocationsOfUpdates() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Item item = new Item();
+      item.setId(11);
+      item.setName("Item11");
+      assertThat(sqlSession.getMapper(Mapper.class).insertItem(item)).isEqualTo(1);
+      sqlSession.rollback(true);
+    }
+
+    StatementAllocationSnapshot snapshot = profiler.getSnapshot(NAMESPACE + "insertItem");
+    assertThat(snapshot.getSamples(AllocationPhase.SQL_BUILD)).isEqualTo(1);
+    assertThat(snapshot.getSamples(AllocationPhase.BIND)).isEqualTo(1);
+    assertThat(snapshot.getSamples(AllocationPhase.MAP)).isZero();
+    assertThat(snapshot.getSamples(AllocationPhase.TOTAL)).isEqualTo(1);
+    assertThat(snapshot.getAverageBytes(AllocationPhase.TOTAL)).isPositive();
+  }
+
+  @Test
+  void shouldReportStatementsThatAllocateMostFirst() throws SQLException {
+    // 第一次执行时的类加载和反射信息不计入比较
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.selectItem(1);
+      mapper.selectItems();
+    }
+    profiler.reset();
+
+    // 预先打开连接，打开连接的开销不计入第一个语句
+    try (Connection connection = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource().getConnection();
+        SqlSession sqlSession = sqlSessionFactory.openSession(connection)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.selectItem(1);
+      for (int i = 0; i < 5; i++) {
+        mapper.selectItems();
+        sqlSession.clearCache();
+      }
+    }
+
+    List<StatementAllocationSnapshot> snapshots = profiler.getSnapshots();
+    assertThat(snapshots).extracting(StatementAllocationSnapshot::getStatementId)
+        .containsExactly(NAMESPACE + "selectItems", NAMESPACE + "selectItem");
+    assertThat(snapshots.get(0).getSamples(AllocationPhase.TOTAL)).isEqualTo(5);
+  }
+
+  @Test
+  void shouldNotAccountAllocationsWhenDisabled() {
+    sqlSessionFactory.getConfiguration().setAllocationProfiling(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectItems();
+    } finally {
+      sqlSessionFactory.getConfiguration().setAllocationProfiling(true);
+    }
+
+    assertThat(profiler.getSnapshots()).isEmpty();
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.allocation_profiling;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Records the types of the executors and result set handlers that plugins intercept.
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class,
+        RowBounds.class, ResultHandler.class }),
+    @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = { Statement.class }) })
+public class TargetTypesInterceptor implements Interceptor {
+
+  private final List<Class<?>> targetTypes = new CopyOnWriteArrayList<>();
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    targetTypes.add(invocation.getTarget().getClass());
+    return invocation.proceed();
+  }
+
+  public List<Class<?>> getTargetTypes() {
+    return targetTypes;
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_tags;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheTagsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static Cache cache;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cache_tags/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    cache = sqlSessionFactory.getConfiguration().getCache(Mapper.class.getName());
+  }
+
+  @BeforeEach
+  void resetData() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_tags/CreateDB.sql");
+    cache.clear();
+    cache.getStatistics().reset();
+  }
+
+  @Test
+  void shouldEvictOnlyEntriesAffectedByWrites() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.selectBlogTitle(1);
+      mapper.selectBlogTitle(2);
+      mapper.countBlogs();
+      mapper.selectAuthorName(1);
+      sqlSession.commit();
+    }
+
+    // 更新author表不影响blog表的缓存项
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).updateAuthorName(1, "john");
+      sqlSession.commit();
+    }
+    CacheStatistics statistics = cache.getStatistics();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.selectBlogTitle(1)).isEqualTo("Blog1");
+      assertThat(mapper.selectBlogTitle(2)).isEqualTo("Blog2");
+      assertThat(mapper.countBlogs()).isEqualTo(2);
+      assertThat(statistics.getHits()).isEqualTo(3);
+      assertThat(mapper.selectAuthorName(1)).isEqualTo("john");
+      assertThat(statistics.getHits()).isEqualTo(3);
+      sqlSession.commit();
+    }
+
+    // 更新blog:1只影响同一个blog以及整张blog表的缓存项
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).updateBlogTitle(1, "Renamed");
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.selectBlogTitle(2)).isEqualTo("Blog2");
+      assertThat(statistics.getHits()).isEqualTo(4);
+      assertThat(mapper.selectBlogTitle(1)).isEqualTo("Renamed");
+      assertThat(mapper.countBlogs()).isEqualTo(2);
+      assertThat(mapper.selectAuthorName(1)).isEqualTo("john");
+      assertThat(statistics.getHits()).isEqualTo(5);
+    }
+  }
+
+  @Test
+  void shouldResolveTagsOfWritesFromExecutedSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.selectBlogTitle(1);
+      mapper.selectAuthorName(1);
+      sqlSession.commit();
+    }
+
+    CountingLanguageDriver.boundSqlCount.set(0);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).updateAuthorNameCounted(1, "john");
+      sqlSession.commit();
+    }
+    assertThat(CountingLanguageDriver.boundSqlCount.get()).isEqualTo(1);
+
+    long hits = cache.getStatistics().getHits();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.selectBlogTitle(1)).isEqualTo("Blog1");
+      assertThat(mapper.selectAuthorName(1)).isEqualTo("john");
+      assertThat(cache.getStatistics().getHits()).isEqualTo(hits + 1);
+    }
+  }
+
+  @Test
+  void shouldNotReadEntriesWrittenInCurrentTransaction() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectBlogTitle(1);
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.updateBlogTitle(1, "Renamed");
+      assertThat(mapper.selectBlogTitle(1)).isEqualTo("Renamed");
+      sqlSession.rollback();
+    }
+    // 回滚后缓存项没有被删除
+    long hits = cache.getStatistics().getHits();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(Mapper.class).selectBlogTitle(1)).isEqualTo("Blog1");
+      assertThat(cache.getStatistics().getHits()).isEqualTo(hits + 1);
+    }
+  }
+
+}
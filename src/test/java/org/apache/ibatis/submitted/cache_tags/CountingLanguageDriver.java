@@ -0,0 +1,41 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_tags;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Counts how many times the SQL of its statements is generated.
+ */
+public class CountingLanguageDriver extends XMLLanguageDriver {
+
+  static final AtomicInteger boundSqlCount = new AtomicInteger();
+
+  @Override
+  public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+    SqlSource sqlSource = super.createSqlSource(configuration, script, parameterType);
+    return parameterObject -> {
+      boundSqlCount.incrementAndGet();
+      return sqlSource.getBoundSql(parameterObject);
+    };
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.database_pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.pagination.KeysetRowBounds;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DatabasePaginationTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/database_pagination/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/database_pagination/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void clearRecorder() {
+    StatementRecorder.clear();
+  }
+
+  @AfterEach
+  void restoreSettings() {
+    sqlSessionFactory.getConfiguration().setDatabasePagination(true);
+  }
+
+  @Test
+  void shouldApplyRowBoundsInTheDatabase() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(ids(mapper.selectItems(new RowBounds(3, 4)))).containsExactly(4, 5, 6, 7);
+      assertThat(ids(mapper.selectItems(new RowBounds(8, RowBounds.NO_ROW_LIMIT)))).containsExactly(9, 10);
+      assertThat(ids(mapper.selectItems(new RowBounds(5, 2)))).containsExactly(6, 7);
+      assertThat(ids(mapper.selectItems(RowBounds.DEFAULT))).hasSize(10);
+    }
+    // 分页参数以占位符绑定，不同的页使用相同的SQL语句
+    assertThat(StatementRecorder.sqls).containsExactly("select id, name from items order by id LIMIT ? OFFSET ?",
+        "select id, name from items order by id LIMIT ? OFFSET ?",
+        "select id, name from items order by id LIMIT ? OFFSET ?", "select id, name from items order by id");
+  }
+
+  @Test
+  void shouldReuseTheStatementOfEveryPage() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.REUSE)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(ids(mapper.selectItems(new RowBounds(3, 3)))).containsExactly(4, 5, 6);
+      assertThat(ids(mapper.selectItems(new RowBounds(6, 3)))).containsExactly(7, 8, 9);
+    }
+    // ReuseExecutor复用了第一页预编译的Statement
+    assertThat(StatementRecorder.sqls).containsExactly("select id, name from items order by id LIMIT ? OFFSET ?");
+  }
+
+  @Test
+  void shouldNotRewriteQueriesThatAreAlreadyPaged() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(ids(mapper.selectFirstItems(new RowBounds(1, 2)))).containsExactly(2, 3);
+    }
+    assertThat(StatementRecorder.sqls).containsExactly("select id, name from items order by id limit 5");
+    assertThat(StatementRecorder.maxRows).containsExactly(3);
+  }
+
+  @Test
+  void shouldLimitMaxRowsWhenNoDialectMatches() {
+    String databaseId = sqlSessionFactory.getConfiguration().getDatabaseId();
+    sqlSessionFactory.getConfiguration().setDatabaseId("unknown");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(ids(mapper.selectItems(new RowBounds(2, 3)))).containsExactly(3, 4, 5);
+      assertThat(ids(mapper.selectItems(new RowBounds(0, 2)))).containsExactly(1, 2);
+    } finally {
+      sqlSessionFactory.getConfiguration().setDatabaseId(databaseId);
+    }
+    assertThat(StatementRecorder.sqls).containsOnly("select id, name from items order by id");
+    assertThat(StatementRecorder.maxRows).containsExactly(5, 2);
+  }
+
+  @Test
+  void shouldSkipRowsOnTheClientWhenDialectRequiresOrderBy() {
+    String databaseId = sqlSessionFactory.getConfiguration().getDatabaseId();
+    sqlSessionFactory.getConfiguration().setDatabaseId("sqlserver");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(ids(mapper.selectItems(new RowBounds(2, 3)))).containsExactly(3, 4, 5);
+      assertThat(ids(mapper.selectItemsForKeyset(0, new RowBounds(2, 3)))).containsExactly(3, 4, 5);
+    } finally {
+      sqlSessionFactory.getConfiguration().setDatabaseId(databaseId);
+    }
+    assertThat(StatementRecorder.sqls).containsExactly(
+        "select id, name from items order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+        "select id, name from items where id <> ?");
+    assertThat(StatementRecorder.maxRows).containsExactly(0, 5);
+  }
+
+  @Test
+  void shouldSkipRowsOnTheClientWhenDisabled() {
+    sqlSessionFactory.getConfiguration().setDatabasePagination(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(ids(mapper.selectItems(new RowBounds(3, 4)))).containsExactly(4, 5, 6, 7);
+      assertThatThrownBy(() -> mapper.selectItemsForKeyset(0, new KeysetRowBounds("id", null, 2)))
+          .isInstanceOf(PersistenceException.class).hasMessageContaining("Keyset pagination requires");
+    }
+    assertThat(StatementRecorder.sqls).containsExactly("select id, name from items order by id");
+    assertThat(StatementRecorder.maxRows).containsExactly(0);
+  }
+
+  @Test
+  void shouldReadPagesByKey() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Item> first = mapper.selectItemsForKeyset(2, new KeysetRowBounds("id", null, 3));
+      assertThat(ids(first)).containsExactly(1, 3, 4);
+      List<Item> second = mapper.selectItemsForKeyset(2, new KeysetRowBounds("id", 4, 3));
+      assertThat(ids(second)).containsExactly(5, 6, 7);
+      // 同一个会话中不同的键值不能命中一级缓存中的上一页
+      assertThat(ids(mapper.selectItemsForKeyset(2, new KeysetRowBounds("id", 7, 3)))).containsExactly(8, 9, 10);
+      assertThat(ids(mapper.selectItemsForKeyset(2, new KeysetRowBounds("id", 4, 2, true)))).containsExactly(3, 1);
+    }
+    assertThat(StatementRecorder.sqls.get(1)).isEqualTo(
+        "select * from (select id, name from items where id <> ?) mybatis_keyset where mybatis_keyset.id > ? "
+            + "order by mybatis_keyset.id asc LIMIT ?");
+  }
+
+  private static List<Integer> ids(List<Item> items) {
+    return items.stream().map(Item::getId).collect(Collectors.toList());
+  }
+}
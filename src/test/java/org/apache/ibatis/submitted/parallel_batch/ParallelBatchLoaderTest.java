@@ -0,0 +1,174 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ParallelBatchLoader;
+import org.apache.ibatis.session.ParallelBatchResult;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelBatchLoaderTest {
+
+  private static final String INSERT_USER = "org.apache.ibatis.submitted.parallel_batch.Mapper.insertUser";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/parallel_batch/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_batch/CreateDB.sql");
+  }
+
+  @Test
+  void shouldLoadAllParametersInParallel() {
+    ParallelBatchResult result;
+    try (ParallelBatchLoader loader = new ParallelBatchLoader(sqlSessionFactory, 4, 50)) {
+      result = loader.load(INSERT_USER, IntStream.rangeClosed(1, 1000).mapToObj(i -> new User(i, "User" + i)));
+    }
+
+    assertTrue(result.isSuccessful());
+    assertEquals(1000, result.getLoadedCount());
+    assertEquals(1000, result.getUpdateCount());
+    assertEquals(1000, countUsers());
+  }
+
+  @Test
+  void shouldReportFailedChunksAndCommitTheOthers() {
+    ParallelBatchResult result;
+    try (ParallelBatchLoader loader = new ParallelBatchLoader(sqlSessionFactory, 2, 10)) {
+      // id 5 is duplicated inside the first chunk
+      result = loader.load(INSERT_USER,
+          IntStream.rangeClosed(1, 100).mapToObj(i -> new User(i == 6 ? 5 : i, "User" + i)));
+    }
+
+    assertFalse(result.isSuccessful());
+    assertEquals(1, result.getFailures().size());
+    assertEquals(10, result.getFailures().get(0).getParameterObjects().size());
+    assertEquals(90, result.getLoadedCount());
+    assertEquals(90, result.getUpdateCount());
+    assertEquals(90, countUsers());
+  }
+
+  @Test
+  void shouldKeepOtherResultsWhenChunkFailsUnexpectedly() {
+    // 第二个分片打开会话时抛出Error，而不是被包装成PersistenceException的RuntimeException
+    AtomicInteger sessions = new AtomicInteger();
+    SqlSessionFactory failingFactory = spy(sqlSessionFactory);
+    doAnswer(invocation -> {
+      if (sessions.incrementAndGet() == 2) {
+        throw new AssertionError("broken session");
+      }
+      return invocation.callRealMethod();
+    }).when(failingFactory).openSession(any(ExecutorType.class), anyBoolean());
+
+    ParallelBatchResult result;
+    try (ParallelBatchLoader loader = new ParallelBatchLoader(failingFactory, 2, 10)) {
+      result = loader.load(INSERT_USER, IntStream.rangeClosed(1, 100).mapToObj(i -> new User(i, "User" + i)));
+    }
+
+    assertEquals(1, result.getFailures().size());
+    assertEquals(10, result.getFailures().get(0).getParameterObjects().size());
+    assertEquals(AssertionError.class, result.getFailures().get(0).getCause().getCause().getClass());
+    assertEquals(90, result.getLoadedCount());
+    assertEquals(90, countUsers());
+  }
+
+  @Test
+  void shouldReportFailureOfParametersWithCommittedChunks() {
+    IllegalStateException failure = new IllegalStateException("broken cursor");
+    Iterator<User> parameters = new Iterator<User>() {
+      private int id;
+
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public User next() {
+        if (id == 35) {
+          throw failure;
+        }
+        id++;
+        return new User(id, "User" + id);
+      }
+    };
+
+    ParallelBatchResult result;
+    try (ParallelBatchLoader loader = new ParallelBatchLoader(sqlSessionFactory, 2, 10)) {
+      result = loader.load(INSERT_USER, parameters);
+    }
+
+    assertEquals(1, result.getFailures().size());
+    assertEquals(5, result.getFailures().get(0).getParameterObjects().size());
+    assertSame(failure, result.getFailures().get(0).getCause().getCause());
+    assertEquals(30, result.getLoadedCount());
+    assertEquals(30, countUsers());
+  }
+
+  @Test
+  void shouldReuseExecutorServiceAcrossLoads() {
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      try (ParallelBatchLoader loader = new ParallelBatchLoader(sqlSessionFactory, 2, 10, executorService)) {
+        assertEquals(50,
+            loader.load(INSERT_USER, IntStream.rangeClosed(1, 50).mapToObj(i -> new User(i, "User" + i)))
+                .getLoadedCount());
+        assertEquals(50,
+            loader.load(INSERT_USER, IntStream.rangeClosed(51, 100).mapToObj(i -> new User(i, "User" + i)))
+                .getLoadedCount());
+      }
+      // 外部传入的线程池不会被关闭
+      assertFalse(executorService.isShutdown());
+      assertEquals(100, countUsers());
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private int countUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(Mapper.class).countUsers();
+    }
+  }
+
+}
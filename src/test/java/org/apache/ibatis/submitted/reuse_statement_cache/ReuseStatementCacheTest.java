@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.reuse_statement_cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ReuseStatementCacheTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/reuse_statement_cache/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/reuse_statement_cache/CreateDB.sql");
+  }
+
+  @Test
+  void shouldKeepOuterStatementOpenDuringNestedSelects() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Parent> parents = mapper.selectParents();
+      assertThat(parents).extracting(Parent::getName).containsExactly("Parent1", "Parent2", "Parent3");
+      assertThat(parents).extracting(Parent::getChildren).containsExactly(List.of("Child1", "Child2"),
+          List.of("Child3"), List.of());
+
+      // 外层语句释放后可以再次复用
+      assertThat(mapper.selectParents()).hasSize(3);
+    }
+  }
+
+  @Test
+  void shouldKeepCursorStatementOpenWhenEvicted() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<String> names = new ArrayList<>();
+      try (Cursor<String> cursor = mapper.selectParentNames()) {
+        for (String name : cursor) {
+          names.add(name);
+          // 缓存容量为1，这里会淘汰Cursor使用的Statement
+          mapper.selectChildNames(1);
+        }
+      }
+      assertThat(names).containsExactly("Parent1", "Parent2", "Parent3");
+    }
+  }
+
+}
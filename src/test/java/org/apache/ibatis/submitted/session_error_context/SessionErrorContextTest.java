@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.session_error_context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SessionErrorContextTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/session_error_context/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/session_error_context/CreateDB.sql");
+  }
+
+  @AfterEach
+  void resetThreadContext() {
+    ErrorContext.instance().reset();
+  }
+
+  @Test
+  void shouldDescribeFailureWithoutTouchingThreadContext() {
+    ErrorContext.instance().message("outer");
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.selectName(1)).isEqualTo("Item1");
+
+      PersistenceException e = catchThrowableOfType(() -> mapper.selectMissing(1), PersistenceException.class);
+      assertThat(e.getMessage()).contains("Mapper.xml").contains("executing a query")
+          .contains("select name from missing_items where id = ?");
+    }
+    assertThat(ErrorContext.instance().toString()).contains("outer").doesNotContain("executing a query");
+  }
+
+  @Test
+  void shouldCarryErrorContextWhenSessionMovesToAnotherThread() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      PersistenceException e = CompletableFuture
+          .supplyAsync(() -> catchThrowableOfType(() -> mapper.selectMissing(2), PersistenceException.class)).get();
+      assertThat(e.getMessage()).contains("executing a query").contains("missing_items");
+
+      // 会话关闭前在原线程上继续使用，错误上下文已在上一次失败后重置
+      assertThat(mapper.selectName(2)).isEqualTo("Item2");
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.statement_metrics;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+/**
+ * Reads the properties of the routed handler and of the result set handler like pagination plugins do.
+ */
+@Intercepts({
+    @Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }),
+    @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = { Statement.class }) })
+public class DelegatePropertiesInterceptor implements Interceptor {
+
+  private final List<String> statementIds = new CopyOnWriteArrayList<>();
+  private final List<String> sqls = new CopyOnWriteArrayList<>();
+  private final List<String> mappedStatementIds = new CopyOnWriteArrayList<>();
+  private volatile long mappingDelayMillis;
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MetaObject metaObject = SystemMetaObject.forObject(invocation.getTarget());
+    if (invocation.getTarget() instanceof ResultSetHandler) {
+      mappedStatementIds.add((String) metaObject.getValue("mappedStatement.id"));
+      metaObject.getValue("boundSql.sql");
+      metaObject.getValue("rowBounds.limit");
+      if (mappingDelayMillis > 0) {
+        Thread.sleep(mappingDelayMillis);
+      }
+      return invocation.proceed();
+    }
+    statementIds.add((String) metaObject.getValue("delegate.mappedStatement.id"));
+    sqls.add((String) metaObject.getValue("delegate.boundSql.sql"));
+    return invocation.proceed();
+  }
+
+  public List<String> getMappedStatementIds() {
+    return mappedStatementIds;
+  }
+
+  public void setMappingDelayMillis(long mappingDelayMillis) {
+    this.mappingDelayMillis = mappingDelayMillis;
+  }
+
+  public List<String> getStatementIds() {
+    return statementIds;
+  }
+
+  public List<String> getSqls() {
+    return sqls;
+  }
+
+}
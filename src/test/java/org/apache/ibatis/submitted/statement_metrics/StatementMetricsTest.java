@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.statement_metrics;
+
+import static org.assertj.core.api.Assertions.as;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.InstanceOfAssertFactories.STRING;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.metrics.MetricsRegistry;
+import org.apache.ibatis.executor.metrics.StatementMetricsSnapshot;
+import org.apache.ibatis.executor.metrics.StatementPhase;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementMetricsTest {
+
+  private static final String NAMESPACE = Mapper.class.getName() + ".";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  private MetricsRegistry metrics;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/statement_metrics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/statement_metrics/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetMetrics() {
+    metrics = sqlSessionFactory.getConfiguration().getMetricsRegistry();
+    metrics.reset();
+  }
+
+  @Test
+  void shouldKeepDelegatePropertiesReachableForPlugins() {
+    DelegatePropertiesInterceptor interceptor = (DelegatePropertiesInterceptor) sqlSessionFactory.getConfiguration()
+        .getInterceptors().get(0);
+    interceptor.getStatementIds().clear();
+    interceptor.getSqls().clear();
+    interceptor.getMappedStatementIds().clear();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(Mapper.class).selectItems()).hasSize(10);
+    }
+
+    assertThat(interceptor.getStatementIds()).containsExactly(NAMESPACE + "selectItems");
+    assertThat(interceptor.getMappedStatementIds()).containsExactly(NAMESPACE + "selectItems");
+    assertThat(interceptor.getSqls()).singleElement(as(STRING)).contains("from items order by id");
+    assertThat(metrics.getSnapshot(NAMESPACE + "selectItems").getExecutions()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRecordExecutionsRowsAndPhases() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.selectItems()).hasSize(10);
+      sqlSession.clearCache();
+      assertThat(mapper.selectItems()).hasSize(10);
+    }
+
+    StatementMetricsSnapshot snapshot = metrics.getSnapshot(NAMESPACE + "selectItems");
+    assertThat(snapshot.getExecutions()).isEqualTo(2);
+    assertThat(snapshot.getErrors()).isZero();
+    assertThat(snapshot.getRows()).isEqualTo(20);
+    for (StatementPhase phase : StatementPhase.values()) {
+      assertThat(snapshot.getLatency(phase).getCount()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void shouldExcludeMappingFromExecutePhase() {
+    DelegatePropertiesInterceptor interceptor = (DelegatePropertiesInterceptor) sqlSessionFactory.getConfiguration()
+        .getInterceptors().get(0);
+    interceptor.setMappingDelayMillis(200);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(Mapper.class).selectItems()).hasSize(10);
+    } finally {
+      interceptor.setMappingDelayMillis(0);
+    }
+
+    StatementMetricsSnapshot snapshot = metrics.getSnapshot(NAMESPACE + "selectItems");
+    assertThat(snapshot.getLatency(StatementPhase.MAP).getTotalNanos()).isGreaterThanOrEqualTo(200_000_000L);
+    assertThat(snapshot.getLatency(StatementPhase.EXECUTE).getTotalNanos()).isLessThan(200_000_000L);
+  }
+
+  @Test
+  void shouldRecordCacheHits() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.selectItem(1);
+      mapper.selectItem(1);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectItem(1);
+    }
+
+    StatementMetricsSnapshot snapshot = metrics.getSnapshot(NAMESPACE + "selectItem");
+    assertThat(snapshot.getExecutions()).isEqualTo(1);
+    assertThat(snapshot.getSecondLevelCacheHits()).isEqualTo(1);
+    assertThat(snapshot.getSecondLevelCacheMisses()).isEqualTo(2);
+    assertThat(snapshot.getLocalCacheHits()).isEqualTo(1);
+    assertThat(snapshot.getLocalCacheMisses()).isEqualTo(1);
+    assertThat(snapshot.getLocalCacheHitRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  void shouldRecordErrorsAndUpdates() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Item item = new Item();
+      item.setId(11);
+      item.setName("Item11");
+      mapper.insertItem(item);
+      assertThatThrownBy(mapper::selectMissing).isInstanceOf(PersistenceException.class);
+      sqlSession.rollback();
+    }
+
+    assertThat(metrics.getSnapshot(NAMESPACE + "insertItem").getExecutions()).isEqualTo(1);
+    StatementMetricsSnapshot missing = metrics.getSnapshot(NAMESPACE + "selectMissing");
+    assertThat(missing.getExecutions()).isEqualTo(1);
+    assertThat(missing.getErrors()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldPublishSnapshotsToListeners() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectItems();
+    }
+    List<String> published = new ArrayList<>();
+    metrics.addListener(snapshots -> snapshots.forEach(snapshot -> published.add(snapshot.getStatementId())));
+    metrics.publish();
+
+    assertThat(published).containsExactly(NAMESPACE + "selectItems");
+  }
+
+}
@@ -0,0 +1,33 @@
+--
+--    Copyright 2009-2023 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       https://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table items if exists;
+
+create table items (
+  id int,
+  name varchar(20)
+);
+
+insert into items (id, name) values(1, 'Item1');
+insert into items (id, name) values(2, 'Item2');
+insert into items (id, name) values(3, 'Item3');
+insert into items (id, name) values(4, 'Item4');
+insert into items (id, name) values(5, 'Item5');
+insert into items (id, name) values(6, 'Item6');
+insert into items (id, name) values(7, 'Item7');
+insert into items (id, name) values(8, 'Item8');
+insert into items (id, name) values(9, 'Item9');
+insert into items (id, name) values(10, 'Item10');